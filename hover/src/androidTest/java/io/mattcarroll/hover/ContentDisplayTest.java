@@ -0,0 +1,181 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.view.View;
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives the {@link ContentDisplay}'s cache of {@link Content} created by {@link ContentFactory}s
+ * the way the expanded state does when tabs are selected.
+ */
+public class ContentDisplayTest extends InstrumentationTestCase {
+
+    private Context mContext;
+    private ContentDisplay mContentDisplay;
+    private RecordingContentFactory mContentFactory;
+    private List<String> mCalls;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mCalls = new ArrayList<>();
+        mContentFactory = new RecordingContentFactory();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mContext = getInstrumentation().getTargetContext();
+                mContentDisplay = new ContentDisplay(mContext);
+            }
+        });
+    }
+
+    public void testEvictingTheDisplayedContentHidesItAndHandsItBack() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mContentDisplay.displayContent(section("a"));
+                View contentView = mContentFactory.mCreatedContents.get(0).getView();
+                assertNotNull(contentView.getParent());
+
+                mContentDisplay.evictContent(new HoverMenu.SectionId("a"));
+
+                assertEquals("[create a, show a, hide a, evict a]", mCalls.toString());
+                assertNull(contentView.getParent());
+
+                // Selecting the Section again creates new Content.
+                mContentDisplay.displayContent(section("a"));
+                assertEquals(2, mContentFactory.mCreatedContents.size());
+                assertEquals(2, mContentDisplay.getContentCacheMissCount());
+            }
+        });
+    }
+
+    public void testLeastRecentlyDisplayedContentMakesRoom() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mContentDisplay.setContentCacheSize(2);
+                mContentDisplay.displayContent(section("a"));
+                mContentDisplay.displayContent(section("b"));
+                mContentDisplay.displayContent(section("a"));
+                mCalls.clear();
+
+                mContentDisplay.displayContent(section("c"));
+
+                // "b" was displayed before "a" was displayed again, so it is evicted, not "a".
+                assertEquals("[create c, evict b, hide a, show c]", mCalls.toString());
+                assertEquals(1, mContentDisplay.getContentCacheHitCount());
+                assertEquals(3, mContentDisplay.getContentCacheMissCount());
+                assertEquals(1, mContentDisplay.getContentCacheEvictionCount());
+            }
+        });
+    }
+
+    public void testResizingKeepsTheMostRecentlyDisplayedContentAndTheCounts() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mContentDisplay.setContentCacheSize(2);
+                mContentDisplay.displayContent(section("a"));
+                mContentDisplay.displayContent(section("b"));
+                mContentDisplay.displayContent(section("c"));
+                assertEquals(1, mContentDisplay.getContentCacheEvictionCount());
+
+                mContentDisplay.setContentCacheSize(3);
+                mContentDisplay.displayContent(section("b"));
+                assertEquals(1, mContentDisplay.getContentCacheHitCount());
+                mCalls.clear();
+
+                mContentDisplay.setContentCacheSize(1);
+
+                // The displayed "b" was used last, so it stays on display.
+                assertEquals(1, mContentDisplay.getContentCacheSize());
+                assertEquals("[evict c]", mCalls.toString());
+                assertEquals(2, mContentDisplay.getContentCacheEvictionCount());
+                mContentDisplay.displayContent(section("b"));
+                assertEquals(2, mContentDisplay.getContentCacheHitCount());
+            }
+        });
+    }
+
+    public void testCacheMustHoldTheDisplayedContent() throws Exception {
+        try {
+            mContentDisplay.setContentCacheSize(0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // Expected.
+        }
+    }
+
+    private HoverMenu.Section section(@NonNull String id) {
+        return HoverMenu.Section.lazy(new HoverMenu.SectionId(id), new View(mContext), mContentFactory);
+    }
+
+    private class RecordingContentFactory implements ContentFactory {
+        private final List<Content> mCreatedContents = new ArrayList<>();
+
+        @NonNull
+        @Override
+        public Content createContent(@NonNull HoverMenu.SectionId sectionId) {
+            mCalls.add("create " + sectionId);
+            Content content = new RecordingContent(sectionId.toString(), new View(mContext));
+            mCreatedContents.add(content);
+            return content;
+        }
+
+        @Override
+        public void onContentEvicted(@NonNull HoverMenu.SectionId sectionId, @NonNull Content content) {
+            mCalls.add("evict " + sectionId);
+        }
+    }
+
+    private class RecordingContent implements Content {
+        private final String mName;
+        private final View mView;
+
+        RecordingContent(@NonNull String name, @NonNull View view) {
+            mName = name;
+            mView = view;
+        }
+
+        @NonNull
+        @Override
+        public View getView() {
+            return mView;
+        }
+
+        @Override
+        public boolean isFullscreen() {
+            return true;
+        }
+
+        @Override
+        public void onShown() {
+            mCalls.add("show " + mName);
+        }
+
+        @Override
+        public void onHidden() {
+            mCalls.add("hide " + mName);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.test.InstrumentationTestCase;
+import android.view.View;
+
+public class ExitViewTest extends InstrumentationTestCase {
+
+    private static final int SHOW_HIDE_CYCLES = 1000;
+    private static final long SETTLE_TIMEOUT_MILLIS = 2000;
+
+    private ExitView mExitView;
+    private int mCallbacksBeforeTest;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mExitView = new ExitView(getInstrumentation().getTargetContext());
+                mExitView.setVisibility(View.GONE);
+                mCallbacksBeforeTest = HoverAnimationScheduler.getInstance().getFrameCallbackCount();
+            }
+        });
+    }
+
+    public void testRepeatedShowAndHideReusesOneAnimation() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < SHOW_HIDE_CYCLES; ++i) {
+                    mExitView.show();
+                    assertEquals(ExitView.STATE_SHOWING, mExitView.getState());
+                    mExitView.hide();
+                    assertEquals(ExitView.STATE_HIDING, mExitView.getState());
+                }
+
+                // However many times it was toggled, at most one animation is running.
+                assertEquals(mCallbacksBeforeTest + 1, HoverAnimationScheduler.getInstance().getFrameCallbackCount());
+            }
+        });
+
+        waitForState(ExitView.STATE_HIDDEN);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(View.GONE, mExitView.getVisibility());
+                assertEquals(mCallbacksBeforeTest, HoverAnimationScheduler.getInstance().getFrameCallbackCount());
+            }
+        });
+    }
+
+    public void testRedundantCallsDoNotRestartTheAnimation() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mExitView.hide();
+                assertEquals(ExitView.STATE_HIDDEN, mExitView.getState());
+                assertEquals(mCallbacksBeforeTest, HoverAnimationScheduler.getInstance().getFrameCallbackCount());
+
+                mExitView.show();
+            }
+        });
+
+        waitForState(ExitView.STATE_SHOWN);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(View.VISIBLE, mExitView.getVisibility());
+                mExitView.show();
+                assertEquals(ExitView.STATE_SHOWN, mExitView.getState());
+                assertEquals(mCallbacksBeforeTest, HoverAnimationScheduler.getInstance().getFrameCallbackCount());
+            }
+        });
+    }
+
+    private void waitForState(final int state) throws InterruptedException {
+        final int[] currentState = new int[1];
+        long deadline = System.currentTimeMillis() + SETTLE_TIMEOUT_MILLIS;
+        do {
+            Thread.sleep(50);
+            getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    currentState[0] = mExitView.getState();
+                }
+            });
+        } while (currentState[0] != state && System.currentTimeMillis() < deadline);
+        assertEquals(state, currentState[0]);
+    }
+}
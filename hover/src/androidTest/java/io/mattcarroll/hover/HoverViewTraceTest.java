@@ -0,0 +1,197 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.ParcelFileDescriptor;
+import android.test.InstrumentationTestCase;
+import android.view.View;
+import android.view.WindowManager;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.mattcarroll.hover.window.WindowViewController;
+
+/**
+ * Expands and collapses a {@link HoverView} in an overlay window and checks that each state
+ * change is traced from its start until the state reports that it has changed.
+ */
+public class HoverViewTraceTest extends InstrumentationTestCase {
+
+    private static final long STATE_CHANGE_TIMEOUT_MILLIS = 5000;
+
+    private RecordingTraceSink mTraceSink;
+    private HoverView mHoverView;
+    private CountDownLatch mExpanded;
+    private CountDownLatch mCollapsed;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        allowOverlayWindows();
+        mTraceSink = new RecordingTraceSink();
+        HoverTrace.setSink(mTraceSink);
+        mExpanded = new CountDownLatch(1);
+        mCollapsed = new CountDownLatch(1);
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Context context = getInstrumentation().getTargetContext();
+                WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+                mHoverView = HoverView.createForWindow(context, new WindowViewController(windowManager));
+                mHoverView.addOnStateChangeListener(new HoverView.DefaultOnStateChangeListener() {
+                    @Override
+                    public void onExpanded() {
+                        mExpanded.countDown();
+                    }
+
+                    @Override
+                    public void onCollapsed() {
+                        mCollapsed.countDown();
+                    }
+                });
+                mHoverView.addToWindow();
+                mHoverView.setMenu(new SingleSectionMenu(context));
+                mHoverView.collapse();
+            }
+        });
+        assertTrue(mCollapsed.await(STATE_CHANGE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        mCollapsed = new CountDownLatch(1);
+        mTraceSink.clear();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mHoverView.removeFromWindow();
+            }
+        });
+        HoverTrace.setSink(null);
+        super.tearDown();
+    }
+
+    public void testExpandAndCollapseAreTracedUntilTheyFinish() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mHoverView.expand();
+            }
+        });
+        assertTrue(mExpanded.await(STATE_CHANGE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mHoverView.collapse();
+            }
+        });
+        assertTrue(mCollapsed.await(STATE_CHANGE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                // Each section ended when its state reported the change, not when the next began.
+                assertEquals(1, mTraceSink.getCount(HoverView.TRACE_EXPAND));
+                assertEquals(1, mTraceSink.getCount(HoverView.TRACE_COLLAPSE));
+                assertTrue(mTraceSink.getLastDurationMillis(HoverView.TRACE_EXPAND) >= 0);
+                assertTrue(mTraceSink.getLastDurationMillis(HoverView.TRACE_COLLAPSE) >= 0);
+            }
+        });
+    }
+
+    // Overlay windows need the SYSTEM_ALERT_WINDOW app op from API 23.
+    private void allowOverlayWindows() throws Exception {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            String packageName = getInstrumentation().getTargetContext().getPackageName();
+            ParcelFileDescriptor output = getInstrumentation().getUiAutomation()
+                    .executeShellCommand("appops set " + packageName + " SYSTEM_ALERT_WINDOW allow");
+            output.close();
+        }
+    }
+
+    private static class SingleSectionMenu extends HoverMenu {
+        private final List<Section> mSections = new ArrayList<>();
+
+        SingleSectionMenu(@NonNull Context context) {
+            mSections.add(new Section(new SectionId("only"), new View(context), new ViewContent(new View(context))));
+        }
+
+        @Override
+        public String getId() {
+            return "trace-test";
+        }
+
+        @Override
+        public int getSectionCount() {
+            return mSections.size();
+        }
+
+        @Nullable
+        @Override
+        public Section getSection(int index) {
+            return mSections.get(index);
+        }
+
+        @Nullable
+        @Override
+        public Section getSection(@NonNull SectionId sectionId) {
+            return sectionId.equals(mSections.get(0).getId()) ? mSections.get(0) : null;
+        }
+
+        @NonNull
+        @Override
+        public List<Section> getSections() {
+            return mSections;
+        }
+    }
+
+    private static class ViewContent implements Content {
+        private final View mView;
+
+        ViewContent(@NonNull View view) {
+            mView = view;
+        }
+
+        @NonNull
+        @Override
+        public View getView() {
+            return mView;
+        }
+
+        @Override
+        public boolean isFullscreen() {
+            return true;
+        }
+
+        @Override
+        public void onShown() {
+            // No-op
+        }
+
+        @Override
+        public void onHidden() {
+            // No-op
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.view.View;
+import android.widget.RelativeLayout;
+
+/**
+ * Drives {@link Screen} the way the collapsed and expanded states do: the selected tab stays while
+ * the other tabs are created on expand and destroyed on collapse.
+ */
+public class ScreenTest extends InstrumentationTestCase {
+
+    private static final int SECTION_COUNT = 10;
+    private static final int EXPAND_COLLAPSE_CYCLES = 20;
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1920;
+
+    private RelativeLayout mContainer;
+    private Screen mScreen;
+    private View[] mTabViews;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                Context context = getInstrumentation().getTargetContext();
+                // HoverView, the real container, is a RelativeLayout.
+                mContainer = new RelativeLayout(context);
+                mScreen = new Screen(mContainer);
+                mTabViews = new View[SECTION_COUNT];
+                for (int i = 0; i < SECTION_COUNT; ++i) {
+                    mTabViews[i] = new View(context);
+                }
+            }
+        });
+    }
+
+    public void testRepeatedExpandAndCollapseCreatesNoNewTabs() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                // Collapsed: only the selected tab exists.
+                mScreen.createChainedTab(tabId(0), mTabViews[0]);
+
+                for (int cycle = 0; cycle < EXPAND_COLLAPSE_CYCLES; ++cycle) {
+                    expand();
+                    collapse();
+                }
+
+                assertEquals(SECTION_COUNT, mScreen.getCreatedTabCount());
+                // Nothing asked for a message.
+                assertEquals(0, mScreen.getCreatedTabMessageViewCount());
+            }
+        });
+    }
+
+    public void testMessageViewsAreOnlyAttachedWhileNeeded() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                int childCountBeforeTabs = mContainer.getChildCount();
+                expand();
+                for (int i = 0; i < SECTION_COUNT; ++i) {
+                    mScreen.getChainedTab(tabId(i)).appearImmediate();
+                }
+                layOut();
+
+                // One child per tab rather than two, and only tabs get measured and laid out.
+                assertEquals(childCountBeforeTabs + SECTION_COUNT, mContainer.getChildCount());
+                int measurePasses = mScreen.getTabMeasurePassCount();
+                int layoutPasses = mScreen.getTabLayoutPassCount();
+                layOut();
+                // RelativeLayout may measure a child twice per pass, but lays it out once.
+                assertTrue(mScreen.getTabMeasurePassCount() - measurePasses >= SECTION_COUNT);
+                assertEquals(SECTION_COUNT, mScreen.getTabLayoutPassCount() - layoutPasses);
+
+                // Looking a message view up neither creates nor attaches one.
+                assertNull(mScreen.findTabMessageView(new HoverMenu.SectionId(tabId(0))));
+                assertEquals(childCountBeforeTabs + SECTION_COUNT, mContainer.getChildCount());
+                assertEquals(0, mScreen.getCreatedTabMessageViewCount());
+
+                // Previewing a message attaches one message view, right below its tab.
+                TabMessageView messageView = mScreen.getTabMessageView(new HoverMenu.SectionId(tabId(0)));
+                assertNotNull(messageView);
+                assertEquals(childCountBeforeTabs + SECTION_COUNT + 1, mContainer.getChildCount());
+                assertEquals(mContainer.indexOfChild(mScreen.getChainedTab(tabId(0))) - 1, mContainer.indexOfChild(messageView));
+                assertSame(messageView, mScreen.getTabMessageView(new HoverMenu.SectionId(tabId(0))));
+                assertSame(messageView, mScreen.findTabMessageView(new HoverMenu.SectionId(tabId(0))));
+                assertEquals(1, mScreen.getCreatedTabMessageViewCount());
+
+                // Once it has disappeared, it detaches again.
+                messageView.disappear(false);
+                assertNull(messageView.getParent());
+                assertEquals(childCountBeforeTabs + SECTION_COUNT, mContainer.getChildCount());
+                assertNull(mScreen.findTabMessageView(new HoverMenu.SectionId(tabId(0))));
+
+                assertNull(mScreen.getTabMessageView(new HoverMenu.SectionId("missing")));
+            }
+        });
+    }
+
+    public void testMessageAppearingWhileFadingOutStaysAttached() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mScreen.createChainedTab(tabId(0), mTabViews[0]).appearImmediate();
+                SideDock dock = new SideDock(
+                        HoverView.createForView(getInstrumentation().getTargetContext()),
+                        0,
+                        new SideDock.SidePosition(SideDock.SidePosition.LEFT, 0.5f)
+                );
+                TabMessageView messageView = mScreen.getTabMessageView(new HoverMenu.SectionId(tabId(0)));
+                messageView.appear(dock, null);
+
+                // Collapsing fades the message out; previewing again before the fade ends
+                // interrupts it.
+                messageView.disappear(true);
+                messageView.appear(dock, null);
+
+                assertSame(mContainer, messageView.getParent());
+                assertEquals(View.VISIBLE, messageView.getVisibility());
+            }
+        });
+    }
+
+    public void testRecycledTabIsReset() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                FloatingTab tab = mScreen.createChainedTab(tabId(1), mTabViews[1]);
+                tab.appearImmediate();
+                tab.setScaleX(0.5f);
+                tab.setScaleY(0.5f);
+                tab.setOnClickListener(new View.OnClickListener() {
+                    @Override
+                    public void onClick(View v) {
+                        fail("The recycled tab kept its click listener.");
+                    }
+                });
+                mScreen.destroyChainedTab(tab);
+                // A second destroy, e.g., from a late unchain callback, must not recycle it twice.
+                mScreen.destroyChainedTab(tab);
+
+                FloatingTab reusedTab = mScreen.createChainedTab(tabId(2), mTabViews[2]);
+                FloatingTab newTab = mScreen.createChainedTab(tabId(3), mTabViews[3]);
+                assertSame(tab, reusedTab);
+                assertNotSame(tab, newTab);
+                assertEquals(tabId(2), reusedTab.getTabId());
+                assertSame(reusedTab, mScreen.getChainedTab(tabId(2)));
+                assertNull(mScreen.getChainedTab(tabId(1)));
+                assertSame(reusedTab, mTabViews[2].getParent());
+                assertNull(mTabViews[1].getParent());
+                assertEquals(View.GONE, reusedTab.getVisibility());
+                assertEquals(1.0f, reusedTab.getScaleX());
+                assertEquals(1.0f, reusedTab.getScaleY());
+                assertFalse(reusedTab.performClick());
+            }
+        });
+    }
+
+    private void layOut() {
+        // Force every child to be measured and laid out again, as when the hover menu moves.
+        for (int i = 0; i < mContainer.getChildCount(); ++i) {
+            mContainer.getChildAt(i).forceLayout();
+        }
+        mContainer.forceLayout();
+        mContainer.measure(
+                View.MeasureSpec.makeMeasureSpec(SCREEN_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(SCREEN_HEIGHT, View.MeasureSpec.EXACTLY));
+        mContainer.layout(0, 0, SCREEN_WIDTH, SCREEN_HEIGHT);
+    }
+
+    private void expand() {
+        for (int i = 0; i < SECTION_COUNT; ++i) {
+            mScreen.createChainedTab(tabId(i), mTabViews[i]);
+        }
+    }
+
+    private void collapse() {
+        for (int i = 1; i < SECTION_COUNT; ++i) {
+            mScreen.destroyChainedTab(mScreen.getChainedTab(tabId(i)));
+        }
+    }
+
+    private static String tabId(int index) {
+        return "section" + index;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.test.InstrumentationTestCase;
+
+import java.util.Collections;
+
+/**
+ * Checks that {@link SharedPreferencesVisualStateStorage} reads what earlier versions saved and
+ * notices edits that it did not make.
+ */
+public class SharedPreferencesVisualStateStorageTest extends InstrumentationTestCase {
+
+    private static final String PREFS_FILE = "hover_visual_state_test";
+
+    private SharedPreferences mPrefs;
+    private SharedPreferencesVisualStateStorage mStorage;
+    private String mExternallyChangedMenuId;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPrefs = getInstrumentation().getTargetContext().getSharedPreferences(PREFS_FILE, Context.MODE_PRIVATE);
+        mPrefs.edit().clear().commit();
+        mPrefs.edit()
+                .putInt("menu_dock_side", SideDock.SidePosition.LEFT)
+                .putFloat("menu_dock_position", 0.25f)
+                .putString("menu_selected_section", "a")
+                .commit();
+        mStorage = new SharedPreferencesVisualStateStorage(mPrefs);
+        mStorage.setOnExternalChangeListener(new SharedPreferencesVisualStateStorage.OnExternalChangeListener() {
+            @Override
+            public void onExternalChange(String menuId) {
+                mExternallyChangedMenuId = menuId;
+            }
+        });
+    }
+
+    public void testReadsExistingKeys() {
+        VisualStateStorage.MenuState state = mStorage.read("menu");
+
+        assertEquals(new VisualStateStorage.MenuState(SideDock.SidePosition.LEFT, 0.25f, "a"), state);
+        assertNull(mStorage.read("other"));
+    }
+
+    public void testOwnWritesAreNotReportedAsExternal() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mStorage.read("menu");
+                mStorage.write(Collections.singletonMap("menu", new VisualStateStorage.MenuState(SideDock.SidePosition.RIGHT, 0.5f, "b")));
+            }
+        });
+
+        assertNull(mExternallyChangedMenuId);
+        assertEquals("b", mStorage.read("menu").getSelectedSectionId());
+        assertEquals("b", mPrefs.getString("menu_selected_section", null));
+    }
+
+    public void testExternalEditReplacesTheCachedState() throws Exception {
+        getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mStorage.read("menu");
+                mPrefs.edit().putString("menu_selected_section", "edited").commit();
+            }
+        });
+
+        assertEquals("menu", mExternallyChangedMenuId);
+        assertEquals("edited", mStorage.read("menu").getSelectedSectionId());
+    }
+}
@@ -4,27 +4,30 @@ import android.graphics.PointF;
 import android.graphics.Rect;
 import androidx.annotation.NonNull;
 import androidx.core.util.Pair;
-import android.util.Log;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewGroup;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public abstract class BaseTouchController {
     private static final String TAG = "BaseTouchController";
+    private static final String TRACE_ACTIVATE = "BaseTouchController.activate";
+    private static final String TRACE_DEACTIVATE = "BaseTouchController.deactivate";
+    private static final int MAX_RECYCLED_TOUCH_VIEW_ITEMS = 8;
 
-    protected Map<String, TouchViewItem> mTouchViewMap = new HashMap<>();
+    // Active touch views, keyed by their original View.
+    private final IdentityArrayMap<View, TouchViewItem> mTouchViewItems = new IdentityArrayMap<>();
     protected boolean mIsActivated;
     private boolean mIsDebugMode;
-
-    private final HoverFrameLayout.OnPositionChangeListener mOnPositionChangeListener = new HoverFrameLayout.OnPositionChangeListener() {
-        @Override
-        public void onPositionChange(@NonNull View view) {
-            moveTouchViewTo(mTouchViewMap.get(view.getTag()).mTouchView, new PointF(view.getX(), view.getY()));
-        }
-    };
+    // Touch views from previous activations, keyed by their original View, least recently used first.
+    private final IdentityArrayMap<View, TouchViewItem> mRecycledTouchViewItems = new IdentityArrayMap<>(MAX_RECYCLED_TOUCH_VIEW_ITEMS + 1);
+    private int mTouchViewPoolHits;
+    private int mTouchViewPoolMisses;
+    private int mTouchViewDestroyCount;
+    private final Rect mDrawingRect = new Rect();
+    // Reused for every position change so that following a moving View does not allocate.
+    private final PointF mTouchViewPosition = new PointF();
 
     public abstract View createTouchView(@NonNull Rect rect);
 
@@ -32,28 +35,97 @@ public abstract class BaseTouchController {
 
     public abstract void moveTouchViewTo(@NonNull View touchView, @NonNull PointF position);
 
+    /**
+     * Stops the given touch view from receiving touches while it waits to be reused by a later
+     * activation.
+     */
+    public void hideTouchView(@NonNull View touchView) {
+        touchView.setVisibility(View.GONE);
+    }
+
+    /**
+     * Lets a touch view that was hidden by {@link #hideTouchView(View)} receive touches again.
+     */
+    public void showTouchView(@NonNull View touchView) {
+        touchView.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * Changes the size of a reused touch view to match the size of its original View.
+     */
+    public void resizeTouchView(@NonNull View touchView, int width, int height) {
+        ViewGroup.LayoutParams layoutParams = touchView.getLayoutParams();
+        if (null != layoutParams) {
+            layoutParams.width = width;
+            layoutParams.height = height;
+            touchView.setLayoutParams(layoutParams);
+        }
+    }
+
     public void activate(final List<Pair<? extends HoverFrameLayout, ? extends TouchListener>> viewList) {
         if (!mIsActivated) {
-            Log.d(TAG, "Activating.");
-            mIsActivated = true;
-
-            clearTouchViewMap();
-            for (int i = 0; i < viewList.size(); i++) {
-                final Pair<? extends HoverFrameLayout, ? extends TouchListener> viewItem = viewList.get(i);
-                final String tag = "view" + i;
-                final TouchViewItem touchViewItem = createTouchViewItem(viewItem.first, viewItem.second, tag);
-                mTouchViewMap.put(tag, touchViewItem);
+            HoverTrace.beginSection(TRACE_ACTIVATE);
+            try {
+                HoverLog.d(TAG, "Activating.");
+                mIsActivated = true;
+
+                clearTouchViewMap();
+                for (int i = 0; i < viewList.size(); i++) {
+                    final Pair<? extends HoverFrameLayout, ? extends TouchListener> viewItem = viewList.get(i);
+                    mTouchViewItems.put(viewItem.first, obtainTouchViewItem(viewItem.first, viewItem.second));
+                }
+                updateTouchControlViewAppearance();
+            } finally {
+                HoverTrace.endSection();
             }
-            updateTouchControlViewAppearance();
         }
     }
 
     public void deactivate() {
         if (mIsActivated) {
-            Log.d(TAG, "Deactivating.");
-            clearTouchViewMap();
-            mIsActivated = false;
+            HoverTrace.beginSection(TRACE_DEACTIVATE);
+            try {
+                HoverLog.d(TAG, "Deactivating.");
+                clearTouchViewMap();
+                mIsActivated = false;
+            } finally {
+                HoverTrace.endSection();
+            }
+        }
+    }
+
+    /**
+     * Deactivates this controller and releases anything it holds on to between activations.  The
+     * controller may be activated again afterwards.
+     */
+    public void release() {
+        deactivate();
+        for (int i = 0; i < mRecycledTouchViewItems.size(); ++i) {
+            mRecycledTouchViewItems.valueAt(i).destroy();
         }
+        mRecycledTouchViewItems.clear();
+    }
+
+    /**
+     * @return the number of activations that reused an existing touch view for an original View
+     */
+    public int getTouchViewPoolHits() {
+        return mTouchViewPoolHits;
+    }
+
+    /**
+     * @return the number of activations that had to create a new touch view for an original View
+     */
+    public int getTouchViewPoolMisses() {
+        return mTouchViewPoolMisses;
+    }
+
+    /**
+     * @return the number of touch views that were destroyed, either because the recycled pool was
+     * full or by {@link #release()}
+     */
+    public int getTouchViewDestroyCount() {
+        return mTouchViewDestroyCount;
     }
 
     public void enableDebugMode(boolean isDebugMode) {
@@ -61,24 +133,50 @@ public abstract class BaseTouchController {
         updateTouchControlViewAppearance();
     }
 
-    private <T extends TouchListener<V>, V extends HoverFrameLayout> TouchViewItem createTouchViewItem(final V originalView, final T listener, final String tag) {
-        return new TouchViewItem<>(originalView, createTouchViewFrom(originalView), listener, tag);
+    private <T extends TouchListener<V>, V extends HoverFrameLayout> TouchViewItem obtainTouchViewItem(final V originalView, final T listener) {
+        originalView.getDrawingRect(mDrawingRect);
+        TouchViewItem<V, T> touchViewItem = mRecycledTouchViewItems.remove(originalView);
+        if (null != touchViewItem) {
+            ++mTouchViewPoolHits;
+            if (touchViewItem.mWidth != mDrawingRect.width() || touchViewItem.mHeight != mDrawingRect.height()) {
+                touchViewItem.mWidth = mDrawingRect.width();
+                touchViewItem.mHeight = mDrawingRect.height();
+                resizeTouchView(touchViewItem.mTouchView, touchViewItem.mWidth, touchViewItem.mHeight);
+            }
+            showTouchView(touchViewItem.mTouchView);
+        } else {
+            ++mTouchViewPoolMisses;
+            touchViewItem = new TouchViewItem<>(originalView, createTouchView(mDrawingRect), mDrawingRect.width(), mDrawingRect.height());
+        }
+
+        mTouchViewPosition.set(originalView.getX(), originalView.getY());
+        moveTouchViewTo(touchViewItem.mTouchView, mTouchViewPosition);
+        touchViewItem.attach(listener);
+        return touchViewItem;
     }
 
     protected <T extends TouchListener<V>, V extends View> TouchDetector createTouchDetector(final V originalView, final T touchListener) {
         return new TouchDetector<>(originalView, touchListener);
     }
 
+    // Moves the active touch views to the recycled pool, destroying the least recently used ones
+    // that do not fit.
     private void clearTouchViewMap() {
-        for (final TouchViewItem touchViewItem : mTouchViewMap.values()) {
-            touchViewItem.destroy();
+        for (int i = 0; i < mTouchViewItems.size(); ++i) {
+            final TouchViewItem touchViewItem = mTouchViewItems.valueAt(i);
+            touchViewItem.detach();
+            hideTouchView(touchViewItem.mTouchView);
+            mRecycledTouchViewItems.put(touchViewItem.mOriginalView, touchViewItem);
+            if (mRecycledTouchViewItems.size() > MAX_RECYCLED_TOUCH_VIEW_ITEMS) {
+                mRecycledTouchViewItems.removeAt(0).destroy();
+            }
         }
-        mTouchViewMap.clear();
+        mTouchViewItems.clear();
     }
 
     private void updateTouchControlViewAppearance() {
-        for (final TouchViewItem touchViewItemItem : mTouchViewMap.values()) {
-            final View touchView = touchViewItemItem.mTouchView;
+        for (int i = 0; i < mTouchViewItems.size(); ++i) {
+            final View touchView = mTouchViewItems.valueAt(i).mTouchView;
             if (null != touchView) {
                 if (mIsDebugMode) {
                     touchView.setBackgroundColor(0x44FF0000);
@@ -89,19 +187,6 @@ public abstract class BaseTouchController {
         }
     }
 
-    private Rect getRectFrom(final View view) {
-        final Rect rect = new Rect();
-        view.getDrawingRect(rect);
-        return rect;
-
-    }
-
-    private View createTouchViewFrom(final View originalView) {
-        final View touchView = createTouchView(getRectFrom(originalView));
-        moveTouchViewTo(touchView, new PointF(originalView.getX(), originalView.getY()));
-        return touchView;
-    }
-
     public interface TouchListener <V extends View> {
         void onTap(V view);
 
@@ -126,11 +211,11 @@ public abstract class BaseTouchController {
         public boolean onTouch(View view, MotionEvent motionEvent) {
             switch (motionEvent.getAction()) {
                 case MotionEvent.ACTION_DOWN:
-                    Log.d(TAG, "ACTION_DOWN");
+                    HoverLog.d(TAG, "ACTION_DOWN");
                     mEventListener.onTouchDown(mOriginalView);
                     return true;
                 case MotionEvent.ACTION_UP:
-                    Log.d(TAG, "ACTION_UP");
+                    HoverLog.d(TAG, "ACTION_UP");
                     mEventListener.onTouchUp(mOriginalView);
                     mEventListener.onTap(mOriginalView);
                     return true;
@@ -140,27 +225,44 @@ public abstract class BaseTouchController {
         }
     }
 
-    protected class TouchViewItem<V extends HoverFrameLayout, T extends TouchListener<V>> {
+    // Follows its original View directly as a position listener, so no lookup runs per frame.
+    protected class TouchViewItem<V extends HoverFrameLayout, T extends TouchListener<V>> implements HoverFrameLayout.OnPositionChangeListener {
         final V mOriginalView;
         final View mTouchView;
-        final T mTouchListener;
+        T mTouchListener;
+        int mWidth;
+        int mHeight;
 
-        TouchViewItem(final V originalView, final View touchView, final T touchListener, final String tag) {
+        TouchViewItem(final V originalView, final View touchView, final int width, final int height) {
             this.mOriginalView = originalView;
             this.mTouchView = touchView;
-            this.mTouchListener = touchListener;
+            this.mWidth = width;
+            this.mHeight = height;
+        }
 
-            mOriginalView.setTag(tag);
-            mTouchView.setTag(tag);
+        void attach(final T touchListener) {
+            if (mTouchListener != touchListener) {
+                mTouchListener = touchListener;
+                mTouchView.setOnTouchListener(createTouchDetector(mOriginalView, mTouchListener));
+            }
+            mOriginalView.addOnPositionChangeListener(this);
+        }
+
+        @Override
+        public void onPositionChange(@NonNull View view) {
+            mTouchViewPosition.set(view.getX(), view.getY());
+            moveTouchViewTo(mTouchView, mTouchViewPosition);
+        }
 
-            mTouchView.setOnTouchListener(createTouchDetector(mOriginalView, mTouchListener));
-            mOriginalView.addOnPositionChangeListener(mOnPositionChangeListener);
+        void detach() {
+            mOriginalView.removeOnPositionChangeListener(this);
         }
 
         void destroy() {
             mTouchView.setOnTouchListener(null);
-            mOriginalView.removeOnPositionChangeListener(mOnPositionChangeListener);
+            mOriginalView.removeOnPositionChangeListener(this);
             destroyTouchView(mTouchView);
+            ++mTouchViewDestroyCount;
         }
     }
 }
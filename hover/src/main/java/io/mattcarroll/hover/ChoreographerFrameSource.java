@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import android.view.Choreographer;
+
+/**
+ * {@link HoverAnimationScheduler.FrameSource} backed by the {@code Choreographer}, or by a
+ * {@code Handler} before API 16.
+ */
+class ChoreographerFrameSource implements HoverAnimationScheduler.FrameSource {
+
+    private static final long FALLBACK_FRAME_DELAY_MILLIS = 16;
+
+    private HoverAnimationScheduler mScheduler;
+    private Handler mHandler;
+    private Runnable mFallbackFrameRunnable;
+    private Object mChoreographerCallback; // Choreographer.FrameCallback, which requires API 16.
+
+    @Override
+    public void postFrame(@NonNull HoverAnimationScheduler scheduler) {
+        mScheduler = scheduler;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            postChoreographerCallback();
+        } else {
+            if (null == mHandler) {
+                mHandler = new Handler(Looper.getMainLooper());
+                mFallbackFrameRunnable = new Runnable() {
+                    @Override
+                    public void run() {
+                        mScheduler.doFrame(SystemClock.uptimeMillis());
+                    }
+                };
+            }
+            mHandler.postDelayed(mFallbackFrameRunnable, FALLBACK_FRAME_DELAY_MILLIS);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void postChoreographerCallback() {
+        if (null == mChoreographerCallback) {
+            mChoreographerCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    mScheduler.doFrame(frameTimeNanos / 1000000);
+                }
+            };
+        }
+        Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) mChoreographerCallback);
+    }
+}
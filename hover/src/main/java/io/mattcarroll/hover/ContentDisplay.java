@@ -22,7 +22,7 @@ import android.graphics.drawable.Drawable;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
-import android.util.Log;
+import android.util.LruCache;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -30,6 +30,8 @@ import android.view.ViewTreeObserver;
 import android.widget.FrameLayout;
 import android.widget.RelativeLayout;
 
+import java.util.Map;
+
 /**
  * Rectangular area that displays {@link Content}.  A {@code ContentDisplay} also renders a caret
  * that points at a tab.
@@ -37,6 +39,11 @@ import android.widget.RelativeLayout;
 class ContentDisplay extends RelativeLayout {
 
     private static final String TAG = "ContentDisplay";
+    private static final String TRACE_CREATE_CONTENT = "ContentDisplay.createContent";
+    private static final String TRACE_DETACH_CONTENT = "ContentDisplay.detachContent";
+    private static final String TRACE_ATTACH_CONTENT = "ContentDisplay.attachContent";
+
+    private static final int DEFAULT_CONTENT_CACHE_SIZE = 3;
 
     private View mContainer;
     private FrameLayout mContentView;
@@ -45,6 +52,12 @@ class ContentDisplay extends RelativeLayout {
     private FloatingTab mSelectedTab;
     private Content mContent;
     private boolean mIsVisible = false;
+    // Content created by ContentFactorys, by Section.
+    private ContentCache mContentCache = new ContentCache(DEFAULT_CONTENT_CACHE_SIZE);
+    private int mContentCacheHitCount = 0;
+    private int mContentCacheMissCount = 0;
+    // Kept here rather than read from the LruCache, which setContentCacheSize() replaces.
+    private int mContentCacheEvictionCount = 0;
 
     private final ViewTreeObserver.OnGlobalLayoutListener mMyVisibilityWatcher = new ViewTreeObserver.OnGlobalLayoutListener() {
         @Override
@@ -63,17 +76,38 @@ class ContentDisplay extends RelativeLayout {
     private final FloatingTab.OnPositionChangeListener mOnTabPositionChangeListener = new FloatingTab.OnPositionChangeListener() {
         @Override
         public void onPositionChange(@NonNull View view) {
-            final Point position = new Point((int) view.getX() + (view.getWidth() / 2), (int) view.getY() + (view.getHeight() / 2));
-            Log.d(TAG, mSelectedTab + " tab moved to " + position);
+            int tabCenterY = (int) view.getY() + (view.getHeight() / 2);
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, mSelectedTab + " tab moved to y: " + tabCenterY);
+            }
             updateTabSelectorPosition();
-
-            setPadding(0, position.y + (mSelectedTab.getTabSize() / 2), 0, 0);
+            moveContentTopTo(tabCenterY + (mSelectedTab.getTabSize() / 2));
 
             // We have received an affirmative position for the selected tab. Show tab selector.
             mTabSelectorView.setVisibility(VISIBLE);
         }
     };
 
+    // While the selected tab moves, the content follows it by translation, which needs no layout
+    // pass.  Once the tab has been still for a frame, the offset becomes padding again.
+    private int mContentTop;
+    private boolean mHasContentTopChanged;
+    private final HoverAnimationScheduler.FrameCallback mCommitContentTop = new HoverAnimationScheduler.FrameCallback() {
+        @Override
+        public void doAnimationFrame(long frameTimeMillis) {
+            if (mHasContentTopChanged) {
+                mHasContentTopChanged = false;
+                return;
+            }
+
+            HoverAnimationScheduler.getInstance().removeFrameCallback(this);
+            if (getPaddingTop() != mContentTop) {
+                setPadding(0, mContentTop, 0, 0);
+            }
+            mContainer.setTranslationY(0);
+        }
+    };
+
     public ContentDisplay(@NonNull Context context) {
         super(context);
         init();
@@ -131,12 +165,54 @@ class ContentDisplay extends RelativeLayout {
         }
     }
 
+    private void moveContentTopTo(int contentTop) {
+        if (contentTop == mContentTop && mContainer.getTranslationY() == contentTop - getPaddingTop()) {
+            return;
+        }
+
+        mContentTop = contentTop;
+        mContainer.setTranslationY(contentTop - getPaddingTop());
+        mHasContentTopChanged = true;
+        HoverAnimationScheduler.getInstance().addFrameCallback(mCommitContentTop);
+    }
+
     private void updateTabSelectorPosition() {
         Point tabPosition = mSelectedTab.getPosition();
-        Log.d(TAG, "Updating tab position to " + tabPosition.x);
+        if (HoverLog.ENABLED) {
+            HoverLog.d(TAG, "Updating tab position to " + tabPosition.x);
+        }
         mTabSelectorView.setSelectorPosition(tabPosition.x);
     }
 
+    /**
+     * Displays the {@link Content} of the given {@code section}.  If the {@code Section} has a
+     * {@link ContentFactory}, its {@code Content} comes from the content cache and is only created
+     * on a miss.
+     */
+    public void displayContent(@NonNull HoverMenu.Section section) {
+        ContentFactory contentFactory = section.getContentFactory();
+        if (null == contentFactory) {
+            displayContent(section.getContent());
+            return;
+        }
+
+        CachedContent cachedContent = mContentCache.get(section.getId());
+        if (null != cachedContent && cachedContent.mContentFactory == contentFactory) {
+            ++mContentCacheHitCount;
+        } else {
+            ++mContentCacheMissCount;
+            HoverTrace.beginSection(TRACE_CREATE_CONTENT);
+            try {
+                cachedContent = new CachedContent(contentFactory, contentFactory.createContent(section.getId()));
+            } finally {
+                HoverTrace.endSection();
+            }
+            // Replaces, and so evicts, Content from an older ContentFactory for this Section.
+            mContentCache.put(section.getId(), cachedContent);
+        }
+        displayContent(cachedContent.mContent);
+    }
+
     public void displayContent(@Nullable Content content) {
         if (content == mContent) {
             // If content hasn't changed then we don't need to do anything.
@@ -144,23 +220,82 @@ class ContentDisplay extends RelativeLayout {
         }
 
         if (null != mContent) {
-            mContentView.removeView(mContent.getView());
-            mContent.onHidden();
+            HoverTrace.beginSection(TRACE_DETACH_CONTENT);
+            try {
+                mContentView.removeView(mContent.getView());
+                mContent.onHidden();
+            } finally {
+                HoverTrace.endSection();
+            }
         }
 
         mContent = content;
         if (null != mContent) {
-            mContentView.addView(mContent.getView());
-            mContent.onShown();
+            HoverTrace.beginSection(TRACE_ATTACH_CONTENT);
+            try {
+                mContentView.addView(mContent.getView());
+                mContent.onShown();
 
-            if (content.isFullscreen()) {
-                expandToScreenBounds();
-            } else {
-                wrapContent();
+                if (content.isFullscreen()) {
+                    expandToScreenBounds();
+                } else {
+                    wrapContent();
+                }
+            } finally {
+                HoverTrace.endSection();
             }
         }
     }
 
+    /**
+     * Sets how many {@link Content}s created by {@link ContentFactory}s are kept, including the one
+     * on display.  Shrinking the cache evicts the least recently displayed {@code Content}s.
+     */
+    public void setContentCacheSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The content cache must hold at least the displayed Content.");
+        }
+        if (maxSize == mContentCache.maxSize()) {
+            return;
+        }
+
+        // LruCache#resize() needs API 21, so move the entries, oldest first, into a new cache.  The
+        // new cache evicts whatever does not fit.
+        Map<HoverMenu.SectionId, CachedContent> entries = mContentCache.snapshot();
+        mContentCache = new ContentCache(maxSize);
+        for (Map.Entry<HoverMenu.SectionId, CachedContent> entry : entries.entrySet()) {
+            mContentCache.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public int getContentCacheSize() {
+        return mContentCache.maxSize();
+    }
+
+    public int getContentCacheHitCount() {
+        return mContentCacheHitCount;
+    }
+
+    public int getContentCacheMissCount() {
+        return mContentCacheMissCount;
+    }
+
+    public int getContentCacheEvictionCount() {
+        return mContentCacheEvictionCount;
+    }
+
+    /**
+     * Evicts the cached {@link Content} of the {@code Section} with the given ID, e.g., because the
+     * {@code Section} was removed.
+     */
+    public void evictContent(@NonNull HoverMenu.SectionId sectionId) {
+        mContentCache.remove(sectionId);
+    }
+
+    public void evictAllContent() {
+        mContentCache.evictAll();
+    }
+
     public void expandToScreenBounds() {
         RelativeLayout.LayoutParams layoutParams = (LayoutParams) mContainer.getLayoutParams();
         layoutParams.height = 0;
@@ -176,4 +311,32 @@ class ContentDisplay extends RelativeLayout {
         layoutParams.addRule(ALIGN_PARENT_BOTTOM, 0); // This means "remove rule". Can't use removeRule() until API 17.
         mContainer.setLayoutParams(layoutParams);
     }
+
+    private class ContentCache extends LruCache<HoverMenu.SectionId, CachedContent> {
+
+        ContentCache(int maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        protected void entryRemoved(boolean evicted, HoverMenu.SectionId sectionId, CachedContent oldValue, CachedContent newValue) {
+            if (evicted) {
+                ++mContentCacheEvictionCount;
+            }
+            if (oldValue.mContent == mContent) {
+                displayContent((Content) null);
+            }
+            oldValue.mContentFactory.onContentEvicted(sectionId, oldValue.mContent);
+        }
+    }
+
+    private static class CachedContent {
+        private final ContentFactory mContentFactory;
+        private final Content mContent;
+
+        CachedContent(@NonNull ContentFactory contentFactory, @NonNull Content content) {
+            mContentFactory = contentFactory;
+            mContent = content;
+        }
+    }
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Creates the {@link Content} of a {@link HoverMenu.Section} when the {@code Section} is first
+ * selected, rather than when the menu is built.
+ * <p>
+ * The {@link HoverView} keeps a limited number of recently shown {@code Content}s (see
+ * {@link HoverView#setContentCacheSize(int)}).  When a {@code Content} falls out of that cache it is
+ * handed back to {@link #onContentEvicted(HoverMenu.SectionId, Content)} and will be created again
+ * the next time its {@code Section} is selected.
+ */
+public interface ContentFactory {
+
+    /**
+     * @return new {@code Content} for the {@code Section} with the given ID
+     */
+    @NonNull
+    Content createContent(@NonNull HoverMenu.SectionId sectionId);
+
+    /**
+     * Called when {@code content} is no longer displayed or cached and will not be shown again.
+     * This is the place to release its resources, e.g., large bitmaps.
+     */
+    void onContentEvicted(@NonNull HoverMenu.SectionId sectionId, @NonNull Content content);
+
+}
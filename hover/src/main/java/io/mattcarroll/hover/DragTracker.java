@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+/**
+ * Tracks the center of a dragged {@code View} as the user's touch moves away from where it first
+ * went down.
+ * <p>
+ * All state is held in primitive fields so that reporting a move does not allocate.  This matters
+ * because moves are reported for every touch sample, which can be 120 times a second or more.
+ */
+class DragTracker {
+
+    private final float mTapTouchSlopSquared;
+    private float mOriginalViewX;
+    private float mOriginalViewY;
+    private float mOriginalTouchX;
+    private float mOriginalTouchY;
+    private float mCurrentViewX;
+    private float mCurrentViewY;
+    private boolean mIsDragging;
+
+    DragTracker(int tapTouchSlop) {
+        mTapTouchSlopSquared = (float) tapTouchSlop * tapTouchSlop;
+    }
+
+    /**
+     * Begins tracking a new touch.
+     *
+     * @param viewCenterX x-coordinate of the dragged View's center when the touch went down
+     * @param viewCenterY y-coordinate of the dragged View's center when the touch went down
+     * @param touchX      raw x-coordinate of the touch
+     * @param touchY      raw y-coordinate of the touch
+     */
+    public void start(float viewCenterX, float viewCenterY, float touchX, float touchY) {
+        mOriginalViewX = viewCenterX;
+        mOriginalViewY = viewCenterY;
+        mCurrentViewX = viewCenterX;
+        mCurrentViewY = viewCenterY;
+        mOriginalTouchX = touchX;
+        mOriginalTouchY = touchY;
+        mIsDragging = false;
+    }
+
+    /**
+     * Moves the tracked View center by the distance the touch has travelled since {@link #start}.
+     *
+     * @param touchX raw x-coordinate of the touch
+     * @param touchY raw y-coordinate of the touch
+     * @return true if the touch is dragging or has left the tap slop region, false if it should
+     * still be treated as a potential tap
+     */
+    public boolean moveTo(float touchX, float touchY) {
+        float dragDeltaX = touchX - mOriginalTouchX;
+        float dragDeltaY = touchY - mOriginalTouchY;
+        mCurrentViewX = mOriginalViewX + dragDeltaX;
+        mCurrentViewY = mOriginalViewY + dragDeltaY;
+
+        return mIsDragging || !isWithinSlop(dragDeltaX, dragDeltaY);
+    }
+
+    private boolean isWithinSlop(float dx, float dy) {
+        // Compare squared distances to avoid a square root per touch sample.
+        return (dx * dx) + (dy * dy) < mTapTouchSlopSquared;
+    }
+
+    /**
+     * Marks the current touch as a drag.
+     *
+     * @return true if the drag was just started, false if it was already dragging
+     */
+    public boolean startDragging() {
+        if (mIsDragging) {
+            return false;
+        }
+        mIsDragging = true;
+        return true;
+    }
+
+    public void stopDragging() {
+        mIsDragging = false;
+    }
+
+    public boolean isDragging() {
+        return mIsDragging;
+    }
+
+    public float getCurrentViewX() {
+        return mCurrentViewX;
+    }
+
+    public float getCurrentViewY() {
+        return mCurrentViewY;
+    }
+}
@@ -18,7 +18,7 @@ package io.mattcarroll.hover;
 import android.graphics.Point;
 import android.graphics.PointF;
 import androidx.annotation.NonNull;
-import android.util.Log;
+import androidx.annotation.Nullable;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
 import android.view.View;
@@ -30,15 +30,50 @@ public abstract class Dragger extends BaseTouchController {
     private static final String TAG = "Dragger";
 
     private final int mTapTouchSlop;
+    @Nullable
+    private HoverMetrics mMetrics;
 
     public Dragger(int mTapTouchSlop) {
         this.mTapTouchSlop = mTapTouchSlop;
     }
 
+    /**
+     * Sets the {@link HoverMetrics} that measure how long each drag sample takes to render.
+     */
+    void setMetrics(@Nullable HoverMetrics metrics) {
+        mMetrics = metrics;
+    }
+
     public abstract PointF getTouchViewPosition(@NonNull View touchView);
 
+    /**
+     * Writes the position of the given {@code touchView} into {@code outPosition}.
+     * <p>
+     * The default implementation delegates to {@link #getTouchViewPosition(View)}. Subclasses
+     * should override this to avoid allocating on every touch.
+     *
+     * @param touchView   the touch View whose position is requested
+     * @param outPosition receives the position of the touch View
+     */
+    public void getTouchViewPosition(@NonNull View touchView, @NonNull PointF outPosition) {
+        outPosition.set(getTouchViewPosition(touchView));
+    }
+
     public abstract Point getContainerSize();
 
+    /**
+     * Writes the size of the container into {@code outSize}.
+     * <p>
+     * The default implementation delegates to {@link #getContainerSize()}. Subclasses should
+     * override this to avoid allocating on every touch.
+     *
+     * @param outSize receives the size of the container
+     */
+    public void getContainerSize(@NonNull Point outSize) {
+        Point containerSize = getContainerSize();
+        outSize.set(containerSize.x, containerSize.y);
+    }
+
     @Override
     protected <T extends TouchListener<V>, V extends View> TouchDetector createTouchDetector(final V originalView, final T touchListener) {
         if (touchListener instanceof DragListener) {
@@ -48,26 +83,6 @@ public abstract class Dragger extends BaseTouchController {
         }
     }
 
-    private boolean isTouchWithinSlopOfOriginalTouch(float dx, float dy) {
-        double distance = Math.sqrt(Math.pow(dx, 2) + Math.pow(dy, 2));
-        Log.d(TAG, "Drag distance " + distance + " vs slop allowance " + mTapTouchSlop);
-        return distance < mTapTouchSlop;
-    }
-
-    private PointF convertCornerToCenter(View touchView, @NonNull PointF cornerPosition) {
-        return new PointF(
-                cornerPosition.x + (touchView.getWidth() / 2f),
-                cornerPosition.y + (touchView.getHeight() / 2f)
-        );
-    }
-
-    private PointF convertCenterToCorner(View touchView, @NonNull PointF centerPosition) {
-        return new PointF(
-                centerPosition.x - (touchView.getWidth() / 2f),
-                centerPosition.y - (touchView.getHeight() / 2f)
-        );
-    }
-
     public interface DragListener<V extends View> extends TouchListener<V> {
         /**
          * The user has begun dragging.
@@ -107,10 +122,8 @@ public abstract class Dragger extends BaseTouchController {
     private class DragDetector<T extends DragListener<V>, V extends View> extends TouchDetector<T, V> {
 
         private final GestureDetector mGestureDetector;
-        private boolean mIsDragging;
-        private PointF mOriginalViewPosition = new PointF();
-        private PointF mCurrentViewPosition = new PointF();
-        private PointF mOriginalTouchPosition = new PointF();
+        private final DragTracker mDragTracker = new DragTracker(mTapTouchSlop);
+        private final PointF mTouchViewPosition = new PointF();
 
         public DragDetector(final V originalView, final T dragListener) {
             super(originalView, dragListener);
@@ -126,48 +139,48 @@ public abstract class Dragger extends BaseTouchController {
             mGestureDetector.onTouchEvent(motionEvent);
             switch (motionEvent.getAction()) {
                 case MotionEvent.ACTION_DOWN:
-                    Log.d(TAG, "ACTION_DOWN");
-                    mIsDragging = false;
-
-                    mOriginalViewPosition = convertCornerToCenter(view, getTouchViewPosition(view));
-                    mCurrentViewPosition = new PointF(mOriginalViewPosition.x, mOriginalViewPosition.y);
-                    mOriginalTouchPosition.set(motionEvent.getRawX(), motionEvent.getRawY());
+                    HoverLog.d(TAG, "ACTION_DOWN");
+                    getTouchViewPosition(view, mTouchViewPosition);
+                    mDragTracker.start(
+                            mTouchViewPosition.x + (view.getWidth() / 2f),
+                            mTouchViewPosition.y + (view.getHeight() / 2f),
+                            motionEvent.getRawX(),
+                            motionEvent.getRawY()
+                    );
                     mEventListener.onTouchDown(mOriginalView);
                     return true;
                 case MotionEvent.ACTION_MOVE:
-                    Log.d(TAG, "ACTION_MOVE. motionX: " + motionEvent.getRawX() + ", motionY: " + motionEvent.getRawY());
-                    float dragDeltaX = motionEvent.getRawX() - mOriginalTouchPosition.x;
-                    float dragDeltaY = motionEvent.getRawY() - mOriginalTouchPosition.y;
-                    mCurrentViewPosition = new PointF(
-                            mOriginalViewPosition.x + dragDeltaX,
-                            mOriginalViewPosition.y + dragDeltaY
-                    );
-
-                    if (mIsDragging || !isTouchWithinSlopOfOriginalTouch(dragDeltaX, dragDeltaY)) {
+                    // This runs for every touch sample so it must not allocate or log.
+                    if (mDragTracker.moveTo(motionEvent.getRawX(), motionEvent.getRawY())) {
                         if (!tryDragStart("ACTION_MOVE")) {
-                            mEventListener.onDragTo(mOriginalView, mCurrentViewPosition.x, mCurrentViewPosition.y);
+                            mEventListener.onDragTo(mOriginalView, mDragTracker.getCurrentViewX(), mDragTracker.getCurrentViewY());
+                            if (null != mMetrics) {
+                                mMetrics.onDragSample(motionEvent.getEventTime());
+                            }
                         }
                     }
 
                     return true;
                 case MotionEvent.ACTION_UP:
-                    Log.d(TAG, "ACTION_UP");
+                    HoverLog.d(TAG, "ACTION_UP");
                     mEventListener.onTouchUp(mOriginalView);
-                    if (!mIsDragging) {
-                        Log.d(TAG, "Reporting as a tap.");
+                    if (!mDragTracker.isDragging()) {
+                        HoverLog.d(TAG, "Reporting as a tap.");
                         mEventListener.onTap(mOriginalView);
                     } else {
-                        Log.d(TAG, "Reporting as a drag release at: " + mCurrentViewPosition);
-                        mEventListener.onReleasedAt(mOriginalView, mCurrentViewPosition.x, mCurrentViewPosition.y);
-                        mIsDragging = false;
+                        if (HoverLog.ENABLED) {
+                            HoverLog.d(TAG, "Reporting as a drag release at: " + mDragTracker.getCurrentViewX() + ", " + mDragTracker.getCurrentViewY());
+                        }
+                        mEventListener.onReleasedAt(mOriginalView, mDragTracker.getCurrentViewX(), mDragTracker.getCurrentViewY());
+                        mDragTracker.stopDragging();
                     }
                     return true;
                 case MotionEvent.ACTION_CANCEL:
-                    Log.d(TAG, "ACTION_CANCEL");
-                    if (mIsDragging) {
+                    HoverLog.d(TAG, "ACTION_CANCEL");
+                    if (mDragTracker.isDragging()) {
                         mEventListener.onDragCancel(mOriginalView);
                     }
-                    mIsDragging = false;
+                    mDragTracker.stopDragging();
                     return true;
                 default:
                     return false;
@@ -175,13 +188,14 @@ public abstract class Dragger extends BaseTouchController {
         }
 
         private boolean tryDragStart(final String reason) {
-            if (mIsDragging) {
+            if (!mDragTracker.startDragging()) {
                 return false;
             }
             // Dragging is just started by reason
-            Log.d(TAG, "" + reason + " starts drag.");
-            mIsDragging = true;
-            mEventListener.onDragStart(mOriginalView, mCurrentViewPosition.x, mCurrentViewPosition.y);
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, "" + reason + " starts drag.");
+            }
+            mEventListener.onDragStart(mOriginalView, mDragTracker.getCurrentViewX(), mDragTracker.getCurrentViewY());
             return true;
         }
     }
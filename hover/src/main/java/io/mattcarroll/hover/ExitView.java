@@ -19,8 +19,8 @@ import android.animation.Animator;
 import android.animation.ObjectAnimator;
 import android.animation.PropertyValuesHolder;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.graphics.Point;
-import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -28,16 +28,21 @@ import android.view.ViewGroup;
 import android.view.animation.Interpolator;
 import android.widget.RelativeLayout;
 
+import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.view.animation.PathInterpolatorCompat;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
 /**
  * Fullscreen View that provides an exit "drop zone" for users to exit the Hover Menu.
  */
 class ExitView extends RelativeLayout {
 
     private static final String TAG = "ExitView";
+    private static final String TRACE_SHOW_HIDE = "ExitView.showHide";
 
     private static final int FADE_DURATION = 250;
     private static final int SHOW_HIDE_DURATION = 250;
@@ -54,13 +59,33 @@ class ExitView extends RelativeLayout {
     private static final float EXIT_VIEW_DEFAULT_Y = 800f;
     private static final float EXIT_VIEW_TARGET_Y = 0f;
 
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({ STATE_HIDDEN, STATE_SHOWING, STATE_SHOWN, STATE_HIDING })
+    public @interface VisibilityState { }
+    public static final int STATE_HIDDEN = 0;
+    public static final int STATE_SHOWING = 1;
+    public static final int STATE_SHOWN = 2;
+    public static final int STATE_HIDING = 3;
+
     private int mExitRadiusInPx;
+    private int mExitZoneHysteresisInPx;
     private View mExitIcon;
     private View mExitGradient;
     private ViewGroup mVgExit;
     private ObjectAnimator mShowEnterAnimation = null;
     private ObjectAnimator mShowExitAnimation = null;
     private boolean mIsShowing = false;
+    private ExitZone mExitZone = ExitZone.bottomBand();
+    private boolean mIsExitZoneDirty = true;
+    private int mExitZoneScreenWidth;
+    private int mExitZoneScreenHeight;
+    private int mExitZoneIconWidth;
+    private int mExitZoneIconHeight;
+    private boolean mIsDraggedIntoExitZone = false;
+    // Runs forward to show and in reverse to hide: 0 is hidden and 1 is shown.
+    private HoverAnimation mShowHideAnimation;
+    @VisibilityState
+    private int mState = STATE_HIDDEN;
 
     public ExitView(@NonNull Context context) {
         this(context, null);
@@ -78,9 +103,31 @@ class ExitView extends RelativeLayout {
         mVgExit = findViewById(R.id.vg_exit);
         mExitGradient = findViewById(R.id.view_exit_gradient);
         mExitRadiusInPx = getResources().getDimensionPixelSize(R.dimen.hover_exit_radius);
+        mExitZoneHysteresisInPx = getResources().getDimensionPixelSize(R.dimen.hover_exit_zone_hysteresis);
         mExitIcon.setAlpha(EXIT_ICON_DEFAULT_ALPHA);
 
         setAnimations();
+        mShowHideAnimation = new HoverAnimation(FADE_DURATION, getExitViewInterpolator(), new HoverAnimation.Listener() {
+            @Override
+            public void onAnimationUpdate(@NonNull HoverAnimation animation, float fraction) {
+                mExitGradient.setAlpha(EXIT_VIEW_DEFAULT_ALPHA + (EXIT_VIEW_TARGET_ALPHA - EXIT_VIEW_DEFAULT_ALPHA) * fraction);
+                mVgExit.setY(EXIT_VIEW_DEFAULT_Y + (EXIT_VIEW_TARGET_Y - EXIT_VIEW_DEFAULT_Y) * fraction);
+            }
+
+            @Override
+            public void onAnimationEnd(@NonNull HoverAnimation animation, boolean isCanceled) {
+                if (isCanceled) {
+                    return;
+                }
+                if (animation.isReversed()) {
+                    mState = STATE_HIDDEN;
+                    setVisibility(GONE);
+                } else {
+                    mState = STATE_SHOWN;
+                }
+            }
+        });
+        mShowHideAnimation.setTraceSection(TRACE_SHOW_HIDE);
     }
 
     private Interpolator getExitViewInterpolator() {
@@ -131,34 +178,88 @@ class ExitView extends RelativeLayout {
     }
 
     public boolean isInExitZone(@NonNull Point position, @NonNull Point screenSize) {
-        int exitXExcludeThresholdLeft = screenSize.x / 10;
-        int exitXExcludeThresholdRight = screenSize.x * 9 / 10;
-        int safeMargin = 1; // safe from the decimal point calculation
-
-        Rect exitArea = new Rect(
-                0 - mExitIcon.getWidth(),
-                screenSize.y * 4 / 6,
-                screenSize.x + mExitIcon.getWidth(),
-                screenSize.y + mExitIcon.getHeight()
-        );
-
-        Rect excludedXExitAreaLeft = new Rect(
-                0 - mExitIcon.getWidth(),
-                screenSize.y * 4 / 6,
-                exitXExcludeThresholdLeft,
-                screenSize.y - (mExitIcon.getHeight() / 2 + safeMargin)
-        );
-
-        Rect excludedXExitAreaRight = new Rect(
-                exitXExcludeThresholdRight,
-                screenSize.y * 4 / 6,
-                screenSize.x + mExitIcon.getWidth(),
-                screenSize.y - (mExitIcon.getHeight() / 2 + safeMargin)
-        );
-
-        return exitArea.contains(position.x, position.y)
-                && !excludedXExitAreaLeft.contains(position.x, position.y)
-                && !excludedXExitAreaRight.contains(position.x, position.y);
+        return isInExitZone(position.x, position.y, screenSize);
+    }
+
+    public boolean isInExitZone(int x, int y, @NonNull Point screenSize) {
+        updateExitZoneIfNeeded(screenSize);
+        return mExitZone.contains(x, y, 0);
+    }
+
+    /**
+     * Like {@link #isInExitZone(int, int, Point)}, but for the positions of an ongoing drag: once a
+     * drag has entered the exit zone it has to leave it by the hysteresis margin before it counts as
+     * outside again, so the exit icon does not flap at the boundary.  The drag is reset by
+     * {@link #show()}.
+     */
+    public boolean isDraggedIntoExitZone(int x, int y, @NonNull Point screenSize) {
+        updateExitZoneIfNeeded(screenSize);
+        mIsDraggedIntoExitZone = mExitZone.contains(x, y, mIsDraggedIntoExitZone ? mExitZoneHysteresisInPx : 0);
+        return mIsDraggedIntoExitZone;
+    }
+
+    /**
+     * Replaces the shape of the exit zone, e.g., with {@link #createMagneticExitZone()}.
+     */
+    public void setExitZone(@NonNull ExitZone exitZone) {
+        mExitZone = exitZone;
+        mIsExitZoneDirty = true;
+    }
+
+    /**
+     * @return an exit zone that reaches the exit icon's magnetic radius around its center
+     */
+    @NonNull
+    public ExitZone createMagneticExitZone() {
+        return ExitZone.circle(mExitRadiusInPx);
+    }
+
+    public void setExitZoneHysteresis(int hysteresisInPx) {
+        mExitZoneHysteresisInPx = hysteresisInPx;
+    }
+
+    // The geometry only changes with the screen or the layout, not with the drag, so it is
+    // recomputed lazily instead of for every drag sample.
+    private void updateExitZoneIfNeeded(@NonNull Point screenSize) {
+        int iconWidth = mExitIcon.getWidth();
+        int iconHeight = mExitIcon.getHeight();
+        if (!mIsExitZoneDirty
+                && screenSize.x == mExitZoneScreenWidth
+                && screenSize.y == mExitZoneScreenHeight
+                && iconWidth == mExitZoneIconWidth
+                && iconHeight == mExitZoneIconHeight) {
+            return;
+        }
+
+        // Layout positions ignore the show/hide translation, so this is where the icon rests when shown.
+        int iconCenterX = mVgExit.getLeft() + mExitIcon.getLeft() + iconWidth / 2;
+        int iconCenterY = mVgExit.getTop() + mExitIcon.getTop() + iconHeight / 2;
+        mExitZone.onGeometryChanged(screenSize.x, screenSize.y, iconCenterX, iconCenterY, iconWidth, iconHeight);
+        mExitZoneScreenWidth = screenSize.x;
+        mExitZoneScreenHeight = screenSize.y;
+        mExitZoneIconWidth = iconWidth;
+        mExitZoneIconHeight = iconHeight;
+        mIsExitZoneDirty = false;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mIsExitZoneDirty = true;
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        if (changed) {
+            mIsExitZoneDirty = true;
+        }
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        mIsExitZoneDirty = true;
     }
 
     public void showEnterAnimation() {
@@ -175,19 +276,22 @@ class ExitView extends RelativeLayout {
         }
     }
 
+    /**
+     * Slides the exit zone in.  If it is hiding, it turns around from where it is.
+     */
     public void show() {
         resetExitButtonAnimation();
+        mIsDraggedIntoExitZone = false;
+        if (mState == STATE_SHOWN || mState == STATE_SHOWING) {
+            return;
+        }
 
-        ObjectAnimator exitGradientAnimator = ObjectAnimator.ofFloat(mExitGradient, "alpha", EXIT_VIEW_TARGET_ALPHA);
-        exitGradientAnimator.setDuration(FADE_DURATION);
-        exitGradientAnimator.setInterpolator(getExitViewInterpolator());
-        exitGradientAnimator.start();
-
-        ObjectAnimator vgExitAnimator = ObjectAnimator.ofFloat(mVgExit, "y", EXIT_VIEW_DEFAULT_Y, EXIT_VIEW_TARGET_Y);
-        vgExitAnimator.setDuration(FADE_DURATION);
-        vgExitAnimator.setInterpolator(getExitViewInterpolator());
-        vgExitAnimator.start();
-
+        if (mState == STATE_HIDING) {
+            mShowHideAnimation.reverse();
+        } else {
+            mShowHideAnimation.start();
+        }
+        mState = STATE_SHOWING;
         setVisibility(VISIBLE);
     }
 
@@ -196,34 +300,20 @@ class ExitView extends RelativeLayout {
         initExitIconViewStatus();
     }
 
+    /**
+     * Slides the exit zone out.  If it is showing, it turns around from where it is.
+     */
     public void hide() {
-        ObjectAnimator vgExitAnimator = ObjectAnimator.ofFloat(mVgExit, "y", EXIT_VIEW_TARGET_Y, EXIT_VIEW_DEFAULT_Y);
-        vgExitAnimator.setDuration(FADE_DURATION);
-        vgExitAnimator.setInterpolator(getExitViewInterpolator());
-        vgExitAnimator.start();
-
-        ObjectAnimator exitGradientAnimator = ObjectAnimator.ofFloat(mExitGradient, "alpha", EXIT_VIEW_DEFAULT_ALPHA);
-        exitGradientAnimator.setDuration(FADE_DURATION);
-        exitGradientAnimator.setInterpolator(getExitViewInterpolator());
-        exitGradientAnimator.start();
-
-        exitGradientAnimator.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                setVisibility(GONE);
-            }
+        if (mState == STATE_HIDDEN || mState == STATE_HIDING) {
+            return;
+        }
 
-            @Override
-            public void onAnimationCancel(Animator animation) {
-            }
+        mShowHideAnimation.reverse();
+        mState = STATE_HIDING;
+    }
 
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-            }
-        });
+    @VisibilityState
+    public int getState() {
+        return mState;
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Region of the screen where dropping a {@link FloatingTab} exits the {@link HoverView}.
+ * <p>
+ * An {@code ExitZone} precomputes its geometry whenever the screen or the exit icon changes size, in
+ * {@link #onGeometryChanged(int, int, int, int, int, int)}, so that {@link #contains(int, int, int)},
+ * which runs for every drag sample, is only a few primitive comparisons.
+ */
+abstract class ExitZone {
+
+    /**
+     * @return the default zone: a band along the bottom of the screen, excluding its left and right
+     * tenths above the exit icon's center line
+     */
+    @NonNull
+    static ExitZone bottomBand() {
+        return new BottomBandExitZone();
+    }
+
+    /**
+     * @return a circle of the given radius around the exit icon's center
+     */
+    @NonNull
+    static ExitZone circle(int radiusInPx) {
+        return new CircleExitZone(radiusInPx);
+    }
+
+    /**
+     * Recomputes this zone for a new screen or exit icon size.  All coordinates are in the same
+     * space as the positions later passed to {@link #contains(int, int, int)}.
+     */
+    abstract void onGeometryChanged(int screenWidth,
+                                    int screenHeight,
+                                    int iconCenterX,
+                                    int iconCenterY,
+                                    int iconWidth,
+                                    int iconHeight);
+
+    /**
+     * @param margin distance by which to grow the zone in every direction, e.g., to keep a position
+     *               that is already inside from flapping in and out at the boundary
+     * @return true if the given position is inside the zone
+     */
+    abstract boolean contains(int x, int y, int margin);
+
+    private static class BottomBandExitZone extends ExitZone {
+        private int mLeft;
+        private int mTop;
+        private int mRight;
+        private int mBottom;
+        private int mExcludedLeftEnd;
+        private int mExcludedRightStart;
+        private int mExcludedBottom;
+
+        @Override
+        void onGeometryChanged(int screenWidth, int screenHeight, int iconCenterX, int iconCenterY, int iconWidth, int iconHeight) {
+            int safeMargin = 1; // safe from the decimal point calculation
+            mLeft = -iconWidth;
+            mTop = screenHeight * 4 / 6;
+            mRight = screenWidth + iconWidth;
+            mBottom = screenHeight + iconHeight;
+            mExcludedLeftEnd = screenWidth / 10;
+            mExcludedRightStart = screenWidth * 9 / 10;
+            mExcludedBottom = screenHeight - (iconHeight / 2 + safeMargin);
+        }
+
+        @Override
+        boolean contains(int x, int y, int margin) {
+            if (x < mLeft - margin || x >= mRight + margin || y < mTop - margin || y >= mBottom + margin) {
+                return false;
+            }
+            // The excluded corners shrink by the margin as the band grows by it.
+            boolean isInExcludedRows = y < mExcludedBottom - margin;
+            return !isInExcludedRows || (x >= mExcludedLeftEnd - margin && x < mExcludedRightStart + margin);
+        }
+    }
+
+    private static class CircleExitZone extends ExitZone {
+        private final int mRadius;
+        private int mCenterX;
+        private int mCenterY;
+
+        CircleExitZone(int radiusInPx) {
+            mRadius = radiusInPx;
+        }
+
+        @Override
+        void onGeometryChanged(int screenWidth, int screenHeight, int iconCenterX, int iconCenterY, int iconWidth, int iconHeight) {
+            mCenterX = iconCenterX;
+            mCenterY = iconCenterY;
+        }
+
+        @Override
+        boolean contains(int x, int y, int margin) {
+            long dx = x - mCenterX;
+            long dy = y - mCenterY;
+            long radius = mRadius + margin;
+            return dx * dx + dy * dy <= radius * radius;
+        }
+    }
+}
@@ -15,22 +15,21 @@
  */
 package io.mattcarroll.hover;
 
-import android.animation.Animator;
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
-import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.Configuration;
 import android.graphics.Color;
 import android.graphics.Point;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.OvershootInterpolator;
 import android.widget.FrameLayout;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * {@code FloatingTab} is the cornerstone of a {@link HoverView}.  When a {@code HoverView} is
  * collapsed, it is reduced to a single {@code FloatingTab} that the user can drag and drop.  When
@@ -47,13 +46,34 @@ class FloatingTab extends HoverFrameLayout {
 
     private static final String TAG = "FloatingTab";
     private static final int APPEARING_ANIMATION_DURATION = 300;
+    private static final String TRACE_APPEAR = "FloatingTab.appear";
+    private static final String TRACE_DISAPPEAR = "FloatingTab.disappear";
+    private static final String TRACE_SPRING = "FloatingTab.spring";
 
-    private final String mId;
+    private String mId;
     private int mTabSize;
     private View mTabView;
     private Dock mDock;
-    private AnimatorSet mAnimatorSetDisappear;
-    private AnimatorSet mAnimatorSetAppear;
+    private final ListenerList<OnDockChangeListener> mOnDockChangeListeners = new ListenerList<>();
+    private final HoverAnimation mAppearAnimation;
+    private final HoverAnimation mDisappearAnimation;
+    private float mDisappearStartScale;
+    private Runnable mOnAppeared;
+    private Runnable mOnDisappeared;
+    private final SpringMotion mSpringX = new SpringMotion();
+    private final SpringMotion mSpringY = new SpringMotion();
+    private final List<Runnable> mOnSettledCallbacks = new ArrayList<>();
+    private final List<Runnable> mSettledCallbacksToRun = new ArrayList<>();
+    private final int mSpringTraceCookie = HoverTrace.newCookie();
+    private boolean mIsSpringing;
+    @Nullable
+    private HoverMetrics mMetrics;
+    private final HoverAnimationScheduler.FrameCallback mSpringFrameCallback = new HoverAnimationScheduler.FrameCallback() {
+        @Override
+        public void doAnimationFrame(long frameTimeMillis) {
+            onSpringFrame(frameTimeMillis);
+        }
+    };
 
     public FloatingTab(@NonNull Context context, @NonNull String tabId) {
         super(context);
@@ -64,6 +84,12 @@ class FloatingTab extends HoverFrameLayout {
 
         int padding = getResources().getDimensionPixelSize(R.dimen.hover_tab_margin);
         setPadding(padding, padding, padding, padding);
+
+        HoverAnimation.Listener appearanceListener = createAppearanceListener();
+        mAppearAnimation = new HoverAnimation(APPEARING_ANIMATION_DURATION, new OvershootInterpolator(), appearanceListener);
+        mDisappearAnimation = new HoverAnimation(APPEARING_ANIMATION_DURATION, new AccelerateDecelerateInterpolator(), appearanceListener);
+        mAppearAnimation.setTraceSection(TRACE_APPEAR);
+        mDisappearAnimation.setTraceSection(TRACE_DISAPPEAR);
     }
 
     @Override
@@ -84,7 +110,12 @@ class FloatingTab extends HoverFrameLayout {
     protected void onConfigurationChanged(Configuration newConfig) {
         super.onConfigurationChanged(newConfig);
         if (mDock != null) {
-            moveCenterTo(mDock.position());
+            if (mSpringX.isRunning() || mSpringY.isRunning()) {
+                // Redirect the running spring rather than fighting it.
+                dock(null);
+            } else {
+                moveCenterTo(mDock.position());
+            }
         }
     }
 
@@ -102,96 +133,60 @@ class FloatingTab extends HoverFrameLayout {
     }
 
     public void appear(@Nullable final Runnable onAppeared) {
-        cancelAnimatorSetAppearIfNeeded();
-        mAnimatorSetAppear = new AnimatorSet();
-        ObjectAnimator scaleX = ObjectAnimator.ofFloat(this, "scaleX", 0.0f, 1.0f);
-        ObjectAnimator scaleY = ObjectAnimator.ofFloat(this, "scaleY", 0.0f, 1.0f);
-        mAnimatorSetAppear.setDuration(APPEARING_ANIMATION_DURATION);
-        mAnimatorSetAppear.setInterpolator(new OvershootInterpolator());
-        mAnimatorSetAppear.playTogether(scaleX, scaleY);
-        mAnimatorSetAppear.start();
-
-        mAnimatorSetAppear.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (null != onAppeared) {
-                    onAppeared.run();
-                }
-            }
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
-            }
-
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-            }
-        });
-
+        // Restarting a running appearance reports the previous one as ended, like an Animator would.
+        mAppearAnimation.cancel();
+        mOnAppeared = onAppeared;
+        mAppearAnimation.start();
         setVisibility(VISIBLE);
     }
 
     public void appearImmediate() {
-        cancelAnimatorSetDisappearIfNeeded();
+        mDisappearAnimation.cancel();
         setVisibility(VISIBLE);
         setScaleX(1.0f);
         setScaleY(1.0f);
     }
 
     public void disappear(@Nullable final Runnable onDisappeared) {
-        cancelAnimatorSetDisappearIfNeeded();
-        mAnimatorSetDisappear = new AnimatorSet();
-        ObjectAnimator scaleX = ObjectAnimator.ofFloat(this, "scaleX", 0.0f);
-        ObjectAnimator scaleY = ObjectAnimator.ofFloat(this, "scaleY", 0.0f);
-        mAnimatorSetDisappear.setDuration(APPEARING_ANIMATION_DURATION);
-        mAnimatorSetDisappear.playTogether(scaleX, scaleY);
-        mAnimatorSetDisappear.start();
-
-        mAnimatorSetDisappear.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-            }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                setVisibility(GONE);
-
-                if (null != onDisappeared) {
-                    onDisappeared.run();
-                }
-            }
-
-            @Override
-            public void onAnimationCancel(Animator animation) {
-            }
-
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-            }
-        });
+        mDisappearAnimation.cancel();
+        mOnDisappeared = onDisappeared;
+        mDisappearStartScale = getScaleX();
+        mDisappearAnimation.start();
     }
 
     public void disappearImmediate() {
-        cancelAnimatorSetAppearIfNeeded();
+        mAppearAnimation.cancel();
         setVisibility(GONE);
     }
 
-    private void cancelAnimatorSetAppearIfNeeded() {
-        if (mAnimatorSetAppear != null && mAnimatorSetAppear.isRunning()) {
-            mAnimatorSetAppear.cancel();
-            mAnimatorSetAppear = null;
-        }
-    }
+    private HoverAnimation.Listener createAppearanceListener() {
+        return new HoverAnimation.Listener() {
+            @Override
+            public void onAnimationUpdate(@NonNull HoverAnimation animation, float fraction) {
+                float scale = animation == mAppearAnimation
+                        ? fraction
+                        : mDisappearStartScale * (1f - fraction);
+                setScaleX(scale);
+                setScaleY(scale);
+            }
 
-    private void cancelAnimatorSetDisappearIfNeeded() {
-        if (mAnimatorSetDisappear != null && mAnimatorSetDisappear.isRunning()) {
-            mAnimatorSetDisappear.cancel();
-            mAnimatorSetDisappear = null;
-        }
+            @Override
+            public void onAnimationEnd(@NonNull HoverAnimation animation, boolean isCanceled) {
+                Runnable onEnd;
+                if (animation == mAppearAnimation) {
+                    onEnd = mOnAppeared;
+                    mOnAppeared = null;
+                } else {
+                    setVisibility(GONE);
+                    onEnd = mOnDisappeared;
+                    mOnDisappeared = null;
+                }
+
+                if (null != onEnd) {
+                    onEnd.run();
+                }
+            }
+        };
     }
 
     public void shrink() {
@@ -212,6 +207,51 @@ class FloatingTab extends HoverFrameLayout {
         return mId;
     }
 
+    void setTabId(@NonNull String tabId) {
+        mId = tabId;
+    }
+
+    /**
+     * Sets the {@link HoverMetrics} that observe this tab's springs to its dock.  Must not be
+     * called while the tab is springing.
+     */
+    void setMetrics(@Nullable HoverMetrics metrics) {
+        mMetrics = metrics;
+    }
+
+    /**
+     * Returns this tab to the state of a new {@code FloatingTab}, other than its ID, so that it can
+     * be reused for another {@code Section}.  Pending appear, disappear and dock callbacks are
+     * dropped without running.
+     */
+    void reset() {
+        // Drop the callbacks first because canceling an animation reports its end.
+        mOnAppeared = null;
+        mOnDisappeared = null;
+        mAppearAnimation.cancel();
+        mDisappearAnimation.cancel();
+        mSpringX.cancel();
+        mSpringY.cancel();
+        HoverAnimationScheduler.getInstance().removeFrameCallback(mSpringFrameCallback);
+        endSpring();
+        mOnSettledCallbacks.clear();
+
+        // A report still pending from the previous Section would move its followers a frame later.
+        cancelPendingPositionChange();
+        mOnPositionChangeListeners.clear();
+        mOnDockChangeListeners.clear();
+        mDock = null;
+        setOnClickListener(null);
+        setTabView(null);
+        if (mTabSize != getResources().getDimensionPixelSize(R.dimen.hover_tab_size)) {
+            expand();
+        }
+        setScaleX(1.0f);
+        setScaleY(1.0f);
+        setAlpha(1.0f);
+        setVisibility(GONE);
+    }
+
     public int getTabSize() {
         return mTabSize;
     }
@@ -245,7 +285,12 @@ class FloatingTab extends HoverFrameLayout {
 
     @Nullable
     public Point getDockPosition() {
-        return mDock.position();
+        return null != mDock ? mDock.position() : null;
+    }
+
+    @Nullable
+    Dock getDock() {
+        return mDock;
     }
 
     public void setDock(@NonNull Dock dock) {
@@ -258,108 +303,154 @@ class FloatingTab extends HoverFrameLayout {
     }
 
     public void dock(@Nullable final Runnable onDocked) {
-        Point destinationCornerPosition = convertCenterToCorner(mDock.position());
-        Log.d(TAG, "Docking to destination point: " + destinationCornerPosition);
-
-        ObjectAnimator xAnimation = ObjectAnimator.ofFloat(this, "x", destinationCornerPosition.x);
-        xAnimation.setDuration(500);
-        xAnimation.setInterpolator(new OvershootInterpolator());
-        ObjectAnimator yAnimation = ObjectAnimator.ofFloat(this, "y", destinationCornerPosition.y);
-        yAnimation.setDuration(500);
-        yAnimation.setInterpolator(new OvershootInterpolator());
-        AnimatorSet animatorSet = new AnimatorSet();
-        animatorSet.play(xAnimation).with(yAnimation);
-        animatorSet.start();
-
-        animatorSet.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-            }
+        dock(0, 0, onDocked);
+    }
 
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (null != onDocked) {
-                    onDocked.run();
-                }
-                notifyListenersOfPositionChange(FloatingTab.this);
-            }
+    /**
+     * Springs this tab to its dock, starting with the given velocity, e.g., the velocity of the
+     * user's release.  If the tab is already moving, it is redirected from its current position and
+     * velocity instead.
+     *
+     * @param velocityX horizontal start velocity, in pixels per second
+     * @param velocityY vertical start velocity, in pixels per second
+     * @param onDocked  run once the tab comes to rest
+     */
+    public void dock(float velocityX, float velocityY, @Nullable final Runnable onDocked) {
+        Point dockPosition = mDock.position();
+        float destinationX = dockPosition.x - (getTabSize() / 2);
+        float destinationY = dockPosition.y - (getTabSize() / 2);
+        if (HoverLog.ENABLED) {
+            HoverLog.d(TAG, "Docking to destination point: " + destinationX + ", " + destinationY);
+        }
+        springTo(destinationX, destinationY, velocityX, velocityY, onDocked);
+    }
 
-            @Override
-            public void onAnimationCancel(Animator animation) {
-            }
+    public void closeAnimation(Point targetPosition, @Nullable final Runnable onDocked) {
+        closeAnimation(targetPosition, 0, 0, onDocked);
+    }
 
-            @Override
-            public void onAnimationRepeat(Animator animation) {
-            }
-        });
+    /**
+     * Springs this tab's top-left corner to {@code targetPosition}, like
+     * {@link #dock(float, float, Runnable)}.
+     */
+    public void closeAnimation(Point targetPosition, float velocityX, float velocityY, @Nullable final Runnable onDocked) {
+        if (HoverLog.ENABLED) {
+            HoverLog.d(TAG, "Closing to destination point: " + targetPosition);
+        }
+        springTo(targetPosition.x, targetPosition.y, velocityX, velocityY, onDocked);
+    }
 
-        xAnimation.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                notifyListenersOfPositionChange(FloatingTab.this);
+    private void springTo(float x, float y, float velocityX, float velocityY, @Nullable Runnable onSettled) {
+        if (null != onSettled) {
+            // A retargeted spring still runs every callback it was given, once it comes to rest.
+            mOnSettledCallbacks.add(onSettled);
+        }
+
+        mSpringX.setFinalPosition(x);
+        mSpringY.setFinalPosition(y);
+        if (!mSpringX.isRunning() || !mSpringY.isRunning()) {
+            mSpringX.start(getX(), velocityX);
+            mSpringY.start(getY(), velocityY);
+        }
+        HoverAnimationScheduler.getInstance().addFrameCallback(mSpringFrameCallback);
+        if (!mIsSpringing) {
+            // A retargeted spring continues the trace section and the metrics of the spring it redirects.
+            mIsSpringing = true;
+            HoverTrace.beginAsyncSection(TRACE_SPRING, mSpringTraceCookie);
+            if (null != mMetrics) {
+                mMetrics.onDockStarted();
             }
-        });
+        }
     }
 
-    public void closeAnimation(Point targetPosition, @Nullable final Runnable onDocked) {
-        Point destinationCornerPosition = convertCenterToCorner(targetPosition);
-        Log.d(TAG, "Docking to destination point: " + destinationCornerPosition);
-
-        ObjectAnimator xAnimation = ObjectAnimator.ofFloat(this, "x", targetPosition.x);
-        xAnimation.setDuration(500);
-        xAnimation.setInterpolator(new OvershootInterpolator());
-        ObjectAnimator yAnimation = ObjectAnimator.ofFloat(this, "y", targetPosition.y);
-        yAnimation.setDuration(500);
-        yAnimation.setInterpolator(new OvershootInterpolator());
-        AnimatorSet animatorSet = new AnimatorSet();
-        animatorSet.play(xAnimation).with(yAnimation);
-        animatorSet.start();
-
-        animatorSet.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) {
-            }
+    private void onSpringFrame(long frameTimeMillis) {
+        boolean isSettledX = mSpringX.doAnimationFrame(frameTimeMillis);
+        boolean isSettledY = mSpringY.doAnimationFrame(frameTimeMillis);
+        setX(mSpringX.getValue());
+        setY(mSpringY.getValue());
+        notifyListenersOfPositionChange(this);
 
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (null != onDocked) {
-                    onDocked.run();
-                }
-            }
+        if (isSettledX && isSettledY) {
+            finishSpring();
+        }
+    }
 
-            @Override
-            public void onAnimationCancel(Animator animation) {
-            }
+    private void finishSpring() {
+        mSpringX.skipToEnd();
+        mSpringY.skipToEnd();
+        HoverAnimationScheduler.getInstance().removeFrameCallback(mSpringFrameCallback);
+        endSpring();
 
-            @Override
-            public void onAnimationRepeat(Animator animation) {
+        // Callbacks may start another spring, which collects its callbacks in mOnSettledCallbacks.
+        for (int i = 0; i < mOnSettledCallbacks.size(); ++i) {
+            mSettledCallbacksToRun.add(mOnSettledCallbacks.get(i));
+        }
+        mOnSettledCallbacks.clear();
+        for (int i = 0; i < mSettledCallbacksToRun.size(); ++i) {
+            mSettledCallbacksToRun.get(i).run();
+        }
+        mSettledCallbacksToRun.clear();
+    }
+
+    private void endSpring() {
+        if (mIsSpringing) {
+            mIsSpringing = false;
+            HoverTrace.endAsyncSection(TRACE_SPRING, mSpringTraceCookie);
+            if (null != mMetrics) {
+                mMetrics.onDockEnded();
             }
-        });
+        }
     }
 
     public void dockImmediately() {
+        boolean wasSpringing = mSpringX.isRunning() || mSpringY.isRunning();
+        mSpringX.cancel();
+        mSpringY.cancel();
         moveCenterTo(mDock.position());
+        if (wasSpringing) {
+            finishSpring();
+        }
     }
 
     public void moveCenterTo(@NonNull Point centerPosition) {
-        Point cornerPosition = convertCenterToCorner(centerPosition);
-        setX(cornerPosition.x);
-        setY(cornerPosition.y);
+        moveCenterTo(centerPosition.x, centerPosition.y);
+    }
+
+    public void moveCenterTo(int centerX, int centerY) {
+        setX(centerX - (getTabSize() / 2));
+        setY(centerY - (getTabSize() / 2));
         notifyListenersOfPositionChange(this);
     }
 
-    private Point convertCenterToCorner(@NonNull Point centerPosition) {
-        return new Point(
-                centerPosition.x - (getTabSize() / 2),
-                centerPosition.y - (getTabSize() / 2)
-        );
+    /**
+     * Like {@link #moveCenterTo(int, int)}, but for a drag: listeners hear of the move right away
+     * instead of after the frame's animations.
+     */
+    public void dragCenterTo(int centerX, int centerY) {
+        setX(centerX - (getTabSize() / 2));
+        setY(centerY - (getTabSize() / 2));
+        notifyListenersOfPositionChangeNow(this);
+    }
+
+    public void addOnDockChangeListener(@NonNull OnDockChangeListener listener) {
+        mOnDockChangeListeners.add(listener);
+    }
+
+    public void removeOnDockChangeListener(@NonNull OnDockChangeListener listener) {
+        mOnDockChangeListeners.remove(listener);
     }
 
     private void notifyListenersOfDockChange() {
-        for (OnPositionChangeListener listener : mOnPositionChangeListeners) {
-            if (listener instanceof OnFloatingTabChangeListener) {
-                ((OnFloatingTabChangeListener) listener).onDockChange(mDock);
+        mOnDockChangeListeners.beginDispatch();
+        try {
+            for (int i = 0, count = mOnDockChangeListeners.size(); i < count; ++i) {
+                OnDockChangeListener listener = mOnDockChangeListeners.get(i);
+                if (null != listener) {
+                    listener.onDockChange(mDock);
+                }
             }
+        } finally {
+            mOnDockChangeListeners.endDispatch();
         }
     }
 
@@ -369,7 +460,11 @@ class FloatingTab extends HoverFrameLayout {
         super.setOnClickListener(onClickListener);
     }
 
-    public interface OnFloatingTabChangeListener extends OnPositionChangeListener {
+    /**
+     * Told when a {@link FloatingTab} is given a new {@link Dock}.  Position changes are reported
+     * separately, to {@link OnPositionChangeListener}s.
+     */
+    public interface OnDockChangeListener {
         void onDockChange(@NonNull Dock dock);
     }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Estimates the velocity of a drag gesture from the most recent touch samples.
+ * <p>
+ * Samples are kept in a fixed-capacity ring buffer of primitives and the velocity is a least-squares
+ * fit over the samples from the last {@link #WINDOW_MILLIS} milliseconds, similar to
+ * {@link android.view.VelocityTracker}.  The sums behind the fit are updated as samples enter and
+ * leave the window, so both adding a sample and reading the velocity are O(1).
+ * <p>
+ * Velocities are reported in pixels per millisecond.
+ */
+class GestureVelocityTracker {
+
+    static final int CAPACITY = 100;
+    static final long WINDOW_MILLIS = 100L;
+
+    private final Clock mClock;
+    private final long[] mTimes = new long[CAPACITY];
+    private final int[] mXs = new int[CAPACITY];
+    private final int[] mYs = new int[CAPACITY];
+    private int mOldestIndex;
+    private int mSize;
+
+    // Running least-squares sums over the samples in the window.  Times are relative to mBaseTime
+    // and all terms are integral, so adding and removing samples never accumulates rounding error.
+    private long mBaseTime;
+    private long mSumT;
+    private long mSumX;
+    private long mSumY;
+    private long mSumTT;
+    private long mSumTX;
+    private long mSumTY;
+
+    GestureVelocityTracker(@NonNull Clock clock) {
+        mClock = clock;
+    }
+
+    /**
+     * Records the position of the gesture at the current time of this tracker's {@link Clock}.
+     */
+    void addSample(int x, int y) {
+        long time = mClock.uptimeMillis();
+        if (mSize == 0) {
+            mBaseTime = time;
+        }
+
+        while (mSize > 0 && (mSize == CAPACITY || time - mTimes[mOldestIndex] > WINDOW_MILLIS)) {
+            removeOldestSample();
+        }
+
+        int index = (mOldestIndex + mSize) % CAPACITY;
+        mTimes[index] = time;
+        mXs[index] = x;
+        mYs[index] = y;
+        ++mSize;
+
+        long t = time - mBaseTime;
+        mSumT += t;
+        mSumX += x;
+        mSumY += y;
+        mSumTT += t * t;
+        mSumTX += t * x;
+        mSumTY += t * y;
+    }
+
+    private void removeOldestSample() {
+        long t = mTimes[mOldestIndex] - mBaseTime;
+        int x = mXs[mOldestIndex];
+        int y = mYs[mOldestIndex];
+        mSumT -= t;
+        mSumX -= x;
+        mSumY -= y;
+        mSumTT -= t * t;
+        mSumTX -= t * x;
+        mSumTY -= t * y;
+
+        mOldestIndex = (mOldestIndex + 1) % CAPACITY;
+        --mSize;
+    }
+
+    /**
+     * @return the horizontal velocity in pixels per millisecond, or 0 if there are not enough samples
+     */
+    float getVelocityX() {
+        return slope(mSumTX, mSumX);
+    }
+
+    /**
+     * @return the vertical velocity in pixels per millisecond, or 0 if there are not enough samples
+     */
+    float getVelocityY() {
+        return slope(mSumTY, mSumY);
+    }
+
+    /**
+     * @return the speed of the gesture in pixels per millisecond, regardless of direction
+     */
+    float getSpeed() {
+        float velocityX = getVelocityX();
+        float velocityY = getVelocityY();
+        return (float) Math.sqrt(velocityX * velocityX + velocityY * velocityY);
+    }
+
+    /**
+     * Extrapolates the current direction of the gesture from its latest sample to the given
+     * horizontal position.
+     *
+     * @param targetX horizontal position to extrapolate to
+     * @return vertical position of the gesture when it reaches {@code targetX}, or the latest
+     * vertical position if the gesture is not moving horizontally
+     */
+    float getTargetY(int targetX) {
+        if (mSize == 0) {
+            return 0;
+        }
+
+        int newestIndex = (mOldestIndex + mSize - 1) % CAPACITY;
+        float velocityX = getVelocityX();
+        if (velocityX == 0) {
+            return mYs[newestIndex];
+        }
+        return mYs[newestIndex] + getVelocityY() / velocityX * (targetX - mXs[newestIndex]);
+    }
+
+    /**
+     * Forgets all samples, e.g., when a gesture ends.
+     */
+    void clear() {
+        mOldestIndex = 0;
+        mSize = 0;
+        mBaseTime = 0;
+        mSumT = 0;
+        mSumX = 0;
+        mSumY = 0;
+        mSumTT = 0;
+        mSumTX = 0;
+        mSumTY = 0;
+    }
+
+    private float slope(long sumTV, long sumV) {
+        if (mSize < 2) {
+            return 0;
+        }
+
+        long denominator = mSize * mSumTT - mSumT * mSumT;
+        if (denominator == 0) {
+            // All samples share the same timestamp so there is no time span to measure over.
+            return 0;
+        }
+        return (float) (mSize * sumTV - mSumT * sumV) / denominator;
+    }
+
+    /**
+     * Source of sample timestamps, in milliseconds.
+     */
+    interface Clock {
+        long uptimeMillis();
+    }
+}
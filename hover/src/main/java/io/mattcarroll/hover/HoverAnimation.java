@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.animation.TimeInterpolator;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Reusable timed animation that is ticked by the {@link HoverAnimationScheduler}.
+ * <p>
+ * A {@code HoverAnimation} does not know which properties it animates: it reports its interpolated
+ * fraction to its {@link Listener}, which applies it.  That lets a view create each of its
+ * animations once and start, reverse or cancel them any number of times without allocating
+ * animators or listeners.
+ * <p>
+ * Like {@code ValueAnimator}, an animation without a start delay reports its first fraction as soon
+ * as it starts, and canceling a running animation still reports its end.
+ * <p>
+ * An animation that is given a trace section name traces an async {@link HoverTrace} section from
+ * its start until it ends, including its start delay.
+ */
+class HoverAnimation implements HoverAnimationScheduler.FrameCallback {
+
+    private final HoverAnimationScheduler mScheduler;
+    private final Listener mListener;
+    private long mDurationMillis;
+    @Nullable
+    private TimeInterpolator mInterpolator;
+
+    private boolean mIsRunning;
+    private boolean mIsReversed;
+    private long mStartDelayMillis;
+    private long mStartTimeMillis = -1;
+    private float mStartLinearFraction;
+    private float mLinearFraction;
+    @Nullable
+    private String mTraceSection;
+    private int mTraceCookie;
+
+    HoverAnimation(long durationMillis, @Nullable TimeInterpolator interpolator, @NonNull Listener listener) {
+        this(HoverAnimationScheduler.getInstance(), durationMillis, interpolator, listener);
+    }
+
+    HoverAnimation(@NonNull HoverAnimationScheduler scheduler,
+                   long durationMillis,
+                   @Nullable TimeInterpolator interpolator,
+                   @NonNull Listener listener) {
+        mScheduler = scheduler;
+        mDurationMillis = durationMillis;
+        mInterpolator = interpolator;
+        mListener = listener;
+    }
+
+    void setDuration(long durationMillis) {
+        mDurationMillis = durationMillis;
+    }
+
+    void setInterpolator(@Nullable TimeInterpolator interpolator) {
+        mInterpolator = interpolator;
+    }
+
+    /**
+     * Names the async {@link HoverTrace} section that spans each run of this animation, or stops
+     * tracing it for {@code null}.  Must not be called while the animation is running.
+     */
+    void setTraceSection(@Nullable String traceSection) {
+        mTraceSection = traceSection;
+        if (null != traceSection && 0 == mTraceCookie) {
+            mTraceCookie = HoverTrace.newCookie();
+        }
+    }
+
+    /**
+     * Runs from the beginning, canceling the animation first if it is running.
+     */
+    void start() {
+        start(0);
+    }
+
+    /**
+     * Runs from the beginning once {@code startDelayMillis} have passed, canceling the animation
+     * first if it is running.
+     */
+    void start(long startDelayMillis) {
+        cancel();
+        mIsReversed = false;
+        begin(0f, startDelayMillis);
+    }
+
+    /**
+     * Runs backwards towards the beginning.  A running animation turns around where it is, so it
+     * takes as long to return as it took to get there; otherwise it starts from the end.
+     */
+    void reverse() {
+        if (mIsRunning) {
+            mIsReversed = !mIsReversed;
+            mStartLinearFraction = mLinearFraction;
+            mStartDelayMillis = 0;
+            mStartTimeMillis = -1;
+        } else {
+            cancel();
+            mIsReversed = true;
+            begin(1f, 0);
+        }
+    }
+
+    private void begin(float linearFraction, long startDelayMillis) {
+        if (null != mTraceSection) {
+            HoverTrace.beginAsyncSection(mTraceSection, mTraceCookie);
+        }
+        mIsRunning = true;
+        mStartLinearFraction = linearFraction;
+        mLinearFraction = linearFraction;
+        mStartDelayMillis = startDelayMillis;
+        mStartTimeMillis = -1;
+        mScheduler.addFrameCallback(this);
+
+        if (startDelayMillis == 0) {
+            mListener.onAnimationUpdate(this, getAnimatedFraction());
+        }
+    }
+
+    /**
+     * Stops the animation where it is and reports its end as canceled.
+     */
+    void cancel() {
+        if (mIsRunning) {
+            finish(true);
+        }
+    }
+
+    /**
+     * Jumps to the end of the animation and reports its end.
+     */
+    void end() {
+        if (mIsRunning) {
+            mLinearFraction = mIsReversed ? 0f : 1f;
+            mListener.onAnimationUpdate(this, getAnimatedFraction());
+            finish(false);
+        }
+    }
+
+    /**
+     * @return true from {@link #start()} or {@link #reverse()} until the animation ends, including
+     * during its start delay
+     */
+    boolean isRunning() {
+        return mIsRunning;
+    }
+
+    boolean isReversed() {
+        return mIsReversed;
+    }
+
+    float getAnimatedFraction() {
+        return null == mInterpolator ? mLinearFraction : mInterpolator.getInterpolation(mLinearFraction);
+    }
+
+    @Override
+    public void doAnimationFrame(long frameTimeMillis) {
+        if (!mIsRunning) {
+            return;
+        }
+        if (mStartTimeMillis < 0) {
+            // Time is measured from the first frame so that work done before it doesn't eat into the animation.
+            mStartTimeMillis = frameTimeMillis + mStartDelayMillis;
+        }
+        if (frameTimeMillis < mStartTimeMillis) {
+            return;
+        }
+
+        long elapsedMillis = frameTimeMillis - mStartTimeMillis;
+        float progress = mDurationMillis > 0 ? (float) elapsedMillis / mDurationMillis : 1f;
+        boolean isFinished;
+        if (mIsReversed) {
+            mLinearFraction = Math.max(0f, mStartLinearFraction - progress);
+            isFinished = mLinearFraction == 0f;
+        } else {
+            mLinearFraction = Math.min(1f, mStartLinearFraction + progress);
+            isFinished = mLinearFraction == 1f;
+        }
+
+        mListener.onAnimationUpdate(this, getAnimatedFraction());
+        if (isFinished) {
+            finish(false);
+        }
+    }
+
+    private void finish(boolean isCanceled) {
+        mIsRunning = false;
+        mScheduler.removeFrameCallback(this);
+        if (null != mTraceSection) {
+            HoverTrace.endAsyncSection(mTraceSection, mTraceCookie);
+        }
+        mListener.onAnimationEnd(this, isCanceled);
+    }
+
+    /**
+     * Applies a {@link HoverAnimation}'s progress.
+     */
+    interface Listener {
+        /**
+         * @param fraction interpolated progress, from 0 at the beginning to 1 at the end
+         */
+        void onAnimationUpdate(@NonNull HoverAnimation animation, float fraction);
+
+        /**
+         * @param isCanceled true if the animation was stopped by {@link HoverAnimation#cancel()} or by being restarted
+         */
+        void onAnimationEnd(@NonNull HoverAnimation animation, boolean isCanceled);
+    }
+}
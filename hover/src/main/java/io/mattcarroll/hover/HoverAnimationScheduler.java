@@ -0,0 +1,249 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives all of Hover's frame-by-frame animations from a single frame callback.
+ * <p>
+ * Animations register a {@link FrameCallback} while they run and unregister it when they finish.
+ * Only one frame is requested from the {@link FrameSource} per frame no matter how many animations
+ * are running, and none is requested while nothing is running.
+ * <p>
+ * Commit callbacks run once, after all animations of the next frame have been ticked, e.g., to
+ * report where the animations left things without reporting every intermediate step.
+ * <p>
+ * {@link FrameListener}s are told about every frame that ran animations, including how many frames
+ * were dropped since the previous one.
+ * <p>
+ * Must only be used from the main thread.
+ */
+class HoverAnimationScheduler {
+
+    private static final float DEFAULT_FRAME_INTERVAL_MILLIS = 1000f / 60;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static HoverAnimationScheduler sInstance;
+
+    @NonNull
+    static HoverAnimationScheduler getInstance() {
+        if (null == sInstance) {
+            sInstance = new HoverAnimationScheduler(new ChoreographerFrameSource());
+        }
+        return sInstance;
+    }
+
+    private final FrameSource mFrameSource;
+    private final List<FrameCallback> mCallbacks = new ArrayList<>(INITIAL_CAPACITY);
+    private final List<FrameCallback> mCommitCallbacks = new ArrayList<>(INITIAL_CAPACITY);
+    private final List<FrameCallback> mCommitCallbacksToRun = new ArrayList<>(INITIAL_CAPACITY);
+    private final List<FrameListener> mFrameListeners = new ArrayList<>(2);
+    private float mExpectedFrameIntervalMillis = DEFAULT_FRAME_INTERVAL_MILLIS;
+    private long mLastFrameTimeMillis = -1;
+    private boolean mIsDispatching;
+    private boolean mHasRemovedCallbacks;
+    private boolean mIsFrameScheduled;
+
+    HoverAnimationScheduler(@NonNull FrameSource frameSource) {
+        mFrameSource = frameSource;
+    }
+
+    void addFrameCallback(@NonNull FrameCallback callback) {
+        if (!mCallbacks.contains(callback)) {
+            mCallbacks.add(callback);
+        }
+        scheduleFrame();
+    }
+
+    void removeFrameCallback(@NonNull FrameCallback callback) {
+        int index = mCallbacks.indexOf(callback);
+        if (index < 0) {
+            return;
+        }
+
+        if (mIsDispatching) {
+            // Keep indices stable while dispatching; the gap is cleaned up after the frame.
+            mCallbacks.set(index, null);
+            mHasRemovedCallbacks = true;
+        } else {
+            mCallbacks.remove(index);
+        }
+    }
+
+    /**
+     * Runs {@code callback} once, after the animations of the current frame if one is being
+     * dispatched, otherwise after those of the next frame.  Posting a callback that is already
+     * pending has no effect.
+     */
+    void postCommitCallback(@NonNull FrameCallback callback) {
+        if (!mCommitCallbacks.contains(callback)) {
+            mCommitCallbacks.add(callback);
+        }
+        scheduleFrame();
+    }
+
+    /**
+     * Cancels a pending commit callback, including one that is due later in the commit phase of the
+     * frame being dispatched.
+     */
+    void removeCommitCallback(@NonNull FrameCallback callback) {
+        mCommitCallbacks.remove(callback);
+        int index = mCommitCallbacksToRun.indexOf(callback);
+        if (index >= 0) {
+            // Keep indices stable while the commit callbacks run; the list is cleared afterwards.
+            mCommitCallbacksToRun.set(index, null);
+        }
+    }
+
+    boolean isRunning() {
+        return getFrameCallbackCount() > 0;
+    }
+
+    int getFrameCallbackCount() {
+        int count = 0;
+        for (int i = 0; i < mCallbacks.size(); ++i) {
+            if (null != mCallbacks.get(i)) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    void addFrameListener(@NonNull FrameListener listener) {
+        if (!mFrameListeners.contains(listener)) {
+            mFrameListeners.add(listener);
+        }
+    }
+
+    void removeFrameListener(@NonNull FrameListener listener) {
+        mFrameListeners.remove(listener);
+    }
+
+    /**
+     * @param frameIntervalMillis time between frames on the current display, used to count dropped
+     *                            frames
+     */
+    void setExpectedFrameIntervalMillis(float frameIntervalMillis) {
+        mExpectedFrameIntervalMillis = frameIntervalMillis;
+    }
+
+    /**
+     * Runs one frame.  Called by the {@link FrameSource} after {@link FrameSource#postFrame}.
+     *
+     * @param frameTimeMillis time of the frame, in the {@code SystemClock.uptimeMillis()} time base
+     */
+    void doFrame(long frameTimeMillis) {
+        mIsFrameScheduled = false;
+        notifyFrameListeners(frameTimeMillis);
+
+        mIsDispatching = true;
+        // Callbacks added during this frame start on the next one.
+        int count = mCallbacks.size();
+        for (int i = 0; i < count; ++i) {
+            FrameCallback callback = mCallbacks.get(i);
+            if (null != callback) {
+                callback.doAnimationFrame(frameTimeMillis);
+            }
+        }
+
+        // Commit callbacks posted while these run go to the next frame.
+        for (int i = 0; i < mCommitCallbacks.size(); ++i) {
+            mCommitCallbacksToRun.add(mCommitCallbacks.get(i));
+        }
+        mCommitCallbacks.clear();
+        for (int i = 0; i < mCommitCallbacksToRun.size(); ++i) {
+            FrameCallback callback = mCommitCallbacksToRun.get(i);
+            if (null != callback) {
+                callback.doAnimationFrame(frameTimeMillis);
+            }
+        }
+        mCommitCallbacksToRun.clear();
+        mIsDispatching = false;
+
+        if (mHasRemovedCallbacks) {
+            for (int i = mCallbacks.size() - 1; i >= 0; --i) {
+                if (null == mCallbacks.get(i)) {
+                    mCallbacks.remove(i);
+                }
+            }
+            mHasRemovedCallbacks = false;
+        }
+
+        if (mCallbacks.isEmpty()) {
+            // The next frame after an idle period says nothing about dropped frames.
+            mLastFrameTimeMillis = -1;
+        }
+        if (!mCallbacks.isEmpty() || !mCommitCallbacks.isEmpty()) {
+            scheduleFrame();
+        }
+    }
+
+    private void notifyFrameListeners(long frameTimeMillis) {
+        if (mLastFrameTimeMillis >= 0 && !mFrameListeners.isEmpty()) {
+            long frameIntervalMillis = frameTimeMillis - mLastFrameTimeMillis;
+            int droppedFrameCount = Math.max(0, Math.round(frameIntervalMillis / mExpectedFrameIntervalMillis) - 1);
+            for (int i = 0; i < mFrameListeners.size(); ++i) {
+                mFrameListeners.get(i).onFrame(frameTimeMillis, frameIntervalMillis, droppedFrameCount);
+            }
+        }
+        mLastFrameTimeMillis = frameTimeMillis;
+    }
+
+    private void scheduleFrame() {
+        if (mIsFrameScheduled || mIsDispatching) {
+            // doFrame() schedules the next frame itself once dispatching is done.
+            return;
+        }
+        mIsFrameScheduled = true;
+        mFrameSource.postFrame(this);
+    }
+
+    /**
+     * Called once per frame while registered with a {@link HoverAnimationScheduler}.
+     */
+    interface FrameCallback {
+        /**
+         * @param frameTimeMillis time of the frame, in the {@code SystemClock.uptimeMillis()} time base
+         */
+        void doAnimationFrame(long frameTimeMillis);
+    }
+
+    /**
+     * Observes the frames that run animations, e.g., to measure jank.
+     */
+    interface FrameListener {
+        /**
+         * @param frameTimeMillis     time of this frame
+         * @param frameIntervalMillis time since the previous animation frame
+         * @param droppedFrameCount   number of frames that were expected between the two but did not run
+         */
+        void onFrame(long frameTimeMillis, long frameIntervalMillis, int droppedFrameCount);
+    }
+
+    /**
+     * Source of frame timing, e.g., the {@code Choreographer}.
+     */
+    interface FrameSource {
+        /**
+         * Calls {@link HoverAnimationScheduler#doFrame(long)} on the given scheduler at the next frame.
+         */
+        void postFrame(@NonNull HoverAnimationScheduler scheduler);
+    }
+}
@@ -9,18 +9,31 @@ import android.util.AttributeSet;
 import android.view.View;
 import android.widget.FrameLayout;
 
-import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
-
 class HoverFrameLayout extends FrameLayout {
 
-    protected final Set<OnPositionChangeListener> mOnPositionChangeListeners = new CopyOnWriteArraySet<>();
+    protected final ListenerList<OnPositionChangeListener> mOnPositionChangeListeners = new ListenerList<>();
     private final OnLayoutChangeListener mOnLayoutChangeListener = new OnLayoutChangeListener() {
         @Override
         public void onLayoutChange(View v, int left, int top, int right, int bottom, int oldLeft, int oldTop, int oldRight, int oldBottom) {
             notifyListenersOfPositionChange(v);
         }
     };
+    // Position changes are reported once per frame, after the frame's animations, with wherever
+    // this View ended up.
+    private View mPositionChangedView;
+    private boolean mIsPositionChangePending;
+    private final HoverAnimationScheduler.FrameCallback mDispatchPositionChange = new HoverAnimationScheduler.FrameCallback() {
+        @Override
+        public void doAnimationFrame(long frameTimeMillis) {
+            mIsPositionChangePending = false;
+            View view = mPositionChangedView;
+            mPositionChangedView = null;
+            dispatchPositionChange(view);
+        }
+    };
+    // Measure and layout passes this View has received, for profiling the hover container.
+    private int mMeasurePassCount = 0;
+    private int mLayoutPassCount = 0;
 
     public HoverFrameLayout(@NonNull Context context) {
         super(context);
@@ -40,19 +53,92 @@ class HoverFrameLayout extends FrameLayout {
     }
 
     public void addOnPositionChangeListener(@Nullable OnPositionChangeListener listener) {
-        mOnPositionChangeListeners.add(listener);
+        if (null != listener) {
+            mOnPositionChangeListeners.add(listener);
+        }
     }
 
     public void removeOnPositionChangeListener(@NonNull OnPositionChangeListener listener) {
         mOnPositionChangeListeners.remove(listener);
     }
 
+    /**
+     * Reports a position change to this View's {@link OnPositionChangeListener}s.  However often
+     * this is called within a frame, whether by animations or by layouts, listeners are notified
+     * once, after the frame's animations have run, with wherever this View ended up.
+     */
     protected void notifyListenersOfPositionChange(final View view) {
-        for (OnPositionChangeListener listener : mOnPositionChangeListeners) {
-            listener.onPositionChange(view);
+        if (0 == mOnPositionChangeListeners.size()) {
+            return;
+        }
+
+        mPositionChangedView = view;
+        if (!mIsPositionChangePending) {
+            mIsPositionChangePending = true;
+            HoverAnimationScheduler.getInstance().postCommitCallback(mDispatchPositionChange);
+        }
+    }
+
+    /**
+     * Reports a position change to this View's {@link OnPositionChangeListener}s right away, in
+     * place of any pending report.  Meant for drags: touch moves already arrive once per frame, and
+     * followers like the tab message have to keep up with the finger.
+     */
+    protected void notifyListenersOfPositionChangeNow(final View view) {
+        if (0 == mOnPositionChangeListeners.size()) {
+            return;
+        }
+
+        cancelPendingPositionChange();
+        dispatchPositionChange(view);
+    }
+
+    /**
+     * Drops a position change that has been reported with
+     * {@link #notifyListenersOfPositionChange(View)} but not yet dispatched.
+     */
+    protected void cancelPendingPositionChange() {
+        if (mIsPositionChangePending) {
+            mIsPositionChangePending = false;
+            mPositionChangedView = null;
+            HoverAnimationScheduler.getInstance().removeCommitCallback(mDispatchPositionChange);
         }
     }
 
+    private void dispatchPositionChange(@NonNull View view) {
+        mOnPositionChangeListeners.beginDispatch();
+        try {
+            for (int i = 0, count = mOnPositionChangeListeners.size(); i < count; ++i) {
+                OnPositionChangeListener listener = mOnPositionChangeListeners.get(i);
+                if (null != listener) {
+                    listener.onPositionChange(view);
+                }
+            }
+        } finally {
+            mOnPositionChangeListeners.endDispatch();
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        ++mMeasurePassCount;
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+        ++mLayoutPassCount;
+    }
+
+    int getMeasurePassCount() {
+        return mMeasurePassCount;
+    }
+
+    int getLayoutPassCount() {
+        return mLayoutPassCount;
+    }
+
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Hover's internal logging.
+ * <p>
+ * Debug logging is switched by {@link #ENABLED}, a compile-time constant that is true in debug
+ * builds of the library and false in release builds.  Calls whose message has to be built are
+ * written as
+ * <pre>
+ * if (HoverLog.ENABLED) {
+ *     HoverLog.d(TAG, "Moved to " + x + ", " + y);
+ * }
+ * </pre>
+ * so that release builds compile them away, message and all.  Errors and warnings are always
+ * logged.
+ * <p>
+ * For debugging, a {@link Sink} can be set to also receive every log entry as a structured record,
+ * e.g., to keep the entries that led up to a bug in memory.
+ */
+public final class HoverLog {
+
+    /**
+     * True if debug logging is compiled into this build of Hover.
+     */
+    public static final boolean ENABLED = BuildConfig.HOVER_LOGGING;
+
+    @Nullable
+    private static Sink sSink;
+
+    private HoverLog() {
+    }
+
+    /**
+     * Sets a {@link Sink} that receives every log entry in addition to logcat, or removes it for
+     * {@code null}.  Must be called on the main thread.
+     */
+    public static void setSink(@Nullable Sink sink) {
+        sSink = sink;
+    }
+
+    static void d(@NonNull String tag, @NonNull String message) {
+        if (ENABLED) {
+            Log.d(tag, message);
+            dispatch(Log.DEBUG, tag, message);
+        }
+    }
+
+    static void w(@NonNull String tag, @NonNull String message) {
+        Log.w(tag, message);
+        dispatch(Log.WARN, tag, message);
+    }
+
+    static void e(@NonNull String tag, @NonNull String message) {
+        Log.e(tag, message);
+        dispatch(Log.ERROR, tag, message);
+    }
+
+    private static void dispatch(int priority, @NonNull String tag, @NonNull String message) {
+        Sink sink = sSink;
+        if (null != sink) {
+            sink.log(priority, tag, message);
+        }
+    }
+
+    /**
+     * Receives Hover's log entries.
+     */
+    public interface Sink {
+        /**
+         * @param priority {@link Log#DEBUG}, {@link Log#WARN} or {@link Log#ERROR}
+         * @param tag      the class that logged the entry
+         * @param message  the entry
+         */
+        void log(int priority, @NonNull String tag, @NonNull String message);
+    }
+}
@@ -15,14 +15,23 @@
  */
 package io.mattcarroll.hover;
 
+import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.ListUpdateCallback;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.View;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * A {@code HoverMenu} models the structure of a menu that appears within a {@link HoverView}.
@@ -34,8 +43,18 @@ public abstract class HoverMenu {
 
     private static final String TAG = "HoverMenu";
 
-    private List<Section> mSections = new ArrayList<>();
+    private static ExecutorService sDiffExecutor;
+
+    // The Sections as of the last applied update, with an ID-to-index map.
+    private final SectionIndex mSectionIndex = new SectionIndex();
+    private boolean mHasAppliedSections = false;
     private ListUpdateCallback mListUpdateCallback;
+    private Executor mMainThreadExecutor;
+    // Bumped by every synchronous notifyMenuChanged() so that diffs started before it are dropped.
+    private int mGeneration = 0;
+    private boolean mIsDiffInFlight = false;
+    @Nullable
+    private List<Section> mPendingSections;
 
     public abstract String getId();
 
@@ -48,8 +67,31 @@ public abstract class HoverMenu {
     public abstract Section getSection(@NonNull SectionId sectionId);
 
     public int getSectionIndex(@NonNull Section section) {
-        for (int i = 0; i < mSections.size(); ++i) {
-            if (section.equals(mSections.get(i))) {
+        int index = getSectionIndex(section.getId());
+        if (index < 0) {
+            return -1;
+        }
+        return section.equals(getAppliedSections().get(index)) ? index : -1;
+    }
+
+    /**
+     * @return the index of the {@code Section} with the given ID, or -1 if there is none.  Runs in
+     * constant time once the menu has been notified of its Sections with
+     * {@link #notifyMenuChanged()} or {@link #notifyMenuChangedAsync()}.
+     * <p>
+     * Like the positions reported to the {@link ListUpdateCallback}, the index refers to the
+     * {@code Section}s of the last applied update.  While a {@link #notifyMenuChangedAsync()} diff
+     * is running, {@link #getSection(int)} may already return a different {@code Section} for it.
+     */
+    public int getSectionIndex(@NonNull SectionId sectionId) {
+        if (mHasAppliedSections) {
+            return mSectionIndex.indexOf(sectionId);
+        }
+
+        // Nothing has been indexed yet, so fall back to a scan.
+        List<Section> sections = getSections();
+        for (int i = 0; i < sections.size(); ++i) {
+            if (sectionId.equals(sections.get(i).getId())) {
                 return i;
             }
         }
@@ -59,24 +101,169 @@ public abstract class HoverMenu {
     @NonNull
     public abstract List<Section> getSections();
 
+    /**
+     * @return the {@code Section}s as of the last applied update, which are the ones that
+     * {@link #getSectionIndex(SectionId)} and the positions reported to the
+     * {@link ListUpdateCallback} refer to.  Before the first update this is {@link #getSections()}.
+     */
+    @NonNull
+    List<Section> getAppliedSections() {
+        return mHasAppliedSections ? mSectionIndex.getSections() : getSections();
+    }
+
+    /**
+     * @return the {@code Section} with the given ID in {@link #getAppliedSections()}, or null
+     */
+    @Nullable
+    Section getAppliedSection(@NonNull SectionId sectionId) {
+        return mHasAppliedSections ? mSectionIndex.get(sectionId) : getSection(sectionId);
+    }
+
     void setUpdatedCallback(@Nullable ListUpdateCallback listUpdatedCallback) {
         mListUpdateCallback = listUpdatedCallback;
     }
 
+    /**
+     * Diffs {@link #getSections()} against the previous {@code Section}s on the calling thread and
+     * applies the changes immediately.  Any {@link #notifyMenuChangedAsync()} updates that have not
+     * been applied yet are dropped because this update supersedes them.
+     */
     public void notifyMenuChanged() {
-        List<Section> oldSections = mSections;
+        ++mGeneration;
+        mPendingSections = null;
+
+        List<Section> oldSections = mSectionIndex.getSections();
         List<Section> newSections = getSections();
-        mSections = newSections;
 
         if (null != mListUpdateCallback) {
             DiffUtil.Callback diffCallback = new MenuDiffCallback(oldSections, newSections);
-            // calculateDiff() can be long-running.  We let it run synchronously because we don't
-            // expect many Sections.
             DiffUtil.DiffResult result = DiffUtil.calculateDiff(diffCallback, true);
+            applyUpdate(newSections, result);
+        } else {
+            // Without a callback there is no need for a diff, only for a fresh index.
+            mSectionIndex.update(newSections, 0);
+            mHasAppliedSections = true;
+        }
+    }
+
+    /**
+     * Like {@link #notifyMenuChanged()}, but diffs on a shared background thread and applies the
+     * changes on the main thread.  Must be called from the main thread.
+     * <p>
+     * Bursts are coalesced: while a diff is running, further calls only replace the snapshot that
+     * will be diffed next, so intermediate snapshots are never applied.  Updates are applied one at
+     * a time and in order.
+     */
+    public void notifyMenuChangedAsync() {
+        notifyMenuChangedAsync(getDiffExecutor());
+    }
+
+    /**
+     * Like {@link #notifyMenuChangedAsync()}, but diffs on the given {@code executor}.
+     */
+    public void notifyMenuChangedAsync(@NonNull Executor executor) {
+        // getSections() is read here, on the main thread, because implementations need not be
+        // thread-safe.  The copy keeps later changes to the returned list out of the diff.
+        List<Section> newSections = new ArrayList<>(getSections());
+        if (mIsDiffInFlight) {
+            mPendingSections = newSections;
+        } else {
+            startDiff(executor, newSections);
+        }
+    }
+
+    /**
+     * Sets where finished diffs are applied.  Defaults to the main thread; tests pass an
+     * {@code Executor} they run by hand.
+     */
+    void setMainThreadExecutor(@NonNull Executor mainThreadExecutor) {
+        mMainThreadExecutor = mainThreadExecutor;
+    }
+
+    private void startDiff(@NonNull final Executor executor, @NonNull final List<Section> newSections) {
+        if (null == mMainThreadExecutor) {
+            final Handler mainHandler = new Handler(Looper.getMainLooper());
+            mMainThreadExecutor = new Executor() {
+                @Override
+                public void execute(@NonNull Runnable runnable) {
+                    mainHandler.post(runnable);
+                }
+            };
+        }
+
+        final int generation = mGeneration;
+        final List<Section> oldSections = mSectionIndex.getSections();
+        mIsDiffInFlight = true;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                DiffUtil.DiffResult diffResult = null;
+                RuntimeException diffFailure = null;
+                try {
+                    diffResult = DiffUtil.calculateDiff(new MenuDiffCallback(oldSections, newSections), true);
+                } catch (RuntimeException e) {
+                    // E.g., a Section's getChangesFrom() threw.  The menu must still take updates.
+                    diffFailure = e;
+                }
+                final DiffUtil.DiffResult result = diffResult;
+                final RuntimeException failure = diffFailure;
+                mMainThreadExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        onDiffCalculated(executor, generation, newSections, result, failure);
+                    }
+                });
+            }
+        });
+    }
+
+    private void onDiffCalculated(@NonNull Executor executor,
+                                  int generation,
+                                  @NonNull List<Section> newSections,
+                                  @Nullable DiffUtil.DiffResult result,
+                                  @Nullable RuntimeException failure) {
+        mIsDiffInFlight = false;
+        if (null != failure) {
+            HoverLog.e(TAG, "Dropped a menu update because its diff failed: " + failure);
+        } else if (generation == mGeneration) {
+            // Otherwise a synchronous update replaced the Sections this diff started from.
+            applyUpdate(newSections, result);
+        }
+
+        if (null != mPendingSections) {
+            List<Section> pendingSections = mPendingSections;
+            mPendingSections = null;
+            startDiff(executor, pendingSections);
+        }
+    }
+
+    private void applyUpdate(@NonNull List<Section> newSections, @NonNull DiffUtil.DiffResult result) {
+        // The index is updated before the callback runs so that the callback sees the new indices.
+        FirstChangeRecorder firstChangeRecorder = new FirstChangeRecorder(newSections.size());
+        result.dispatchUpdatesTo(firstChangeRecorder);
+        mSectionIndex.update(newSections, firstChangeRecorder.mFirstChangedPosition);
+        mHasAppliedSections = true;
+
+        if (null != mListUpdateCallback) {
             result.dispatchUpdatesTo(mListUpdateCallback);
         }
     }
 
+    @NonNull
+    private static synchronized Executor getDiffExecutor() {
+        if (null == sDiffExecutor) {
+            sDiffExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "HoverMenuDiff");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sDiffExecutor;
+    }
+
     public static class SectionId {
 
         private String mId;
@@ -107,11 +294,43 @@ public abstract class HoverMenu {
         }
     }
 
+    /**
+     * A {@code Section} of a {@code HoverMenu}.
+     * <p>
+     * When a {@code Section} is replaced by one with the same ID, the {@code HoverView} only updates
+     * the parts that {@link #getChangesFrom(Section)} reports as changed.  These changes are also
+     * the payload of {@link ListUpdateCallback#onChanged(int, int, Object)}; read them with
+     * {@link #getChanges(Object)}.  To update something small like a badge count without
+     * re-attaching any {@code View}, change the existing tab {@code View} in place and pass the same
+     * instance to the new {@code Section}.
+     * <p>
+     * A {@code Section} either holds its {@link Content} from the start or, if it is created with
+     * {@link #lazy(SectionId, View, ContentFactory)}, creates it on first selection with a
+     * {@link ContentFactory}.
+     */
     public static class Section {
 
+        @Retention(RetentionPolicy.SOURCE)
+        @IntDef(flag = true, value = { CHANGE_TAB, CHANGE_MESSAGE, CHANGE_CONTENT })
+        public @interface Changes { }
+        public static final int CHANGE_TAB = 1;
+        public static final int CHANGE_MESSAGE = 1 << 1;
+        public static final int CHANGE_CONTENT = 1 << 2;
+        public static final int CHANGE_ALL = CHANGE_TAB | CHANGE_MESSAGE | CHANGE_CONTENT;
+
+        /**
+         * @return the changes carried by a {@link ListUpdateCallback#onChanged(int, int, Object)}
+         * payload, or {@link #CHANGE_ALL} if the payload does not say what changed
+         */
+        @Changes
+        public static int getChanges(@Nullable Object payload) {
+            return payload instanceof Integer ? (Integer) payload : CHANGE_ALL;
+        }
+
         private final SectionId mId;
         private final View mTabView;
         private final Content mContent;
+        private final ContentFactory mContentFactory;
         private final View mTabMessageView;
 
         public Section(@NonNull SectionId id, @NonNull View tabView, @NonNull Content content) {
@@ -119,12 +338,38 @@ public abstract class HoverMenu {
         }
 
         public Section(@NonNull SectionId id, @NonNull View tabView, @NonNull Content content, @Nullable View tabMessageView) {
+            this(id, tabView, content, null, tabMessageView);
+        }
+
+        private Section(@NonNull SectionId id,
+                        @NonNull View tabView,
+                        @Nullable Content content,
+                        @Nullable ContentFactory contentFactory,
+                        @Nullable View tabMessageView) {
             mId = id;
             mTabView = tabView;
             mContent = content;
+            mContentFactory = contentFactory;
             mTabMessageView = tabMessageView;
         }
 
+        /**
+         * Creates a {@code Section} whose {@link Content} is created by {@code contentFactory} when
+         * the {@code Section} is first selected, and may be evicted and re-created later.
+         */
+        @NonNull
+        public static Section lazy(@NonNull SectionId id, @NonNull View tabView, @NonNull ContentFactory contentFactory) {
+            return lazy(id, tabView, contentFactory, null);
+        }
+
+        @NonNull
+        public static Section lazy(@NonNull SectionId id,
+                                   @NonNull View tabView,
+                                   @NonNull ContentFactory contentFactory,
+                                   @Nullable View tabMessageView) {
+            return new Section(id, tabView, null, contentFactory, tabMessageView);
+        }
+
         @NonNull
         public SectionId getId() {
             return mId;
@@ -140,10 +385,81 @@ public abstract class HoverMenu {
             return mTabMessageView;
         }
 
+        /**
+         * @return the {@code Content} given to the constructor
+         * @throws IllegalStateException if this {@code Section} was created with
+         * {@link #lazy(SectionId, View, ContentFactory)}, which has no {@code Content} up front;
+         * check {@link #getContentFactory()} first
+         */
         @NonNull
         public Content getContent() {
+            if (null != mContentFactory) {
+                throw new IllegalStateException("Section " + mId + " creates its Content lazily with a ContentFactory.");
+            }
             return mContent;
         }
+
+        /**
+         * @return the {@code ContentFactory} of a {@code Section} created with
+         * {@link #lazy(SectionId, View, ContentFactory)}, otherwise null
+         */
+        @Nullable
+        public ContentFactory getContentFactory() {
+            return mContentFactory;
+        }
+
+        /**
+         * @return which of the tab {@code View}, the tab message {@code View} and the
+         * {@link Content} differ between {@code oldSection} and this {@code Section}
+         */
+        @Changes
+        public int getChangesFrom(@NonNull Section oldSection) {
+            int changes = 0;
+            if (!oldSection.mTabView.equals(mTabView)) {
+                changes |= CHANGE_TAB;
+            }
+            if (null == oldSection.mTabMessageView
+                    ? null != mTabMessageView
+                    : !oldSection.mTabMessageView.equals(mTabMessageView)) {
+                changes |= CHANGE_MESSAGE;
+            }
+            if ((null == oldSection.mContent ? null != mContent : !oldSection.mContent.equals(mContent))
+                    || oldSection.mContentFactory != mContentFactory) {
+                changes |= CHANGE_CONTENT;
+            }
+            return changes;
+        }
+    }
+
+    // Finds the lowest position touched by an insertion, removal or move.  Changes in place keep
+    // every Section's ID at its index, so they are ignored.
+    private static class FirstChangeRecorder implements ListUpdateCallback {
+
+        private int mFirstChangedPosition;
+
+        private FirstChangeRecorder(int newListSize) {
+            mFirstChangedPosition = newListSize;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            mFirstChangedPosition = Math.min(mFirstChangedPosition, position);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            mFirstChangedPosition = Math.min(mFirstChangedPosition, position);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            mFirstChangedPosition = Math.min(mFirstChangedPosition, Math.min(fromPosition, toPosition));
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            // No-op
+        }
     }
 
     private static class MenuDiffCallback extends DiffUtil.Callback {
@@ -173,11 +489,14 @@ public abstract class HoverMenu {
 
         @Override
         public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            Section oldSection = mOldList.get(oldItemPosition);
-            Section newSection = mNewList.get(newItemPosition);
+            return 0 == mNewList.get(newItemPosition).getChangesFrom(mOldList.get(oldItemPosition));
+        }
 
-            return oldSection.mTabView.equals(newSection.getTabView())
-                    && oldSection.getContent().equals(newSection.getContent());
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            // Small Integers are cached, so this does not allocate.
+            return mNewList.get(newItemPosition).getChangesFrom(mOldList.get(oldItemPosition));
         }
     }
 }
@@ -0,0 +1,441 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.os.SystemClock;
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+
+import io.mattcarroll.hover.window.WindowViewController;
+
+/**
+ * Performance metrics of a {@link HoverView}, for monitoring how Hover behaves on real devices.
+ * <p>
+ * Samples are aggregated in {@link Histogram}s with fixed buckets, and both recording a sample and
+ * notifying {@link Listener}s is free of allocations, so metrics can stay on in production.
+ * {@code HoverMetrics} records:
+ * <ul>
+ *     <li>{@link #METRIC_EXPAND_LATENCY} and {@link #METRIC_COLLAPSE_LATENCY}: the time from
+ *     {@link HoverView#expand()} or {@link HoverView#collapse()} until the
+ *     {@link HoverView.OnStateChangeListener} is told.  State changes that are interrupted by
+ *     another one are not recorded.</li>
+ *     <li>{@link #METRIC_DRAG_LATENCY}: the time from a drag's touch sample until the frame that
+ *     renders the dragged view at its new position, measured once per frame for the oldest sample
+ *     in it.</li>
+ *     <li>{@link #METRIC_DOCK_DROPPED_FRAMES}: the frames dropped while tabs spring to their docks,
+ *     one sample per docking period, which lasts from when a tab starts springing while none is
+ *     until no tab is springing anymore.</li>
+ * </ul>
+ * It also counts the {@code WindowManager} calls of the {@link HoverView}'s
+ * {@link WindowViewController} and the touch views created and destroyed by its {@link Dragger}.
+ * <p>
+ * Must only be used from the main thread.
+ */
+public final class HoverMetrics {
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({
+            METRIC_EXPAND_LATENCY,
+            METRIC_COLLAPSE_LATENCY,
+            METRIC_DRAG_LATENCY,
+            METRIC_DOCK_DROPPED_FRAMES
+    })
+    public @interface Metric {
+    }
+
+    /**
+     * Milliseconds from {@link HoverView#expand()} to {@link HoverView.OnStateChangeListener#onExpanded()}.
+     */
+    public static final int METRIC_EXPAND_LATENCY = 0;
+    /**
+     * Milliseconds from {@link HoverView#collapse()} to {@link HoverView.OnStateChangeListener#onCollapsed()}.
+     */
+    public static final int METRIC_COLLAPSE_LATENCY = 1;
+    /**
+     * Milliseconds from a drag's touch sample to the frame that renders it.
+     */
+    public static final int METRIC_DRAG_LATENCY = 2;
+    /**
+     * Frames dropped while tabs sprang to their docks.
+     */
+    public static final int METRIC_DOCK_DROPPED_FRAMES = 3;
+
+    private static final long[] STATE_CHANGE_LATENCY_BOUNDS_MILLIS = {
+            50, 100, 150, 200, 250, 300, 400, 500, 750, 1000, 1500, 2000, 3000, 5000
+    };
+    private static final long[] DRAG_LATENCY_BOUNDS_MILLIS = {
+            4, 8, 12, 16, 20, 24, 33, 50, 67, 100, 150, 250, 500
+    };
+    private static final long[] DROPPED_FRAME_BOUNDS = {
+            0, 1, 2, 3, 4, 6, 8, 12, 16, 24, 32
+    };
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long uptimeMillis() {
+            return SystemClock.uptimeMillis();
+        }
+    };
+
+    private final HoverAnimationScheduler mScheduler;
+    private final Clock mClock;
+    private final ListenerList<Listener> mListeners = new ListenerList<>();
+    private final Histogram mExpandLatency = new Histogram(STATE_CHANGE_LATENCY_BOUNDS_MILLIS);
+    private final Histogram mCollapseLatency = new Histogram(STATE_CHANGE_LATENCY_BOUNDS_MILLIS);
+    private final Histogram mDragLatency = new Histogram(DRAG_LATENCY_BOUNDS_MILLIS);
+    private final Histogram mDockDroppedFrames = new Histogram(DROPPED_FRAME_BOUNDS);
+
+    private long mPendingDragSampleMillis = -1;
+    private final HoverAnimationScheduler.FrameCallback mDragRenderCallback = new HoverAnimationScheduler.FrameCallback() {
+        @Override
+        public void doAnimationFrame(long frameTimeMillis) {
+            // The frame time is the start of the frame, which can be older than samples that were
+            // handled during it, so measure up to now.
+            long latencyMillis = mClock.uptimeMillis() - mPendingDragSampleMillis;
+            mPendingDragSampleMillis = -1;
+            record(METRIC_DRAG_LATENCY, latencyMillis);
+        }
+    };
+
+    private int mDockingTabCount;
+    private int mDockDroppedFrameCount;
+    private long mTotalDockFrameCount;
+    private long mTotalDockDroppedFrameCount;
+    private final HoverAnimationScheduler.FrameListener mDockFrameListener = new HoverAnimationScheduler.FrameListener() {
+        @Override
+        public void onFrame(long frameTimeMillis, long frameIntervalMillis, int droppedFrameCount) {
+            mDockDroppedFrameCount += droppedFrameCount;
+            ++mTotalDockFrameCount;
+            mTotalDockDroppedFrameCount += droppedFrameCount;
+        }
+    };
+
+    @Nullable
+    private WindowViewController mWindowViewController;
+    @Nullable
+    private BaseTouchController mTouchController;
+    // Counts of the sources at the last reset().
+    private int mAddViewCountAtReset;
+    private int mUpdateViewLayoutCountAtReset;
+    private int mRemoveViewCountAtReset;
+    private int mTouchViewCreateCountAtReset;
+    private int mTouchViewDestroyCountAtReset;
+
+    HoverMetrics() {
+        this(HoverAnimationScheduler.getInstance(), SYSTEM_CLOCK);
+    }
+
+    HoverMetrics(@NonNull HoverAnimationScheduler scheduler, @NonNull Clock clock) {
+        mScheduler = scheduler;
+        mClock = clock;
+    }
+
+    void setWindowViewController(@Nullable WindowViewController windowViewController) {
+        mWindowViewController = windowViewController;
+        mAddViewCountAtReset = 0;
+        mUpdateViewLayoutCountAtReset = 0;
+        mRemoveViewCountAtReset = 0;
+    }
+
+    void setTouchController(@Nullable BaseTouchController touchController) {
+        mTouchController = touchController;
+        mTouchViewCreateCountAtReset = 0;
+        mTouchViewDestroyCountAtReset = 0;
+    }
+
+    /**
+     * Adds a {@link Listener} that is told about every sample.  Adding a listener twice has no
+     * effect.
+     */
+    void addListener(@NonNull Listener listener) {
+        mListeners.add(listener);
+    }
+
+    void removeListener(@NonNull Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    long uptimeMillis() {
+        return mClock.uptimeMillis();
+    }
+
+    /**
+     * Records a state change that was requested at {@code startMillis}, in the
+     * {@link #uptimeMillis()} time base, and has just completed.
+     *
+     * @param metric {@link #METRIC_EXPAND_LATENCY} or {@link #METRIC_COLLAPSE_LATENCY}
+     */
+    void onStateChanged(@Metric int metric, long startMillis) {
+        record(metric, mClock.uptimeMillis() - startMillis);
+    }
+
+    /**
+     * Reports a drag's touch sample, which is measured once the next frame has been rendered.
+     *
+     * @param eventTimeMillis time of the sample, in the {@code SystemClock.uptimeMillis()} time base
+     */
+    void onDragSample(long eventTimeMillis) {
+        if (mPendingDragSampleMillis < 0) {
+            mPendingDragSampleMillis = eventTimeMillis;
+            mScheduler.postCommitCallback(mDragRenderCallback);
+        }
+    }
+
+    /**
+     * Reports that a tab started to spring to its dock.  Frames are observed until every tab that
+     * started has ended.
+     */
+    void onDockStarted() {
+        if (0 == mDockingTabCount++) {
+            mDockDroppedFrameCount = 0;
+            mScheduler.addFrameListener(mDockFrameListener);
+        }
+    }
+
+    /**
+     * Reports that a tab that {@link #onDockStarted() started} to spring to its dock has come to
+     * rest or was stopped.
+     */
+    void onDockEnded() {
+        if (mDockingTabCount > 0 && 0 == --mDockingTabCount) {
+            mScheduler.removeFrameListener(mDockFrameListener);
+            record(METRIC_DOCK_DROPPED_FRAMES, mDockDroppedFrameCount);
+        }
+    }
+
+    private void record(@Metric int metric, long value) {
+        getHistogram(metric).record(value);
+
+        mListeners.beginDispatch();
+        try {
+            for (int i = 0, count = mListeners.size(); i < count; ++i) {
+                Listener listener = mListeners.get(i);
+                if (null != listener) {
+                    listener.onMetricRecorded(this, metric, value);
+                }
+            }
+        } finally {
+            mListeners.endDispatch();
+        }
+    }
+
+    @NonNull
+    public Histogram getHistogram(@Metric int metric) {
+        switch (metric) {
+            case METRIC_EXPAND_LATENCY:
+                return mExpandLatency;
+            case METRIC_COLLAPSE_LATENCY:
+                return mCollapseLatency;
+            case METRIC_DRAG_LATENCY:
+                return mDragLatency;
+            case METRIC_DOCK_DROPPED_FRAMES:
+                return mDockDroppedFrames;
+            default:
+                throw new IllegalArgumentException("Unknown metric: " + metric);
+        }
+    }
+
+    /**
+     * @return the number of frames that ran while tabs sprang to their docks
+     */
+    public long getDockFrameCount() {
+        return mTotalDockFrameCount;
+    }
+
+    /**
+     * @return the number of frames that were dropped while tabs sprang to their docks
+     */
+    public long getDockDroppedFrameCount() {
+        return mTotalDockDroppedFrameCount;
+    }
+
+    /**
+     * @return the number of views added to the window, or 0 if the {@link HoverView} is not in its
+     * own window
+     */
+    public int getWindowAddViewCount() {
+        return null != mWindowViewController ? mWindowViewController.getAddViewCount() - mAddViewCountAtReset : 0;
+    }
+
+    /**
+     * @return the number of window layout updates, e.g., to move a touch view
+     */
+    public int getWindowUpdateViewLayoutCount() {
+        return null != mWindowViewController ? mWindowViewController.getUpdateViewLayoutCount() - mUpdateViewLayoutCountAtReset : 0;
+    }
+
+    public int getWindowRemoveViewCount() {
+        return null != mWindowViewController ? mWindowViewController.getRemoveViewCount() - mRemoveViewCountAtReset : 0;
+    }
+
+    /**
+     * @return the number of touch views that had to be created because none could be reused
+     */
+    public int getTouchViewCreateCount() {
+        return null != mTouchController ? mTouchController.getTouchViewPoolMisses() - mTouchViewCreateCountAtReset : 0;
+    }
+
+    public int getTouchViewDestroyCount() {
+        return null != mTouchController ? mTouchController.getTouchViewDestroyCount() - mTouchViewDestroyCountAtReset : 0;
+    }
+
+    /**
+     * Clears all histograms and counts, e.g., after they have been reported.  Samples that are
+     * being measured are still recorded when they complete.
+     */
+    public void reset() {
+        mExpandLatency.reset();
+        mCollapseLatency.reset();
+        mDragLatency.reset();
+        mDockDroppedFrames.reset();
+        mTotalDockFrameCount = 0;
+        mTotalDockDroppedFrameCount = 0;
+        if (null != mWindowViewController) {
+            mAddViewCountAtReset = mWindowViewController.getAddViewCount();
+            mUpdateViewLayoutCountAtReset = mWindowViewController.getUpdateViewLayoutCount();
+            mRemoveViewCountAtReset = mWindowViewController.getRemoveViewCount();
+        }
+        if (null != mTouchController) {
+            mTouchViewCreateCountAtReset = mTouchController.getTouchViewPoolMisses();
+            mTouchViewDestroyCountAtReset = mTouchController.getTouchViewDestroyCount();
+        }
+    }
+
+    /**
+     * Told about every sample that {@link HoverMetrics} records.
+     */
+    public interface Listener {
+        /**
+         * @param metrics the metrics that recorded the sample, e.g., to read the counts
+         * @param metric  what the sample measures
+         * @param value   the sample: milliseconds for latencies, frames for dropped frames
+         */
+        void onMetricRecorded(@NonNull HoverMetrics metrics, @Metric int metric, long value);
+    }
+
+    /**
+     * Time source of {@link HoverMetrics}, in the {@code SystemClock.uptimeMillis()} time base.
+     */
+    interface Clock {
+        long uptimeMillis();
+    }
+
+    /**
+     * Distribution of samples over fixed buckets.  Each bucket holds the samples up to and including
+     * its upper bound that are above the previous bucket's bound; the last bucket holds everything
+     * above the highest bound.
+     */
+    public static final class Histogram {
+        private final long[] mUpperBounds;
+        private final long[] mBucketSampleCounts;
+        private long mSampleCount;
+        private long mSum;
+        private long mMax;
+
+        /**
+         * @param upperBounds the inclusive upper bound of every bucket but the last, in ascending order
+         */
+        Histogram(@NonNull long[] upperBounds) {
+            for (int i = 1; i < upperBounds.length; ++i) {
+                if (upperBounds[i] <= upperBounds[i - 1]) {
+                    throw new IllegalArgumentException("Bucket bounds must be ascending: " + Arrays.toString(upperBounds));
+                }
+            }
+            mUpperBounds = upperBounds.clone();
+            mBucketSampleCounts = new long[upperBounds.length + 1];
+        }
+
+        /**
+         * Adds a sample.  Negative samples, e.g., from a clock that went backwards, count as 0.
+         */
+        void record(long value) {
+            long sample = Math.max(0, value);
+            int bucket = 0;
+            while (bucket < mUpperBounds.length && sample > mUpperBounds[bucket]) {
+                ++bucket;
+            }
+            ++mBucketSampleCounts[bucket];
+            ++mSampleCount;
+            mSum += sample;
+            mMax = Math.max(mMax, sample);
+        }
+
+        void reset() {
+            Arrays.fill(mBucketSampleCounts, 0);
+            mSampleCount = 0;
+            mSum = 0;
+            mMax = 0;
+        }
+
+        public int getBucketCount() {
+            return mBucketSampleCounts.length;
+        }
+
+        /**
+         * @return the inclusive upper bound of the given bucket, which is {@code Long.MAX_VALUE} for
+         * the last bucket
+         */
+        public long getBucketUpperBound(int bucket) {
+            return bucket < mUpperBounds.length ? mUpperBounds[bucket] : Long.MAX_VALUE;
+        }
+
+        public long getBucketSampleCount(int bucket) {
+            return mBucketSampleCounts[bucket];
+        }
+
+        public long getSampleCount() {
+            return mSampleCount;
+        }
+
+        public long getMax() {
+            return mMax;
+        }
+
+        /**
+         * @return the mean of all samples, or 0 if there are none
+         */
+        public double getMean() {
+            return mSampleCount > 0 ? (double) mSum / mSampleCount : 0;
+        }
+
+        /**
+         * Estimates a percentile as the upper bound of the bucket it falls into, or as the largest
+         * sample if that is lower, e.g., for the last bucket.
+         *
+         * @param percentile between 0 and 100
+         * @return the estimate, or 0 if there are no samples
+         */
+        public long getPercentile(double percentile) {
+            if (0 == mSampleCount) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(mSampleCount * percentile / 100));
+            long seen = 0;
+            for (int bucket = 0; bucket < mBucketSampleCounts.length; ++bucket) {
+                seen += mBucketSampleCounts[bucket];
+                if (seen >= rank) {
+                    return Math.min(getBucketUpperBound(bucket), mMax);
+                }
+            }
+            return mMax;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Hover's trace sections, which show up in systrace and Perfetto traces of the app.
+ * <p>
+ * A section covers a synchronous piece of work and must begin and end on the same thread, nested
+ * like method calls:
+ * <pre>
+ * HoverTrace.beginSection(TRACE_EXPAND_MENU);
+ * try {
+ *     ...
+ * } finally {
+ *     HoverTrace.endSection();
+ * }
+ * </pre>
+ * An async section spans work that takes more than one frame, e.g., an animation from its start to
+ * its end, and is identified by its name together with a cookie from {@link #newCookie()}.
+ * Sections of the same name may overlap as long as their cookies differ.
+ * <p>
+ * Section names should be constants so that tracing never builds strings.
+ * <p>
+ * By default, sections go to {@code android.os.Trace}; async sections only in debug builds of
+ * Hover, because {@code Trace} only offers them through reflection below API 29.  A {@link Sink},
+ * e.g., a {@link RecordingTraceSink}, can be set to receive all sections instead, e.g., to assert
+ * latencies in tests that run on the JVM.
+ */
+public final class HoverTrace {
+
+    @Nullable
+    private static Sink sSink;
+    private static int sNextCookie;
+
+    private HoverTrace() {
+    }
+
+    /**
+     * Sets a {@link Sink} that receives every section instead of {@code android.os.Trace}, or
+     * restores {@code android.os.Trace} for {@code null}.  Must not be called while any section is
+     * open.
+     */
+    public static void setSink(@Nullable Sink sink) {
+        sSink = sink;
+    }
+
+    /**
+     * @return a cookie for {@link #beginAsyncSection(String, int)} that is distinct from the
+     * cookies returned before
+     */
+    public static int newCookie() {
+        return ++sNextCookie;
+    }
+
+    public static void beginSection(@NonNull String name) {
+        Sink sink = sSink;
+        if (null != sink) {
+            sink.beginSection(name);
+        } else {
+            SystemTrace.beginSection(name);
+        }
+    }
+
+    /**
+     * Ends the section that was most recently begun on this thread.
+     */
+    public static void endSection() {
+        Sink sink = sSink;
+        if (null != sink) {
+            sink.endSection();
+        } else {
+            SystemTrace.endSection();
+        }
+    }
+
+    public static void beginAsyncSection(@NonNull String name, int cookie) {
+        Sink sink = sSink;
+        if (null != sink) {
+            sink.beginAsyncSection(name, cookie);
+        } else {
+            SystemTrace.beginAsyncSection(name, cookie);
+        }
+    }
+
+    public static void endAsyncSection(@NonNull String name, int cookie) {
+        Sink sink = sSink;
+        if (null != sink) {
+            sink.endAsyncSection(name, cookie);
+        } else {
+            SystemTrace.endAsyncSection(name, cookie);
+        }
+    }
+
+    /**
+     * Receives Hover's trace sections.
+     */
+    public interface Sink {
+        void beginSection(@NonNull String name);
+
+        void endSection();
+
+        void beginAsyncSection(@NonNull String name, int cookie);
+
+        void endAsyncSection(@NonNull String name, int cookie);
+    }
+}
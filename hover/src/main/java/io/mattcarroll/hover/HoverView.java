@@ -15,8 +15,10 @@
  */
 package io.mattcarroll.hover;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.graphics.Point;
 import android.os.Parcel;
@@ -24,14 +26,15 @@ import android.os.Parcelable;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.KeyEvent;
+import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.WindowManager;
 import android.widget.RelativeLayout;
 import io.mattcarroll.hover.view.InViewDragger;
 import io.mattcarroll.hover.window.InWindowDragger;
+import io.mattcarroll.hover.window.SingleWindowDragger;
 import io.mattcarroll.hover.window.WindowViewController;
 
 import java.util.Set;
@@ -52,9 +55,21 @@ public class HoverView extends RelativeLayout {
     private static final String TAG = "HoverView";
 
     private static final String PREFS_FILE = "hover";
-    private static final String SAVED_STATE_DOCK_POSITION = "_dock_position";
-    private static final String SAVED_STATE_DOCKS_SIDE = "_dock_side";
-    private static final String SAVED_STATE_SELECTED_SECTION = "_selected_section";
+
+    /**
+     * Names of the async {@link HoverTrace} sections that span each state change, from the call
+     * that requested it until the new state reports that it has taken over, e.g., from
+     * {@link #expand()} until {@link OnStateChangeListener#onExpanded()}.  A state change that is
+     * interrupted by another one ends when the other one begins.
+     */
+    public static final String TRACE_PREVIEW = "HoverView.preview";
+    public static final String TRACE_EXPAND = "HoverView.expand";
+    public static final String TRACE_COLLAPSE = "HoverView.collapse";
+    public static final String TRACE_CLOSE = "HoverView.close";
+    public static final String TRACE_HIDE = "HoverView.hide";
+    private static final String TRACE_SET_STATE = "HoverView.setState";
+    private static final String TRACE_GIVE_UP_CONTROL = "HoverViewState.giveUpControl";
+    private static final String TRACE_TAKE_CONTROL = "HoverViewState.takeControl";
 
     @NonNull
     public static HoverView createForWindow(@NonNull Context context,
@@ -66,14 +81,34 @@ public class HoverView extends RelativeLayout {
     public static HoverView createForWindow(@NonNull Context context,
                                             @NonNull WindowViewController windowViewController,
                                             @Nullable SideDock.SidePosition initialDockPosition) {
-        Dragger dragger = createWindowDragger(context, windowViewController);
+        return createForWindow(context, windowViewController, initialDockPosition, false);
+    }
+
+    /**
+     * @param useSingleTouchWindow true to route all touches through one overlay window (see
+     *                             {@link SingleWindowDragger}) instead of one window per touchable view
+     */
+    @NonNull
+    public static HoverView createForWindow(@NonNull Context context,
+                                            @NonNull WindowViewController windowViewController,
+                                            @Nullable SideDock.SidePosition initialDockPosition,
+                                            boolean useSingleTouchWindow) {
+        Dragger dragger = createWindowDragger(context, windowViewController, useSingleTouchWindow);
         return new HoverView(context, dragger, windowViewController, initialDockPosition);
     }
 
     @NonNull
     private static Dragger createWindowDragger(@NonNull Context context,
-                                               @NonNull WindowViewController windowViewController) {
+                                               @NonNull WindowViewController windowViewController,
+                                               boolean useSingleTouchWindow) {
         int slop = ViewConfiguration.get(context).getScaledTouchSlop();
+        if (useSingleTouchWindow) {
+            return new SingleWindowDragger(
+                    context,
+                    windowViewController,
+                    slop
+            );
+        }
         return new InWindowDragger(
                 context,
                 windowViewController,
@@ -89,7 +124,7 @@ public class HoverView extends RelativeLayout {
     private final HoverViewState mClosed = new HoverViewStateClosed();
     private final HoverViewState mCollapsed = new HoverViewStateCollapsed();
     private final HoverViewState mPreviewed = new HoverViewStatePreviewed();
-    private final HoverViewState mExpanded = new HoverViewStateExpanded();
+    private final HoverViewStateExpanded mExpanded = new HoverViewStateExpanded();
     private final HoverViewState mHidden = new HoverViewStateHidden();
     final WindowViewController mWindowViewController;
     final Dragger mDragger;
@@ -102,12 +137,45 @@ public class HoverView extends RelativeLayout {
     boolean mIsAddedToWindow;
     boolean mIsTouchableInWindow;
     boolean mIsDebugMode = false;
+    private boolean mIsTabRowVirtualized = false;
+    private VisualStateStore mVisualStateStore;
+    // Visual state is written to storage when the app's UI goes to the background.
+    private final ComponentCallbacks2 mTrimMemoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            if (level >= TRIM_MEMORY_UI_HIDDEN) {
+                flushVisualState();
+            }
+        }
+
+        @Override
+        public void onConfigurationChanged(Configuration newConfig) {
+        }
+
+        @Override
+        public void onLowMemory() {
+            flushVisualState();
+        }
+    };
     int mTabSize;
     private PositionDock mPositionToHide;
     OnExitListener mOnExitListener;
     private final Set<OnStateChangeListener> mOnStateChangeListeners = new CopyOnWriteArraySet<>();
     private final Set<OnFloatingTabInteractionListener> mOnFloatingTabInteractionListeners = new CopyOnWriteArraySet<>();
+    private final Set<OnAnimationFrameListener> mOnAnimationFrameListeners = new CopyOnWriteArraySet<>();
+    private final HoverAnimationScheduler.FrameListener mAnimationFrameListener = new HoverAnimationScheduler.FrameListener() {
+        @Override
+        public void onFrame(long frameTimeMillis, long frameIntervalMillis, int droppedFrameCount) {
+            for (OnAnimationFrameListener listener : mOnAnimationFrameListeners) {
+                listener.onAnimationFrame(frameTimeMillis, frameIntervalMillis, droppedFrameCount);
+            }
+        }
+    };
     private HoverViewIdleAction mIdleAction;
+    @Nullable
+    private String mStateChangeTraceSection;
+    private int mStateChangeTraceCookie;
+    private final HoverMetrics mMetrics = new HoverMetrics();
 
     // Public for use with XML inflation. Clients should use static methods for construction.
     public HoverView(@NonNull Context context, @Nullable AttributeSet attrs) {
@@ -176,6 +244,10 @@ public class HoverView extends RelativeLayout {
     }
 
     private void init() {
+        mMetrics.setWindowViewController(mWindowViewController);
+        mMetrics.setTouchController(mDragger);
+        mDragger.setMetrics(mMetrics);
+        mScreen.setMetrics(mMetrics);
         mTabSize = getResources().getDimensionPixelSize(R.dimen.hover_tab_size);
         restoreVisualState();
         setFocusableInTouchMode(true); // For handling hardware back button presses.
@@ -200,6 +272,22 @@ public class HoverView extends RelativeLayout {
         return super.dispatchKeyEventPreIme(event);
     }
 
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent event) {
+        if (mState == mExpanded && mExpanded.onInterceptTouchEvent(event)) {
+            return true;
+        }
+        return super.onInterceptTouchEvent(event);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (mState == mExpanded && mExpanded.onTouchEvent(event)) {
+            return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
     @Override
     protected Parcelable onSaveInstanceState() {
         Parcelable superState = super.onSaveInstanceState();
@@ -216,31 +304,166 @@ public class HoverView extends RelativeLayout {
         visualState.restore(this);
     }
 
+    /**
+     * Records the collapsed dock position and the selected {@code Section} of the current menu.
+     * The state is kept in memory and written to storage by {@link #flushVisualState()}, which
+     * happens automatically when this {@code HoverView} leaves its window or the app's UI is hidden.
+     */
     public void saveVisualState() {
         if (null == mMenu) {
             // Nothing to save.
             return;
         }
 
-        SharedPreferences prefs = getContext().getSharedPreferences(PREFS_FILE, Context.MODE_PRIVATE);
-        PersistentState persistentState = new PersistentState(prefs);
-        persistentState.save(mMenu, mCollapsedDock.sidePosition(), mSelectedSectionId);
+        SideDock.SidePosition sidePosition = mCollapsedDock.sidePosition();
+        boolean hasChanged = getVisualStateStore().put(
+                mMenu.getId(),
+                sidePosition.getSide(),
+                sidePosition.getVerticalDockPositionPercentage(),
+                null != mSelectedSectionId ? mSelectedSectionId.toString() : null
+        );
+        if (HoverLog.ENABLED && hasChanged) {
+            HoverLog.d(TAG, "saveVisualState(). Position: "
+                    + sidePosition.getVerticalDockPositionPercentage()
+                    + ", Side: " + sidePosition.getSide()
+                    + ", Section ID: " + mSelectedSectionId);
+        }
+    }
+
+    /**
+     * Writes visual state that changed since the last flush to the {@link VisualStateStorage}.
+     */
+    public void flushVisualState() {
+        if (null != mVisualStateStore) {
+            mVisualStateStore.flush();
+        }
+    }
+
+    /**
+     * Replaces where visual state is saved, which by default is {@code SharedPreferences}.  Call
+     * this before setting a menu, so that the menu's state is restored from {@code storage}.
+     * Unflushed state is first written to the previous storage.
+     */
+    public void setVisualStateStorage(@NonNull VisualStateStorage storage) {
+        flushVisualState();
+        mVisualStateStore = new VisualStateStore(storage);
+    }
+
+    @NonNull
+    private VisualStateStore getVisualStateStore() {
+        if (null == mVisualStateStore) {
+            SharedPreferences prefs = getContext().getSharedPreferences(PREFS_FILE, Context.MODE_PRIVATE);
+            SharedPreferencesVisualStateStorage storage = new SharedPreferencesVisualStateStorage(prefs);
+            final VisualStateStore store = new VisualStateStore(storage);
+            storage.setOnExternalChangeListener(new SharedPreferencesVisualStateStorage.OnExternalChangeListener() {
+                @Override
+                public void onExternalChange(@Nullable String menuId) {
+                    if (null != menuId) {
+                        store.invalidate(menuId);
+                    } else {
+                        store.invalidateAll();
+                    }
+                }
+            });
+            mVisualStateStore = store;
+        }
+        return mVisualStateStore;
     }
 
     void restoreVisualState() {
         if (null == mMenu) {
-            Log.d(TAG, "Tried to restore visual state but no menu set.");
+            HoverLog.d(TAG, "Tried to restore visual state but no menu set.");
             return;
         }
 
-        SharedPreferences prefs = getContext().getSharedPreferences(PREFS_FILE, Context.MODE_PRIVATE);
-        PersistentState persistentState = new PersistentState(prefs);
-        persistentState.restore(this, mMenu);
+        VisualStateStorage.MenuState state = getVisualStateStore().get(mMenu.getId());
+        SideDock.SidePosition sidePosition;
+        if (null != state) {
+            sidePosition = new SideDock.SidePosition(state.getDockSide(), state.getDockPosition());
+        } else if (null != mInitialDockPosition) {
+            sidePosition = mInitialDockPosition;
+        } else {
+            sidePosition = new SideDock.SidePosition(RIGHT, 0.6f);
+        }
+        mCollapsedDock = new SideDock(this, mTabSize, sidePosition);
+        mSelectedSectionId = null != state && null != state.getSelectedSectionId()
+                ? new HoverMenu.SectionId(state.getSelectedSectionId())
+                : null;
+
+        if (HoverLog.ENABLED) {
+            HoverLog.d(TAG, "Restoring visual state. Position: "
+                    + sidePosition.getVerticalDockPositionPercentage()
+                    + ", Side: " + sidePosition
+                    + ", Section ID: " + mSelectedSectionId);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getContext().getApplicationContext().registerComponentCallbacks(mTrimMemoryCallbacks);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        getContext().getApplicationContext().unregisterComponentCallbacks(mTrimMemoryCallbacks);
+        flushVisualState();
     }
 
     public void release() {
-        Log.d(TAG, "Released.");
-        mDragger.deactivate();
+        HoverLog.d(TAG, "Released.");
+        flushVisualState();
+        mDragger.release();
+        mScreen.getContentDisplay().evictAllContent();
+    }
+
+    /**
+     * Sets how many {@link Content}s created by {@link ContentFactory}s stay cached, including the
+     * one on display.  Defaults to 3.
+     */
+    public void setContentCacheSize(int maxSize) {
+        mScreen.getContentDisplay().setContentCacheSize(maxSize);
+    }
+
+    public int getContentCacheSize() {
+        return mScreen.getContentDisplay().getContentCacheSize();
+    }
+
+    /**
+     * @return how often a {@link ContentFactory} {@code Section} was selected and its
+     * {@link Content} was still cached
+     */
+    public int getContentCacheHitCount() {
+        return mScreen.getContentDisplay().getContentCacheHitCount();
+    }
+
+    /**
+     * @return how often a {@link ContentFactory} had to create {@link Content}
+     */
+    public int getContentCacheMissCount() {
+        return mScreen.getContentDisplay().getContentCacheMissCount();
+    }
+
+    /**
+     * @return how often cached {@link Content} made room for other {@code Content}, including when
+     * the cache was shrunk
+     */
+    public int getContentCacheEvictionCount() {
+        return mScreen.getContentDisplay().getContentCacheEvictionCount();
+    }
+
+    /**
+     * Only creates {@link FloatingTab}s for the expanded Sections that are on screen, plus the
+     * selected one, and lets the user scroll the tab row horizontally.  Use this for menus with
+     * more Sections than fit across the screen.  Takes effect the next time the menu expands.
+     */
+    public void setTabRowVirtualized(boolean isVirtualized) {
+        mIsTabRowVirtualized = isVirtualized;
+    }
+
+    public boolean isTabRowVirtualized() {
+        return mIsTabRowVirtualized;
     }
 
     public void enableDebugMode(boolean debugMode) {
@@ -263,13 +486,62 @@ public class HoverView extends RelativeLayout {
         return mPositionToHide;
     }
 
-    void setState(@NonNull HoverViewState newState, Runnable onStateChanged) {
+    void setState(@NonNull final HoverViewState newState, @NonNull String traceSection, final Runnable onStateChanged) {
         if (mState != newState) {
-            if (mState != null) {
-                mState.giveUpControl(newState);
+            HoverTrace.beginSection(TRACE_SET_STATE);
+            try {
+                endStateChangeTrace();
+                final long stateChangeStartMillis = mMetrics.uptimeMillis();
+                final int traceCookie = HoverTrace.newCookie();
+                mStateChangeTraceSection = traceSection;
+                mStateChangeTraceCookie = traceCookie;
+                HoverTrace.beginAsyncSection(traceSection, traceCookie);
+
+                if (mState != null) {
+                    HoverTrace.beginSection(TRACE_GIVE_UP_CONTROL);
+                    try {
+                        mState.giveUpControl(newState);
+                    } finally {
+                        HoverTrace.endSection();
+                    }
+                }
+                mState = newState;
+                HoverTrace.beginSection(TRACE_TAKE_CONTROL);
+                try {
+                    mState.takeControl(this, new Runnable() {
+                        @Override
+                        public void run() {
+                            // Only the current state change is ended and measured, once; a stale callback of
+                            // an interrupted one is ignored.
+                            if (traceCookie == mStateChangeTraceCookie && null != mStateChangeTraceSection) {
+                                endStateChangeTrace();
+                                recordStateChange(newState, stateChangeStartMillis);
+                            }
+                            onStateChanged.run();
+                        }
+                    });
+                } finally {
+                    HoverTrace.endSection();
+                }
+            } finally {
+                HoverTrace.endSection();
             }
-            mState = newState;
-            mState.takeControl(this, onStateChanged);
+        }
+    }
+
+    // Only expansion and collapse are measured.
+    private void recordStateChange(@NonNull HoverViewState state, long startMillis) {
+        if (state == mExpanded) {
+            mMetrics.onStateChanged(HoverMetrics.METRIC_EXPAND_LATENCY, startMillis);
+        } else if (state == mCollapsed) {
+            mMetrics.onStateChanged(HoverMetrics.METRIC_COLLAPSE_LATENCY, startMillis);
+        }
+    }
+
+    private void endStateChangeTrace() {
+        if (null != mStateChangeTraceSection) {
+            HoverTrace.endAsyncSection(mStateChangeTraceSection, mStateChangeTraceCookie);
+            mStateChangeTraceSection = null;
         }
     }
 
@@ -305,7 +577,7 @@ public class HoverView extends RelativeLayout {
     }
 
     public void preview() {
-        setState(mPreviewed, new Runnable() {
+        setState(mPreviewed, TRACE_PREVIEW, new Runnable() {
             @Override
             public void run() {
                 for (OnStateChangeListener onStateChangeListener : mOnStateChangeListeners) {
@@ -316,7 +588,7 @@ public class HoverView extends RelativeLayout {
     }
 
     public void expand() {
-        setState(mExpanded, new Runnable() {
+        setState(mExpanded, TRACE_EXPAND, new Runnable() {
             @Override
             public void run() {
                 for (OnStateChangeListener onStateChangeListener : mOnStateChangeListeners) {
@@ -327,7 +599,7 @@ public class HoverView extends RelativeLayout {
     }
 
     public void collapse() {
-        setState(mCollapsed, new Runnable() {
+        setState(mCollapsed, TRACE_COLLAPSE, new Runnable() {
             @Override
             public void run() {
                 for (OnStateChangeListener onStateChangeListener : mOnStateChangeListeners) {
@@ -338,7 +610,7 @@ public class HoverView extends RelativeLayout {
     }
 
     public void close() {
-        setState(mClosed, new Runnable() {
+        setState(mClosed, TRACE_CLOSE, new Runnable() {
             @Override
             public void run() {
                 for (OnStateChangeListener onStateChangeListener : mOnStateChangeListeners) {
@@ -349,7 +621,7 @@ public class HoverView extends RelativeLayout {
     }
 
     public void hide() {
-        setState(mHidden, new Runnable() {
+        setState(mHidden, TRACE_HIDE, new Runnable() {
             @Override
             public void run() {
                 for (OnStateChangeListener onStateChangeListener : mOnStateChangeListeners) {
@@ -379,6 +651,41 @@ public class HoverView extends RelativeLayout {
         mOnStateChangeListeners.remove(onStateChangeListener);
     }
 
+    /**
+     * Observes every frame in which Hover animations run, e.g., to measure dropped frames.
+     */
+    public void addOnAnimationFrameListener(@NonNull OnAnimationFrameListener onAnimationFrameListener) {
+        mOnAnimationFrameListeners.add(onAnimationFrameListener);
+        HoverAnimationScheduler.getInstance().addFrameListener(mAnimationFrameListener);
+    }
+
+    public void removeOnAnimationFrameListener(@NonNull OnAnimationFrameListener onAnimationFrameListener) {
+        mOnAnimationFrameListeners.remove(onAnimationFrameListener);
+        if (mOnAnimationFrameListeners.isEmpty()) {
+            HoverAnimationScheduler.getInstance().removeFrameListener(mAnimationFrameListener);
+        }
+    }
+
+    /**
+     * @return the performance metrics of this {@code HoverView}, e.g., to report them periodically
+     */
+    @NonNull
+    public HoverMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Tells {@code listener} about every sample that this {@code HoverView}'s {@link HoverMetrics}
+     * record, e.g., to report slow expansions as they happen.
+     */
+    public void addMetricsListener(@NonNull HoverMetrics.Listener listener) {
+        mMetrics.addListener(listener);
+    }
+
+    public void removeMetricsListener(@NonNull HoverMetrics.Listener listener) {
+        mMetrics.removeListener(listener);
+    }
+
     public void addOnFloatingTabInteractionListener(@NonNull OnFloatingTabInteractionListener onFloatingTabInteractionListener) {
         mOnFloatingTabInteractionListeners.add(onFloatingTabInteractionListener);
     }
@@ -434,12 +741,16 @@ public class HoverView extends RelativeLayout {
         }
     }
 
+    /**
+     * @return the message view of the selected tab while it is shown or disappearing, otherwise
+     * null.  Message views are only created when a message is previewed.
+     */
     @Nullable
     public TabMessageView getTabMessageView() {
-        if (mScreen == null) {
+        if (mScreen == null || mSelectedSectionId == null) {
             return null;
         }
-        return mScreen.getTabMessageView(mSelectedSectionId);
+        return mScreen.findTabMessageView(mSelectedSectionId);
     }
 
     void makeTouchableInWindow() {
@@ -457,12 +768,16 @@ public class HoverView extends RelativeLayout {
     }
 
     public Point getScreenSize() {
+        final Point screenSize = new Point();
+        getScreenSize(screenSize);
+        return screenSize;
+    }
+
+    public void getScreenSize(@NonNull Point outSize) {
         if (mDragger == null) {
-            final Point screenSize = new Point();
-            ((WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay().getSize(screenSize);
-            return screenSize;
+            ((WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay().getSize(outSize);
         } else {
-            return mDragger.getContainerSize();
+            mDragger.getContainerSize(outSize);
         }
     }
 
@@ -509,8 +824,10 @@ public class HoverView extends RelativeLayout {
             setSidePosition(hoverView.mCollapsedDock.sidePosition());
             setSelectedSectionId(hoverView.mSelectedSectionId);
 
-            Log.d(TAG, "Saving instance state. Dock side: " + mSidePosition
-                    + ", Selected section: " + mSelectedSectionId);
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, "Saving instance state. Dock side: " + mSidePosition
+                        + ", Selected section: " + mSelectedSectionId);
+            }
         }
 
         private void setSidePosition(@Nullable SideDock.SidePosition sidePosition) {
@@ -530,8 +847,10 @@ public class HoverView extends RelativeLayout {
             );
 
             HoverMenu.SectionId savedSelectedSectionId = getSelectedSectionId();
-            Log.d(TAG, "Restoring instance state. Dock: " + hoverView.mCollapsedDock
-                    + ", Selected section: " + savedSelectedSectionId);
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, "Restoring instance state. Dock: " + hoverView.mCollapsedDock
+                        + ", Selected section: " + savedSelectedSectionId);
+            }
 
             // If no menu is set on this HoverMenuView then we should hold onto this saved section
             // selection in case we get a menu that has this section.  If we do have a menu set on
@@ -564,65 +883,6 @@ public class HoverView extends RelativeLayout {
         }
     }
 
-    // State of the HoverMenuView that is persisted to disk.  PersistentState is used to restore a
-    // HoverMenuView's state across different application runs.
-    @SuppressWarnings("WeakerAccess")
-    private static class PersistentState {
-
-        private final SharedPreferences mPrefs;
-
-        PersistentState(@NonNull SharedPreferences prefs) {
-            mPrefs = prefs;
-        }
-
-        public void restore(@NonNull HoverView hoverView, @NonNull HoverMenu menu) {
-            SideDock.SidePosition sidePosition = getSidePosition(menu.getId(), hoverView.mInitialDockPosition);
-            hoverView.mCollapsedDock = new SideDock(
-                    hoverView,
-                    hoverView.mTabSize,
-                    sidePosition
-            );
-
-            HoverMenu.SectionId selectedSectionId = getSelectedSectionId(menu.getId());
-            hoverView.mSelectedSectionId = selectedSectionId;
-
-            Log.d(TAG, "Restoring from PersistentState. Position: "
-                    + sidePosition.getVerticalDockPositionPercentage()
-                    + ", Side: " + sidePosition
-                    + ", Section ID: " + selectedSectionId);
-        }
-
-        private SideDock.SidePosition getSidePosition(@NonNull String menuId, @Nullable SideDock.SidePosition initialDockPosition) {
-            return new SideDock.SidePosition(
-                    mPrefs.getInt(menuId + SAVED_STATE_DOCKS_SIDE, initialDockPosition != null ? initialDockPosition.getSide() : RIGHT),
-                    mPrefs.getFloat(menuId + SAVED_STATE_DOCK_POSITION, initialDockPosition != null ? initialDockPosition.getVerticalDockPositionPercentage() : 0.6f)
-            );
-        }
-
-        private HoverMenu.SectionId getSelectedSectionId(@NonNull String menuId) {
-            return mPrefs.contains(menuId + SAVED_STATE_SELECTED_SECTION)
-                    ? new HoverMenu.SectionId(mPrefs.getString(menuId + SAVED_STATE_SELECTED_SECTION, null))
-                    : null;
-        }
-
-        public void save(@NonNull HoverMenu menu,
-                         @NonNull SideDock.SidePosition sidePosition,
-                         @Nullable HoverMenu.SectionId sectionId) {
-            String menuId = menu.getId();
-            SharedPreferences.Editor editor = mPrefs.edit();
-            editor.putFloat(menuId + SAVED_STATE_DOCK_POSITION, sidePosition.getVerticalDockPositionPercentage());
-            editor.putInt(menuId + SAVED_STATE_DOCKS_SIDE, sidePosition.getSide());
-            editor.putString(menuId + SAVED_STATE_SELECTED_SECTION, null != sectionId ? sectionId.toString() : null);
-            editor.apply();
-
-            Log.d(TAG, "saveVisualState(). Position: "
-                    + sidePosition.getVerticalDockPositionPercentage()
-                    + ", Side: " + sidePosition.getSide()
-                    + ", Section ID: " + sectionId);
-        }
-
-    }
-
     /**
      * Listener invoked when the corresponding transitions occur within a given {@link HoverView}.
      */
@@ -660,6 +920,15 @@ public class HoverView extends RelativeLayout {
         }
     }
 
+    public interface OnAnimationFrameListener {
+        /**
+         * @param frameTimeMillis     time of this frame, in the {@code SystemClock.uptimeMillis()} time base
+         * @param frameIntervalMillis time since the previous frame that ran animations
+         * @param droppedFrameCount   number of frames that should have run in between but did not
+         */
+        void onAnimationFrame(long frameTimeMillis, long frameIntervalMillis, int droppedFrameCount);
+    }
+
     public interface OnFloatingTabInteractionListener {
         void onTap(HoverViewStateType stateType);
 
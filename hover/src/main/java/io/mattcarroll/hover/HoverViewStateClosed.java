@@ -16,7 +16,6 @@
 package io.mattcarroll.hover;
 
 import androidx.annotation.NonNull;
-import android.util.Log;
 
 /**
  * {@link HoverViewState} that operates the {@link HoverView} when it is closed. Closed means that
@@ -30,7 +29,7 @@ class HoverViewStateClosed extends BaseHoverViewState {
     @Override
     public void takeControl(@NonNull HoverView hoverView, final Runnable onStateChanged) {
         super.takeControl(hoverView, onStateChanged);
-        Log.d(TAG, "Taking control.");
+        HoverLog.d(TAG, "Taking control.");
         mHoverView.makeUntouchableInWindow();
         mHoverView.clearFocus();
 
@@ -63,7 +62,7 @@ class HoverViewStateClosed extends BaseHoverViewState {
 
     @Override
     public void giveUpControl(@NonNull HoverViewState nextState) {
-        Log.d(TAG, "Giving up control.");
+        HoverLog.d(TAG, "Giving up control.");
         super.giveUpControl(nextState);
     }
 
@@ -17,14 +17,14 @@ package io.mattcarroll.hover;
 
 import android.graphics.Point;
 import android.os.Handler;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.util.Pair;
 import androidx.recyclerview.widget.ListUpdateCallback;
-import android.util.Log;
-import android.view.View;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static android.view.View.INVISIBLE;
 
@@ -44,8 +44,6 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
     private static final float MAX_TAB_VERTICAL_POSITION = 1.0f;
     private static final long DEFAULT_IDLE_MILLIS = 5000;
     private static final float POP_THROWING_SPEED_THRESHOLD = 0.3f;
-    private static final int NEGATIVE = -1;
-    private static final int POSITIVE = 1;
 
     protected FloatingTab mFloatingTab;
     protected final FloatingTabDragListener mFloatingTabDragListener = new FloatingTabDragListener(this);
@@ -55,20 +53,32 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
     private Handler mHandler = new Handler();
     private Runnable mIdleActionRunnable;
     private Runnable mOnStateChanged;
-    private GestureBlackBox mGestureBlackBox = new GestureBlackBox();
+    private final GestureVelocityTracker mVelocityTracker = new GestureVelocityTracker(
+            new GestureVelocityTracker.Clock() {
+                @Override
+                public long uptimeMillis() {
+                    return SystemClock.uptimeMillis();
+                }
+            });
+    private final Point mScreenSize = new Point();
+    private final List<Pair<? extends HoverFrameLayout, ? extends BaseTouchController.TouchListener>> mDragTargets = new ArrayList<>(1);
 
     @Override
     public void takeControl(@NonNull HoverView floatingTab, final Runnable onStateChanged) {
         super.takeControl(floatingTab, onStateChanged);
-        Log.d(TAG, "Taking control.");
+        HoverLog.d(TAG, "Taking control.");
         mOnStateChanged = onStateChanged;
         mHoverView.makeUntouchableInWindow();
         mHoverView.clearFocus(); // For handling hardware back button presses.
 
-        Log.d(TAG, "Taking control with selected section: " + mHoverView.mSelectedSectionId);
-        mSelectedSection = mHoverView.mMenu.getSection(mHoverView.mSelectedSectionId);
-        mSelectedSection = null != mSelectedSection ? mSelectedSection : mHoverView.mMenu.getSection(0);
-        mSelectedSectionIndex = mHoverView.mMenu.getSectionIndex(mSelectedSection);
+        if (HoverLog.ENABLED) {
+            HoverLog.d(TAG, "Taking control with selected section: " + mHoverView.mSelectedSectionId);
+        }
+        int selectedSectionIndex = null != mHoverView.mSelectedSectionId
+                ? mHoverView.mMenu.getSectionIndex(mHoverView.mSelectedSectionId)
+                : -1;
+        mSelectedSectionIndex = selectedSectionIndex >= 0 ? selectedSectionIndex : 0;
+        mSelectedSection = mHoverView.mMenu.getAppliedSections().get(mSelectedSectionIndex);
         mFloatingTab = mHoverView.mScreen.getChainedTab(mHoverView.mSelectedSectionId);
         final boolean wasFloatingTabVisible;
         if (null == mFloatingTab) {
@@ -117,7 +127,7 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
 
     @Override
     public void giveUpControl(@NonNull HoverViewState nextState) {
-        Log.d(TAG, "Giving up control.");
+        HoverLog.d(TAG, "Giving up control.");
         restoreHoverViewIdleAction();
 
         if (null != mHoverView.mMenu) {
@@ -145,14 +155,16 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
 
             @Override
             public void onRemoved(int position, int count) {
-                Log.d(TAG, "onRemoved. Position: " + position + ", Count: " + count);
+                if (HoverLog.ENABLED) {
+                    HoverLog.d(TAG, "onRemoved. Position: " + position + ", Count: " + count);
+                }
                 if (mSelectedSectionIndex == position) {
-                    Log.d(TAG, "Selected tab removed. Displaying a new tab.");
+                    HoverLog.d(TAG, "Selected tab removed. Displaying a new tab.");
                     // TODO: externalize a selection strategy for when the selected section disappears
                     mHoverView.mScreen.destroyChainedTab(mFloatingTab);
 
                     mSelectedSectionIndex = mSelectedSectionIndex > 0 ? mSelectedSectionIndex - 1 : 0;
-                    mSelectedSection = mHoverView.mMenu.getSection(mSelectedSectionIndex);
+                    mSelectedSection = mHoverView.mMenu.getAppliedSections().get(mSelectedSectionIndex);
                     mHoverView.mSelectedSectionId = mSelectedSection.getId();
                     mFloatingTab = mHoverView.mScreen.createChainedTab(mSelectedSection);
                 }
@@ -165,17 +177,28 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
 
             @Override
             public void onChanged(int position, int count, Object payload) {
-                Log.d(TAG, "Tab(s) changed. From: " + position + ", To: " + count);
-                for (int i = position; i < position + count; ++i) {
-                    if (i == mSelectedSectionIndex) {
-                        Log.d(TAG, "Selected tab changed. Updating its display.");
-                        mFloatingTab.setTabView(mHoverView.mMenu.getSection(position).getTabView());
-                    }
+                if (HoverLog.ENABLED) {
+                    HoverLog.d(TAG, "Tab(s) changed. From: " + position + ", To: " + count);
+                }
+                if (mSelectedSectionIndex >= position && mSelectedSectionIndex < position + count) {
+                    HoverLog.d(TAG, "Selected tab changed. Updating its display.");
+                    mSelectedSection = mHoverView.mMenu.getAppliedSections().get(mSelectedSectionIndex);
+                    onSelectedSectionChanged(HoverMenu.Section.getChanges(payload));
                 }
             }
         });
     }
 
+    /**
+     * Applies the given changes of the selected {@code Section}, which is already in
+     * {@code mSelectedSection}, to the display.
+     */
+    protected void onSelectedSectionChanged(@HoverMenu.Section.Changes int changes) {
+        if ((changes & HoverMenu.Section.CHANGE_TAB) != 0) {
+            mFloatingTab.setTabView(mSelectedSection.getTabView());
+        }
+    }
+
     @Override
     public boolean respondsToBackButton() {
         return false;
@@ -201,17 +224,18 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
             return;
         }
         mHoverView.mScreen.getExitView().hide();
-        mGestureBlackBox.addGesturePoint(mFloatingTab.getPosition());
+        Point tabPosition = mFloatingTab.getPosition();
+        mVelocityTracker.addSample(tabPosition.x, tabPosition.y);
 
 
         Point screenSize = mHoverView.getScreenSize();
-        boolean droppedOnExit = mHoverView.mScreen.getExitView().isInExitZone(mFloatingTab.getPosition(), screenSize);
+        boolean droppedOnExit = mHoverView.mScreen.getExitView().isDraggedIntoExitZone(tabPosition.x, tabPosition.y, screenSize);
         if (droppedOnExit) {
             onClose(true);
         } else {
             handleDrop(screenSize);
         }
-        mGestureBlackBox.clear();
+        mVelocityTracker.clear();
     }
 
     private void handleDrop(Point screenSize) {
@@ -220,16 +244,15 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
         final float viewHeightPercent = mFloatingTab.getHeight() / 2f / screenSize.y;
         float tabVerticalPositionPercent;
 
-        if (mGestureBlackBox.getSpeed() > POP_THROWING_SPEED_THRESHOLD) {
-            float positionY = mGestureBlackBox.getTargetYPosition();
-            tabVerticalPositionPercent = positionY / screenSize.y;
-
-            int diffPositionX = mGestureBlackBox.getDiffX();
-            if (diffPositionX > 0) {
+        if (mVelocityTracker.getSpeed() > POP_THROWING_SPEED_THRESHOLD) {
+            if (mVelocityTracker.getVelocityX() < 0) {
                 tabHorizontalPositionPercent = 0f;
             } else {
                 tabHorizontalPositionPercent = 1f;
             }
+
+            float positionY = mVelocityTracker.getTargetY((int) (tabHorizontalPositionPercent * screenSize.x));
+            tabVerticalPositionPercent = positionY / screenSize.y;
         } else {
             tabVerticalPositionPercent = (float) mFloatingTab.getPosition().y / screenSize.y;
         }
@@ -244,14 +267,16 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
             Point closeTargetPosition = new Point(
                     screenSize.x / 2 - tabSize / 2,
                     (int) (screenSize.y * tabVerticalPositionPercent) - tabSize / 2);
-            closeWithThrowingAnimation(closeTargetPosition);
+            closeWithThrowingAnimation(closeTargetPosition, getReleaseVelocityX(), getReleaseVelocityY());
         } else {
             int sideDockHorizontalPosition = SideDock.SidePosition.RIGHT;
             if (tabHorizontalPositionPercent <= 0.5) {
                 sideDockHorizontalPosition = SideDock.SidePosition.LEFT;
             }
 
-            Log.d(TAG, "Dropped at horizontal " + tabHorizontalPositionPercent + ", vertical " + tabVerticalPositionPercent);
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, "Dropped at horizontal " + tabHorizontalPositionPercent + ", vertical " + tabVerticalPositionPercent);
+            }
             SideDock.SidePosition sidePosition = new SideDock.SidePosition(
                     sideDockHorizontalPosition,
                     tabVerticalPositionPercent
@@ -262,7 +287,7 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
                     sidePosition
             );
             mHoverView.saveVisualState();
-            sendToDock();
+            sendToDock(getReleaseVelocityX(), getReleaseVelocityY());
         }
     }
 
@@ -281,27 +306,36 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
         }
 
         if (userDropped) {
-            Log.d(TAG, "User dropped floating tab on exit.");
+            HoverLog.d(TAG, "User dropped floating tab on exit.");
             if (null != mHoverView.mOnExitListener) {
                 mHoverView.mOnExitListener.onExit();
             }
         } else {
-            Log.d(TAG, "Auto dropped.");
+            HoverLog.d(TAG, "Auto dropped.");
         }
         mHoverView.close();
     }
 
     protected void onTap() {
-        Log.d(TAG, "Floating tab was tapped.");
+        HoverLog.d(TAG, "Floating tab was tapped.");
         if (mHoverView != null) {
             mHoverView.notifyOnTap(this);
         }
     }
 
-    private void closeWithThrowingAnimation(Point targetPoint) {
-        Log.d(TAG, "closeWithThrowingAnimation");
+    // Release velocities in pixels per second, as expected by FloatingTab's springs.
+    private float getReleaseVelocityX() {
+        return mVelocityTracker.getVelocityX() * 1000;
+    }
+
+    private float getReleaseVelocityY() {
+        return mVelocityTracker.getVelocityY() * 1000;
+    }
+
+    private void closeWithThrowingAnimation(Point targetPoint, float velocityX, float velocityY) {
+        HoverLog.d(TAG, "closeWithThrowingAnimation");
         deactivateDragger();
-        mFloatingTab.closeAnimation(targetPoint, new Runnable() {
+        mFloatingTab.closeAnimation(targetPoint, velocityX, velocityY, new Runnable() {
             @Override
             public void run() {
                 activateDragger();
@@ -311,10 +345,14 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
     }
 
     private void sendToDock() {
-        Log.d(TAG, "Sending floating tab to dock.");
+        sendToDock(0, 0);
+    }
+
+    private void sendToDock(float velocityX, float velocityY) {
+        HoverLog.d(TAG, "Sending floating tab to dock.");
         deactivateDragger();
         mFloatingTab.setDock(mHoverView.mCollapsedDock);
-        mFloatingTab.dock(new Runnable() {
+        mFloatingTab.dock(velocityX, velocityY, new Runnable() {
             @Override
             public void run() {
                 if (!hasControl()) {
@@ -326,7 +364,7 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
     }
 
     private void moveToDock() {
-        Log.d(TAG, "Moving floating tag to dock.");
+        HoverLog.d(TAG, "Moving floating tag to dock.");
         Point dockPosition = mHoverView.mCollapsedDock.sidePosition().calculateDockPosition(
                 mHoverView.getScreenSize(),
                 mFloatingTab.getTabSize()
@@ -346,7 +384,7 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
     }
 
     protected void onDocked() {
-        Log.d(TAG, "Docked. Activating dragger.");
+        HoverLog.d(TAG, "Docked. Activating dragger.");
         if (!hasControl() || !mHoverView.mIsAddedToWindow) {
             return;
         }
@@ -365,21 +403,26 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
         mHoverView.notifyOnDocked(this);
     }
 
-    void moveFloatingTabTo(View floatingTab, @NonNull Point position) {
-        if (mHoverView.mScreen.getExitView().isInExitZone(position, mHoverView.getScreenSize())) {
+    // Runs for every drag sample, so it works with primitives and reused objects only.
+    void moveFloatingTabTo(int x, int y) {
+        mHoverView.getScreenSize(mScreenSize);
+        if (mHoverView.mScreen.getExitView().isDraggedIntoExitZone(x, y, mScreenSize)) {
             mHoverView.mScreen.getExitView().showEnterAnimation();
         } else {
             mHoverView.mScreen.getExitView().showExitAnimation();
         }
-        mFloatingTab.moveCenterTo(position);
-        mGestureBlackBox.addGesturePoint(position);
+        mFloatingTab.dragCenterTo(x, y);
+        mVelocityTracker.addSample(x, y);
     }
 
     protected void activateDragger() {
         if (mHoverView != null && mHoverView.mDragger != null) {
-            ArrayList<Pair<? extends HoverFrameLayout, ? extends BaseTouchController.TouchListener>> list = new ArrayList<>();
-            list.add(new Pair<>(mFloatingTab, mFloatingTabDragListener));
-            mHoverView.mDragger.activate(list);
+            // Docking re-activates the dragger after every drop, so only rebuild the list when the tab changes.
+            if (mDragTargets.isEmpty() || mDragTargets.get(0).first != mFloatingTab) {
+                mDragTargets.clear();
+                mDragTargets.add(new Pair<>(mFloatingTab, mFloatingTabDragListener));
+            }
+            mHoverView.mDragger.activate(mDragTargets);
         }
     }
 
@@ -439,7 +482,7 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
 
         @Override
         public void onDragTo(FloatingTab floatingTab, float x, float y) {
-            mOwner.moveFloatingTabTo(floatingTab, new Point((int) x, (int) y));
+            mOwner.moveFloatingTabTo((int) x, (int) y);
         }
 
         @Override
@@ -465,121 +508,4 @@ class HoverViewStateCollapsed extends BaseHoverViewState {
         public void onTouchUp(FloatingTab floatingTab) {
         }
     }
-
-    class GestureBlackBox {
-        private final long mMaxMeasureTimeGap = 100L;
-        private final int mMaxArraySize = 100;
-        GesturePoint mFirstPoint = null;
-        GesturePoint mSecondPoint = null;
-
-        ArrayList<GesturePoint> mGesturePoints = new ArrayList<>();
-
-        private void addGesturePoint(Point point) {
-            if (mGesturePoints.size() >= mMaxArraySize) {
-                mGesturePoints.remove(0);
-            }
-            mGesturePoints.add(new GesturePoint(point, System.currentTimeMillis()));
-        }
-
-        private boolean updatePoints() {
-            if (mGesturePoints.size() < 2) {
-                return false;
-            }
-
-            mFirstPoint = mGesturePoints.get(mGesturePoints.size() - 1);
-            mSecondPoint = mGesturePoints.get(mGesturePoints.size() - 2);
-            for (int i = mGesturePoints.size() - 2; i >= 0; i--) {
-                GesturePoint tempPoint = mGesturePoints.get(i);
-                if (mFirstPoint.mPointMillis - tempPoint.mPointMillis <= mMaxMeasureTimeGap) {
-                    mSecondPoint = tempPoint;
-                } else {
-                    break;
-                }
-            }
-            return true;
-        }
-
-        private double getDistance() {
-            if (!updatePoints()) {
-                return 0;
-            }
-            return calculateDistance(mFirstPoint.mPoint, mSecondPoint.mPoint);
-        }
-
-        private int getDiffX() {
-            if (!updatePoints()) {
-                return 0;
-            }
-            return mSecondPoint.mPoint.x - mFirstPoint.mPoint.x;
-        }
-
-        private float getTargetYPosition() {
-            if (!updatePoints()) {
-                return 0;
-            }
-
-            return getTargetYPosition(mSecondPoint.mPoint, mFirstPoint.mPoint);
-        }
-
-        /**
-         * Get target Y position from 2 points
-         *
-         * @param point1 first mPoint
-         * @param point2 second mPoint
-         * @return targetPoint
-         */
-        private float getTargetYPosition(@NonNull Point point1, @NonNull Point point2) {
-            // STEP 1: get liner line equation from 2 points (ax + by = c)
-            float a = point2.y - point1.y;
-            float b = point1.x - point2.x;
-            float c = a * (point1.x) + b * (point1.y);
-
-            // STEP 2: get x direction of the line
-            int xDirection = POSITIVE;
-            if (point1.x - point2.x >= 0) {
-                xDirection = NEGATIVE;
-            }
-
-            // To avoid divide by zero exception
-            if (b == 0) {
-                b = 1;
-            }
-
-            // STEP 3: return target Y position ( y = (c - ax) / b)
-            if (xDirection == NEGATIVE) {
-                return c / b;
-            } else {
-                return (c - a * mHoverView.getScreenSize().x) / b;
-            }
-        }
-
-        private double getSpeed() {
-            if (!updatePoints()) {
-                return 0;
-            }
-            return getDistance() / (mFirstPoint.mPointMillis - mSecondPoint.mPointMillis);
-        }
-
-        private void clear() {
-            mGesturePoints.clear();
-            mFirstPoint = null;
-            mSecondPoint = null;
-        }
-
-        private double calculateDistance(@NonNull Point point1, @NonNull Point point2) {
-            return Math.sqrt(
-                    Math.pow(point2.x - point1.x, 2) + Math.pow(point2.y - point1.y, 2)
-            );
-        }
-
-        class GesturePoint {
-            private Point mPoint;
-            private long mPointMillis;
-
-            GesturePoint(Point point, long pointMillis) {
-                this.mPoint = point;
-                this.mPointMillis = pointMillis;
-            }
-        }
-    }
 }
@@ -19,8 +19,9 @@ import android.graphics.Point;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.ListUpdateCallback;
-import android.util.Log;
+import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewConfiguration;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -43,16 +44,39 @@ class HoverViewStateExpanded extends BaseHoverViewState {
     private static final int ANCHOR_TAB_Y_OFFSET_IN_PX = 100;
     private static final int TAB_SPACING_IN_PX = 200;
     private static final int TAB_APPEARANCE_DELAY_IN_MS = 100;
+    private static final int VIRTUALIZED_OVERSCAN_TAB_COUNT = 1;
+    private static final String TRACE_EXPAND_MENU = "HoverViewStateExpanded.expandMenu";
+    private static final String TRACE_CREATE_CHAINED_TABS = "HoverViewStateExpanded.createChainedTabs";
 
     private boolean mHasMenu = false;
     private FloatingTab mSelectedTab;
-    private final List<FloatingTab> mChainedTabs = new ArrayList<>();
-    private final List<TabChain> mTabChains = new ArrayList<>();
+    private final TabChainCoordinator mTabChain = new TabChainCoordinator(TAB_SPACING_IN_PX);
     private final Map<FloatingTab, HoverMenu.Section> mSections = new HashMap<>();
     private Point mDock;
-    private int mTabsToUnchainCount;
     private Runnable mOnStateChanged;
 
+    // In the virtualized tab row, only Sections near the viewport, plus the selected one, have a
+    // FloatingTab.  The others are null placeholders in mTabChain.
+    private boolean mIsVirtualized;
+    private final TabRowViewport mViewport = new TabRowViewport(VIRTUALIZED_OVERSCAN_TAB_COUNT);
+    private final List<FloatingTab> mReusableTabs = new ArrayList<>();
+    private int mTouchSlop;
+    private boolean mIsTouchInTabRow;
+    private boolean mIsScrollingTabRow;
+    private float mTouchDownX;
+    private float mTouchDownY;
+    private float mLastTouchX;
+
+    private final TabChainCoordinator.OnTabUnchainedListener mOnTabUnchainedListener = new TabChainCoordinator.OnTabUnchainedListener() {
+        @Override
+        public void onTabUnchained(@NonNull FloatingTab tab) {
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, "Destroying chained tab: " + tab);
+            }
+            mHoverView.mScreen.destroyChainedTab(tab);
+        }
+    };
+
     private final Runnable mShowTabsRunnable = new Runnable() {
         @Override
         public void run() {
@@ -63,9 +87,9 @@ class HoverViewStateExpanded extends BaseHoverViewState {
             mHoverView.mScreen.getContentDisplay().selectedTabIs(mSelectedTab);
 
             HoverMenu.Section selectedSection = null != mHoverView.mSelectedSectionId
-                    ? mHoverView.mMenu.getSection(mHoverView.mSelectedSectionId)
-                    : mHoverView.mMenu.getSection(0);
-            mHoverView.mScreen.getContentDisplay().displayContent(selectedSection.getContent());
+                    ? mHoverView.mMenu.getAppliedSection(mHoverView.mSelectedSectionId)
+                    : mHoverView.mMenu.getAppliedSections().get(0);
+            mHoverView.mScreen.getContentDisplay().displayContent(selectedSection);
             mHoverView.mScreen.getContentDisplay().setVisibility(View.VISIBLE);
             mOnStateChanged.run();
         }
@@ -74,7 +98,7 @@ class HoverViewStateExpanded extends BaseHoverViewState {
     @Override
     public void takeControl(@NonNull HoverView hoverView, Runnable onStateChanged) {
         super.takeControl(hoverView, onStateChanged);
-        Log.d(TAG, "Taking control.");
+        HoverLog.d(TAG, "Taking control.");
         mOnStateChanged = onStateChanged;
         mHoverView.makeTouchableInWindow();
         mHoverView.requestFocus(); // For handling hardware back button presses.
@@ -82,168 +106,280 @@ class HoverViewStateExpanded extends BaseHoverViewState {
                 mHoverView.getScreenSize().x - ANCHOR_TAB_X_OFFSET_IN_PX,
                 ANCHOR_TAB_Y_OFFSET_IN_PX
         );
+        mIsVirtualized = mHoverView.isTabRowVirtualized();
+        if (mIsVirtualized) {
+            mTouchSlop = ViewConfiguration.get(mHoverView.getContext()).getScaledTouchSlop();
+            mViewport.setGeometry(
+                    mDock.x,
+                    TAB_SPACING_IN_PX,
+                    mHoverView.getResources().getDimensionPixelSize(R.dimen.hover_tab_size),
+                    mHoverView.getScreenSize().x
+            );
+            mViewport.setScrollOffset(0);
+        }
+        mTabChain.setOnTabUnchainedListener(mOnTabUnchainedListener);
+        mTabChain.setAnchor(mDock.x, mDock.y);
         if (null != mHoverView.mMenu) {
-            Log.d(TAG, "Already has menu. Expanding.");
+            HoverLog.d(TAG, "Already has menu. Expanding.");
             setMenu(mHoverView.mMenu);
         }
     }
 
     private void expandMenu() {
-        // If the selected tab is not already visible then we want to dock it immediately without
-        // animation.
-        boolean dockSelectedTabImmediately = null == mHoverView.mScreen.getChainedTab(mHoverView.mSelectedSectionId);
-
-        createChainedTabs();
-        chainTabs(!dockSelectedTabImmediately);
-
-        if (dockSelectedTabImmediately) {
-            mSelectedTab.dockImmediately();
-            mHoverView.post(mShowTabsRunnable);
-        } else {
-            mSelectedTab.dock(mShowTabsRunnable);
+        HoverTrace.beginSection(TRACE_EXPAND_MENU);
+        try {
+            // If the selected tab is not already visible then we want to dock it immediately without
+            // animation.
+            boolean dockSelectedTabImmediately = null == mHoverView.mScreen.getChainedTab(mHoverView.mSelectedSectionId);
+
+            createChainedTabs();
+            chainTabs(!dockSelectedTabImmediately);
+
+            if (dockSelectedTabImmediately) {
+                mSelectedTab.dockImmediately();
+                mHoverView.post(mShowTabsRunnable);
+            } else {
+                mSelectedTab.dock(mShowTabsRunnable);
+            }
+        } finally {
+            HoverTrace.endSection();
         }
     }
 
     private void createChainedTabs() {
-        Log.d(TAG, "Creating chained tabs");
-        if (null != mHoverView.mMenu) {
-            for (int i = 0; i < mHoverView.mMenu.getSectionCount(); ++i) {
-                HoverMenu.Section section = mHoverView.mMenu.getSection(i);
-                Log.d(TAG, "Creating tab view for: " + section.getId());
-                final FloatingTab chainedTab = mHoverView.mScreen.createChainedTab(section);
-                Log.d(TAG, "Created FloatingTab for ID " + section.getId());
-
-                if (!mHoverView.mSelectedSectionId.equals(section.getId())) {
-                    chainedTab.disappearImmediate();
-                } else {
-                    mSelectedTab = chainedTab;
+        HoverTrace.beginSection(TRACE_CREATE_CHAINED_TABS);
+        try {
+            HoverLog.d(TAG, "Creating chained tabs");
+            if (null != mHoverView.mMenu) {
+                List<HoverMenu.Section> sections = mHoverView.mMenu.getAppliedSections();
+                if (mIsVirtualized) {
+                    mViewport.setTabCount(sections.size());
+                    mViewport.scrollToShow(Math.max(0, mHoverView.mMenu.getSectionIndex(mHoverView.mSelectedSectionId)));
                 }
 
-                Log.d(TAG, "Adding tabView: " + section.getTabView() + ". Its parent is: " + section.getTabView().getParent());
-                mChainedTabs.add(chainedTab);
-                mSections.put(chainedTab, section);
-                mTabChains.add(new TabChain(chainedTab, TAB_SPACING_IN_PX));
+                for (int i = 0; i < sections.size(); ++i) {
+                    HoverMenu.Section section = sections.get(i);
+                    if (mIsVirtualized
+                            && !mViewport.isMaterialized(i)
+                            && !section.getId().equals(mHoverView.mSelectedSectionId)) {
+                        mTabChain.add(null);
+                        continue;
+                    }
+
+                    if (HoverLog.ENABLED) {
+                        HoverLog.d(TAG, "Creating tab view for: " + section.getId());
+                    }
+                    final FloatingTab chainedTab = mHoverView.mScreen.createChainedTab(section);
+                    if (HoverLog.ENABLED) {
+                        HoverLog.d(TAG, "Created FloatingTab for ID " + section.getId());
+                    }
+
+                    if (!mHoverView.mSelectedSectionId.equals(section.getId())) {
+                        chainedTab.disappearImmediate();
+                    } else {
+                        mSelectedTab = chainedTab;
+                    }
 
-                chainedTab.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View v) {
-                        // TODO: is not stable and is crashing.
-                        onTabSelected(chainedTab);
+                    if (HoverLog.ENABLED) {
+                        HoverLog.d(TAG, "Adding tabView: " + section.getTabView() + ". Its parent is: " + section.getTabView().getParent());
                     }
-                });
+                    mTabChain.add(chainedTab);
+                    mSections.put(chainedTab, section);
+
+                    chainedTab.setOnClickListener(new View.OnClickListener() {
+                        @Override
+                        public void onClick(View v) {
+                            // TODO: is not stable and is crashing.
+                            onTabSelected(chainedTab);
+                        }
+                    });
+                }
             }
+        } finally {
+            HoverTrace.endSection();
         }
     }
 
     private void chainTabs(boolean animateSelectedTab) {
-        Log.d(TAG, "Chaining tabs.");
-        FloatingTab predecessorTab = mChainedTabs.get(0);
-
-        // Find the selected tab.
-        int selectedTabIndex = 0;
-        for (int i = 0; i < mChainedTabs.size(); ++i) {
-            if (mSelectedTab == mChainedTabs.get(i)) {
-                selectedTabIndex = i;
-                break;
-            }
+        HoverLog.d(TAG, "Chaining tabs.");
+        if (mIsVirtualized) {
+            mTabChain.setAnchor(mDock.x + mViewport.getScrollOffset(), mDock.y);
         }
+        int selectedTabIndex = Math.max(0, mTabChain.indexOf(mSelectedTab));
+        mTabChain.tightenStaggered(selectedTabIndex, TAB_APPEARANCE_DELAY_IN_MS, !animateSelectedTab);
+    }
 
-        for (int i = 0; i < mChainedTabs.size(); ++i) {
-            final FloatingTab chainedTab = mChainedTabs.get(i);
-            final TabChain tabChain = mTabChains.get(i);
+    /**
+     * Brings the virtualized tab row in line with the menu and the scroll position: Sections that
+     * came into range get a tab, tabs whose Sections went out of range or out of the menu are
+     * destroyed, and the rest move to their slots.
+     *
+     * @param immediate true to jump to the new positions, e.g., while the user scrolls
+     */
+    private void updateVirtualizedTabs(boolean immediate) {
+        HoverMenu menu = mHoverView.mMenu;
+        List<HoverMenu.Section> sections = menu.getAppliedSections();
+        mViewport.setTabCount(sections.size());
+
+        mReusableTabs.clear();
+        for (int i = 0; i < mTabChain.size(); ++i) {
+            if (null != mTabChain.getTab(i)) {
+                mReusableTabs.add(mTabChain.getTab(i));
+            }
+        }
+        mTabChain.clear();
+        mTabChain.setAnchor(mDock.x + mViewport.getScrollOffset(), mDock.y);
+
+        for (int i = 0; i < sections.size(); ++i) {
+            HoverMenu.Section section = sections.get(i);
+            if (!mViewport.isMaterialized(i) && !section.getId().equals(mHoverView.mSelectedSectionId)) {
+                mTabChain.add(null);
+                continue;
+            }
 
-            if (i == 0) {
-                // TODO: generalize the notion of a predecessor so that the 1st tab doesn't need
-                // TODO: to be treated in a special way.
-                tabChain.chainTo(mDock);
-                tabChain.tightenChain(!animateSelectedTab);
+            FloatingTab chainedTab = mHoverView.mScreen.getChainedTab(section.getId());
+            if (null != chainedTab && mReusableTabs.remove(chainedTab)) {
+                mTabChain.add(chainedTab);
             } else {
-                final FloatingTab currentPredecessor = predecessorTab;
-                int displayDelayInMillis = (int) (Math.abs(selectedTabIndex - i) * 100);
-                tabChain.chainTo(currentPredecessor);
-                chainedTab.postDelayed(new Runnable() {
-                    @Override
-                    public void run() {
-                        Log.d(TAG, "Chaining " + chainedTab.getTabId() + " to " + currentPredecessor.getTabId());
-                        tabChain.tightenChain();
-                    }
-                }, displayDelayInMillis);
+                chainedTab = addTab(i, section);
+                mSections.put(chainedTab, section);
+            }
+        }
+        mTabChain.tighten(immediate);
+
+        // Whatever is left has scrolled out of range or was removed from the menu.
+        for (int i = 0; i < mReusableTabs.size(); ++i) {
+            FloatingTab chainedTab = mReusableTabs.get(i);
+            HoverMenu.Section section = mSections.remove(chainedTab);
+            chainedTab.setOnClickListener(null);
+            mTabChain.cancelPendingSteps(chainedTab);
+            mHoverView.mScreen.destroyChainedTab(chainedTab);
+            if (null != section && menu.getSectionIndex(section.getId()) < 0) {
+                mHoverView.mScreen.getContentDisplay().evictContent(section.getId());
             }
+        }
+        mReusableTabs.clear();
+    }
+
+    private void onVirtualizedMenuStructureChanged(int position) {
+        int sectionCount = mHoverView.mMenu.getAppliedSections().size();
+        if (0 == sectionCount) {
+            // Nothing is left to select, so only the tabs and the displayed Content go.
+            updateVirtualizedTabs(false);
+            mSelectedTab = null;
+            ContentDisplay contentDisplay = mHoverView.mScreen.getContentDisplay();
+            contentDisplay.selectedTabIs(null);
+            contentDisplay.displayContent((Content) null);
+            return;
+        }
+
+        if (mHoverView.mMenu.getSectionIndex(mHoverView.mSelectedSectionId) < 0) {
+            // The selected Section was removed.  Select its predecessor, as removeSection() does.
+            int newSelectionIndex = Math.max(0, Math.min(position - 1, sectionCount - 1));
+            HoverMenu.Section newSelection = mHoverView.mMenu.getAppliedSections().get(newSelectionIndex);
+            mHoverView.mSelectedSectionId = newSelection.getId();
+            updateVirtualizedTabs(false);
+            selectSection(newSelection);
+        } else {
+            updateVirtualizedTabs(false);
+        }
+    }
+
+    /**
+     * Called by the {@link HoverView} before its children see a touch.  In the virtualized tab
+     * row, a horizontal drag along the row is taken over to scroll it.
+     */
+    boolean onInterceptTouchEvent(@NonNull MotionEvent event) {
+        if (!mIsVirtualized) {
+            return false;
+        }
+        trackTabRowTouch(event);
+        return mIsScrollingTabRow;
+    }
 
-            predecessorTab = chainedTab;
+    /**
+     * Called by the {@link HoverView} for touches that none of its children consumed.
+     */
+    boolean onTouchEvent(@NonNull MotionEvent event) {
+        if (!mIsVirtualized) {
+            return false;
+        }
+        trackTabRowTouch(event);
+        return mIsTouchInTabRow;
+    }
+
+    private void trackTabRowTouch(@NonNull MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                mIsTouchInTabRow = Math.abs(event.getY() - mDock.y) <= TAB_SPACING_IN_PX / 2;
+                mIsScrollingTabRow = false;
+                mTouchDownX = event.getX();
+                mTouchDownY = event.getY();
+                mLastTouchX = mTouchDownX;
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (!mIsTouchInTabRow) {
+                    break;
+                }
+                if (!mIsScrollingTabRow) {
+                    float dx = event.getX() - mTouchDownX;
+                    float dy = event.getY() - mTouchDownY;
+                    if (Math.abs(dx) > mTouchSlop && Math.abs(dx) > Math.abs(dy)) {
+                        mIsScrollingTabRow = true;
+                        mLastTouchX = event.getX();
+                    }
+                } else {
+                    int dx = (int) (event.getX() - mLastTouchX);
+                    if (dx != 0) {
+                        mLastTouchX += dx;
+                        if (mViewport.scrollBy(dx) != 0) {
+                            updateVirtualizedTabs(true);
+                        }
+                    }
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                mIsTouchInTabRow = false;
+                mIsScrollingTabRow = false;
+                break;
+            default:
+                break;
         }
     }
 
     @Override
     public void giveUpControl(@NonNull final HoverViewState nextState) {
-        Log.d(TAG, "Giving up control.");
+        HoverLog.d(TAG, "Giving up control.");
         if (null != mHoverView.mMenu) {
             mHoverView.mMenu.setUpdatedCallback(null);
         }
         mHasMenu = false;
         mHoverView.mScreen.getContentDisplay().selectedTabIs(null);
-        mHoverView.mScreen.getContentDisplay().displayContent(null);
+        mHoverView.mScreen.getContentDisplay().displayContent((Content) null);
         mHoverView.mScreen.getContentDisplay().setVisibility(View.GONE);
         mHoverView.mScreen.getShadeView().hide();
-        unchainTabs(null);
+        unchainTabs();
         super.giveUpControl(nextState);
     }
 
-    private void unchainTabs(@Nullable final Runnable onUnChained) {
-        int selectedTabIndex = 0;
-        for (int i = 0; i < mChainedTabs.size(); ++i) {
-            if (mSelectedTab == mChainedTabs.get(i)) {
-                selectedTabIndex = i;
-                break;
-            }
-        }
-
-        int unchainCompletionTime = 0;
-        mTabsToUnchainCount = mChainedTabs.size() - 1; // -1 for selected tab
-        for (int i = 0; i < mChainedTabs.size(); ++i) {
-            final FloatingTab chainedTab = mChainedTabs.get(i);
-            final TabChain tabChain = mTabChains.get(i);
-
-            if (mSelectedTab != chainedTab) {
-                int displayDelayInMillis = Math.abs(selectedTabIndex - i) * TAB_APPEARANCE_DELAY_IN_MS;
-                unchainCompletionTime = Math.max(unchainCompletionTime, displayDelayInMillis);
-                Log.d(TAG, "Queue'ing chained tab disappearance with delay: " + displayDelayInMillis);
-                chainedTab.postDelayed(new Runnable() {
-                    @Override
-                    public void run() {
-                        tabChain.unchain(new Runnable() {
-                            @Override
-                            public void run() {
-                                Log.d(TAG, "Destroying chained tab: " + chainedTab);
-                                mHoverView.mScreen.destroyChainedTab(chainedTab);
-
-                                --mTabsToUnchainCount;
-                                if (0 == mTabsToUnchainCount && null != onUnChained) {
-                                    onUnChained.run();
-                                }
-                            }
-                        });
-                    }
-                }, displayDelayInMillis);
-            }
-        }
-
-        mChainedTabs.clear();
-        mTabChains.clear();
-
-        // If there was only 1 tab, run onUnChained callback now.
-        if (0 == mTabsToUnchainCount && null != onUnChained) {
-            onUnChained.run();
-        }
+    private void unchainTabs() {
+        mTabChain.unchainStaggered(mSelectedTab, TAB_APPEARANCE_DELAY_IN_MS);
     }
 
     @Override
     public void setMenu(@Nullable HoverMenu menu) {
-        Log.d(TAG, "Setting menu.");
+        HoverLog.d(TAG, "Setting menu.");
         mHoverView.mMenu.setUpdatedCallback(new ListUpdateCallback() {
             @Override
             public void onInserted(int position, int count) {
-                Log.d(TAG, "onInserted. Position: " + position + ", Count: " + count);
+                if (HoverLog.ENABLED) {
+                    HoverLog.d(TAG, "onInserted. Position: " + position + ", Count: " + count);
+                }
+                if (mIsVirtualized) {
+                    onVirtualizedMenuStructureChanged(position);
+                    return;
+                }
                 int[] sectionIndices = new int[count];
                 for (int i = position; i < position + count; ++i) {
                     sectionIndices[i - position] = i;
@@ -253,7 +389,13 @@ class HoverViewStateExpanded extends BaseHoverViewState {
 
             @Override
             public void onRemoved(int position, int count) {
-                Log.d(TAG, "onRemoved. Position: " + position + ", Count: " + count);
+                if (HoverLog.ENABLED) {
+                    HoverLog.d(TAG, "onRemoved. Position: " + position + ", Count: " + count);
+                }
+                if (mIsVirtualized) {
+                    onVirtualizedMenuStructureChanged(position);
+                    return;
+                }
                 int[] sectionIndices = new int[count];
                 for (int i = position; i < position + count; ++i) {
                     sectionIndices[i - position] = i;
@@ -263,26 +405,33 @@ class HoverViewStateExpanded extends BaseHoverViewState {
 
             @Override
             public void onMoved(int fromPosition, int toPosition) {
-                Log.d(TAG, "onMoved from: " + fromPosition + ", to: " + toPosition);
+                if (HoverLog.ENABLED) {
+                    HoverLog.d(TAG, "onMoved from: " + fromPosition + ", to: " + toPosition);
+                }
+                if (mIsVirtualized) {
+                    onVirtualizedMenuStructureChanged(fromPosition);
+                    return;
+                }
                 reorderSection(fromPosition, toPosition);
             }
 
             @Override
             public void onChanged(int position, int count, Object payload) {
-                Log.d(TAG, "Tab(s) changed. From: " + position + ", To: " + count);
-                int[] sectionIndices = new int[count];
+                if (HoverLog.ENABLED) {
+                    HoverLog.d(TAG, "Tab(s) changed. From: " + position + ", To: " + count);
+                }
+                int changes = HoverMenu.Section.getChanges(payload);
                 for (int i = position; i < position + count; ++i) {
-                    sectionIndices[i - position] = i;
+                    updateSection(i, changes);
                 }
-                updateSections(sectionIndices);
             }
         });
 
         if (hasControl() && !mHasMenu) {
-            Log.d(TAG, "Has control.  Received initial menu.  Expanding menu.");
+            HoverLog.d(TAG, "Has control.  Received initial menu.  Expanding menu.");
             expandMenu();
         } else if (hasControl()) {
-            Log.d(TAG, "Has control.  Already had menu.  Switching menu.");
+            HoverLog.d(TAG, "Has control.  Already had menu.  Switching menu.");
             transitionDisplayFromOldMenuToNew();
         }
         mHasMenu = true;
@@ -291,18 +440,31 @@ class HoverViewStateExpanded extends BaseHoverViewState {
     private void transitionDisplayFromOldMenuToNew() {
         // TODO: implement a generalized display update mechanism rather than have sprawling update
         // TODO: logic throughout this Class.
-        for (int i = 0; i < mHoverView.mMenu.getSectionCount(); ++i) {
-            if (i < mChainedTabs.size()) {
+        if (mIsVirtualized) {
+            // Tabs are matched to the new menu by SectionId, after which slot i holds Section i.
+            onVirtualizedMenuStructureChanged(0);
+            for (int i = 0; i < mTabChain.size(); ++i) {
+                if (null != mTabChain.getTab(i)) {
+                    mSections.put(mTabChain.getTab(i), mHoverView.mMenu.getAppliedSections().get(i));
+                    updateSection(i);
+                }
+            }
+            return;
+        }
+
+        int sectionCount = mHoverView.mMenu.getAppliedSections().size();
+        for (int i = 0; i < sectionCount; ++i) {
+            if (i < mTabChain.size()) {
                 updateSection(i);
             } else {
                 createTabsForIndices(i);
             }
         }
 
-        if (mChainedTabs.size() > mHoverView.mMenu.getSectionCount()) {
-            int[] removedSections = new int[mChainedTabs.size() - mHoverView.mMenu.getSectionCount()];
-            for (int i = mHoverView.mMenu.getSectionCount(); i < mChainedTabs.size(); ++i) {
-                removedSections[i - mHoverView.mMenu.getSectionCount()] = i;
+        if (mTabChain.size() > sectionCount) {
+            int[] removedSections = new int[mTabChain.size() - sectionCount];
+            for (int i = sectionCount; i < mTabChain.size(); ++i) {
+                removedSections[i - sectionCount] = i;
             }
             removeSections(removedSections);
         }
@@ -320,9 +482,13 @@ class HoverViewStateExpanded extends BaseHoverViewState {
 
     private void createTabsForIndices(int... sectionIndices) {
         for (int sectionIndex : sectionIndices) {
-            Log.d(TAG, "Creating tab for section at index " + sectionIndex);
-            HoverMenu.Section section = mHoverView.mMenu.getSection(sectionIndex);
-            Log.d(TAG, "Adding new tab. Section: " + sectionIndex + ", ID: " + section.getId());
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, "Creating tab for section at index " + sectionIndex);
+            }
+            HoverMenu.Section section = mHoverView.mMenu.getAppliedSections().get(sectionIndex);
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, "Adding new tab. Section: " + sectionIndex + ", ID: " + section.getId());
+            }
             FloatingTab newTab = addTab(sectionIndex, section);
             mSections.put(newTab, section);
         }
@@ -333,14 +499,8 @@ class HoverViewStateExpanded extends BaseHoverViewState {
     private FloatingTab addTab(int position, HoverMenu.Section section) {
         final FloatingTab newTab = mHoverView.mScreen.createChainedTab(section);
         newTab.disappearImmediate();
-        if (mChainedTabs.size() <= position) {
-            // This section was appended to the end.
-            mChainedTabs.add(newTab);
-            mTabChains.add(new TabChain(newTab, TAB_SPACING_IN_PX));
-        } else {
-            mChainedTabs.add(position, newTab);
-            mTabChains.add(position, new TabChain(newTab, TAB_SPACING_IN_PX));
-        }
+        // A position past the end means the section was appended.
+        mTabChain.add(Math.min(position, mTabChain.size()), newTab);
 
         newTab.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -353,41 +513,46 @@ class HoverViewStateExpanded extends BaseHoverViewState {
     }
 
     private void reorderSection(int fromPosition, int toPosition) {
-        Log.d(TAG, "Tab moved. From: " + fromPosition + ", To: " + toPosition);
-        FloatingTab chainedTab = mChainedTabs.remove(fromPosition);
-        mChainedTabs.add(toPosition, chainedTab);
-        TabChain tabChain = mTabChains.remove(fromPosition);
-        mTabChains.add(toPosition, tabChain);
+        if (HoverLog.ENABLED) {
+            HoverLog.d(TAG, "Tab moved. From: " + fromPosition + ", To: " + toPosition);
+        }
+        mTabChain.move(fromPosition, toPosition);
 
         updateChainedPositions();
     }
 
-    private void updateSections(int... sectionIndices) {
-        Log.d(TAG, "Tab(s) changed: " + Arrays.toString(sectionIndices));
-        for (int sectionIndex : sectionIndices) {
-            updateSection(sectionIndex);
-        }
+    private void updateSection(int sectionIndex) {
+        updateSection(sectionIndex, HoverMenu.Section.CHANGE_ALL);
     }
 
-    private void updateSection(int sectionIndex) {
-        HoverMenu.Section section = mHoverView.mMenu.getSection(sectionIndex);
+    // Applies only the given changes so that, e.g., a new Content does not re-attach the tab View.
+    private void updateSection(int sectionIndex, @HoverMenu.Section.Changes int changes) {
+        List<HoverMenu.Section> sections = mHoverView.mMenu.getAppliedSections();
+        HoverMenu.Section section = sectionIndex < sections.size() ? sections.get(sectionIndex) : null;
         if (null == section) {
-            Log.e(TAG, "Tried to update section " + sectionIndex + " but could not locate the corresponding Section.");
+            HoverLog.e(TAG, "Tried to update section " + sectionIndex + " but could not locate the corresponding Section.");
             return;
         }
 
-        // Update Tab View
-        FloatingTab chainedTab = mChainedTabs.get(sectionIndex);
-        chainedTab.setTabView(section.getTabView());
+        if ((changes & HoverMenu.Section.CHANGE_TAB) != 0) {
+            FloatingTab chainedTab = mTabChain.getTab(sectionIndex);
+            if (null != chainedTab) {
+                // A placeholder gets the new tab View when it is materialized.
+                chainedTab.setTabView(section.getTabView());
+            }
+        }
 
         // Update Section Content if this Section is currently selected.
-        if (mHoverView.mSelectedSectionId.equals(mHoverView.mMenu.getSection(sectionIndex).getId())) {
-            mHoverView.mScreen.getContentDisplay().displayContent(section.getContent());
+        if ((changes & HoverMenu.Section.CHANGE_CONTENT) != 0
+                && mHoverView.mSelectedSectionId.equals(section.getId())) {
+            mHoverView.mScreen.getContentDisplay().displayContent(section);
         }
     }
 
     private void removeSections(int... sectionIndices) {
-        Log.d(TAG, "Tab(s) removed: " + Arrays.toString(sectionIndices));
+        if (HoverLog.ENABLED) {
+            HoverLog.d(TAG, "Tab(s) removed: " + Arrays.toString(sectionIndices));
+        }
         // Sort the indices so that they appear from lowest to highest.  Then process
         // in reverse order so that we don't remove sections out from under us.
         Arrays.sort(sectionIndices);
@@ -399,65 +564,56 @@ class HoverViewStateExpanded extends BaseHoverViewState {
     }
 
     private void removeSection(int sectionIndex) {
-        final FloatingTab chainedTab = mChainedTabs.remove(sectionIndex);
-        TabChain tabChain = mTabChains.remove(sectionIndex);
-        tabChain.unchain(new Runnable() {
-            @Override
-            public void run() {
-                mHoverView.mScreen.destroyChainedTab(chainedTab);
-            }
-        });
+        final FloatingTab chainedTab = mTabChain.getTab(sectionIndex);
+        mTabChain.unchain(sectionIndex);
 
         // If the removed section was the selected section then select a new section.
         HoverMenu.Section removedSection = mSections.get(chainedTab);
         if (removedSection.getId().equals(mHoverView.mSelectedSectionId)) {
+            List<HoverMenu.Section> sections = mHoverView.mMenu.getAppliedSections();
             int newSelectionIndex = 0;
-            if (sectionIndex - 1 < mHoverView.mMenu.getSectionCount() - 1) {
+            if (sectionIndex - 1 < sections.size() - 1) {
                 newSelectionIndex = sectionIndex - 1;
             } else {
-                newSelectionIndex = mHoverView.mMenu.getSectionCount() - 1;
+                newSelectionIndex = sections.size() - 1;
             }
 
-            selectSection(mHoverView.mMenu.getSection(newSelectionIndex));
+            selectSection(sections.get(newSelectionIndex));
         }
 
         // TODO: This cleanup should be centralized.
         chainedTab.setOnClickListener(null);
         mSections.remove(chainedTab);
+        mHoverView.mScreen.getContentDisplay().evictContent(removedSection.getId());
     }
 
     private void updateChainedPositions() {
-        TabChain firstChain = mTabChains.get(0);
-        firstChain.chainTo(mDock);
-        firstChain.tightenChain();
-
-        FloatingTab predecessor = mChainedTabs.get(0);
-        for (int i = 1; i < mChainedTabs.size(); ++i) {
-            FloatingTab chainedTab = mChainedTabs.get(i);
-            TabChain tabChain = mTabChains.get(i);
-            tabChain.chainTo(predecessor);
-            tabChain.tightenChain();
-            predecessor = chainedTab;
-        }
+        mTabChain.tighten(false);
     }
 
     private void onTabSelected(@NonNull FloatingTab selectedTab) {
-        Log.d(TAG, "onTabSelected(). Selected section: " + mSections.get(selectedTab).getId()
-                + ", mSelectedSectionId: " + mHoverView.mSelectedSectionId);
         HoverMenu.Section section = mSections.get(selectedTab);
+        if (HoverLog.ENABLED) {
+            HoverLog.d(TAG, "onTabSelected(). Selected section: " + section.getId()
+                    + ", mSelectedSectionId: " + mHoverView.mSelectedSectionId);
+        }
         if (!section.getId().equals(mHoverView.mSelectedSectionId)) {
-            selectSection(section);
+            selectSection(section, selectedTab);
         } else {
             mHoverView.collapse();
         }
     }
 
     private void selectSection(@NonNull HoverMenu.Section section) {
+        selectSection(section, mHoverView.mScreen.getChainedTab(section.getId()));
+    }
+
+    private void selectSection(@NonNull HoverMenu.Section section, @Nullable FloatingTab tab) {
         mHoverView.mSelectedSectionId = section.getId();
-        mSelectedTab = mHoverView.mScreen.getChainedTab(mHoverView.mSelectedSectionId);
+        mSelectedTab = tab;
         ContentDisplay contentDisplay = mHoverView.mScreen.getContentDisplay();
         contentDisplay.selectedTabIs(mSelectedTab);
-        contentDisplay.displayContent(section.getContent());
+        contentDisplay.displayContent(section);
     }
 
     @Override
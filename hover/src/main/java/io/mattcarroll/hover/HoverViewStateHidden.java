@@ -3,7 +3,6 @@ package io.mattcarroll.hover;
 import android.os.Handler;
 import android.os.Looper;
 import androidx.annotation.NonNull;
-import android.util.Log;
 import android.view.View;
 
 class HoverViewStateHidden extends BaseHoverViewState {
@@ -15,13 +14,13 @@ class HoverViewStateHidden extends BaseHoverViewState {
     @Override
     public void takeControl(@NonNull final HoverView hoverView, final Runnable onStateChanged) {
         super.takeControl(hoverView, onStateChanged);
-        Log.d(TAG, "Taking control.");
+        HoverLog.d(TAG, "Taking control.");
         mHoverView.makeUntouchableInWindow();
         mHoverView.clearFocus();
 
-        HoverMenu.Section mSelectedSection = mHoverView.mMenu.getSection(mHoverView.mSelectedSectionId);
+        HoverMenu.Section mSelectedSection = mHoverView.mMenu.getAppliedSection(mHoverView.mSelectedSectionId);
         if (mSelectedSection == null) {
-            mSelectedSection = mHoverView.mMenu.getSection(0);
+            mSelectedSection = mHoverView.mMenu.getAppliedSections().get(0);
         }
 
         mSelectedTab = mHoverView.mScreen.getChainedTab(mSelectedSection.getId());
@@ -61,7 +60,7 @@ class HoverViewStateHidden extends BaseHoverViewState {
 
     @Override
     public void giveUpControl(@NonNull HoverViewState nextState) {
-        Log.d(TAG, "Giving up control.");
+        HoverLog.d(TAG, "Giving up control.");
         mSelectedTab.setSelected(false);
         mSelectedTab.expand();
         mHoverView.setVisibility(View.VISIBLE);
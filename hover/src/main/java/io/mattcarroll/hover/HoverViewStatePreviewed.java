@@ -17,9 +17,9 @@ package io.mattcarroll.hover;
 
 import androidx.annotation.NonNull;
 import androidx.core.util.Pair;
-import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * {@link HoverViewState} that operates the {@link HoverView} when it is closed. Closed means that
@@ -32,6 +32,7 @@ class HoverViewStatePreviewed extends HoverViewStateCollapsed {
     private TabMessageView mMessageView;
     private Dragger.DragListener<TabMessageView> mDefaultMessageViewDragListener;
     private Dragger.DragListener<TabMessageView> mCustomMessageViewDragListener;
+    private final List<Pair<? extends HoverFrameLayout, ? extends BaseTouchController.TouchListener>> mDragTargets = new ArrayList<>(2);
 
     HoverViewStatePreviewed() {
         mDefaultMessageViewDragListener = new DefaultMessageViewDragListener();
@@ -40,7 +41,7 @@ class HoverViewStatePreviewed extends HoverViewStateCollapsed {
     @Override
     public void takeControl(@NonNull HoverView hoverView, final Runnable onStateChanged) {
         super.takeControl(hoverView, null);
-        Log.d(TAG, "Taking control.");
+        HoverLog.d(TAG, "Taking control.");
         mMessageView = mHoverView.mScreen.getTabMessageView(mHoverView.mSelectedSectionId);
         mMessageView.setMessageView(mSelectedSection.getTabMessageView());
         mMessageView.appear(mHoverView.mCollapsedDock, new Runnable() {
@@ -57,7 +58,7 @@ class HoverViewStatePreviewed extends HoverViewStateCollapsed {
 
     @Override
     public void giveUpControl(@NonNull final HoverViewState nextState) {
-        Log.d(TAG, "Giving up control.");
+        HoverLog.d(TAG, "Giving up control.");
         if (nextState instanceof HoverViewStateCollapsed) {
             mMessageView.disappear(true);
         } else {
@@ -76,13 +77,25 @@ class HoverViewStatePreviewed extends HoverViewStateCollapsed {
         super.onClose(userDropped);
     }
 
+    @Override
+    protected void onSelectedSectionChanged(@HoverMenu.Section.Changes int changes) {
+        super.onSelectedSectionChanged(changes);
+        if ((changes & HoverMenu.Section.CHANGE_MESSAGE) != 0 && null != mMessageView) {
+            mMessageView.setMessageView(mSelectedSection.getTabMessageView());
+        }
+    }
+
     @Override
     protected void activateDragger() {
         if (mHoverView != null && mHoverView.mDragger != null) {
-            ArrayList<Pair<? extends HoverFrameLayout, ? extends BaseTouchController.TouchListener>> list = new ArrayList<>();
-            list.add(new Pair<>(mFloatingTab, mFloatingTabDragListener));
-            list.add(new Pair<>(mMessageView, mDefaultMessageViewDragListener));
-            mHoverView.mDragger.activate(list);
+            if (mDragTargets.isEmpty()
+                    || mDragTargets.get(0).first != mFloatingTab
+                    || mDragTargets.get(1).first != mMessageView) {
+                mDragTargets.clear();
+                mDragTargets.add(new Pair<>(mFloatingTab, mFloatingTabDragListener));
+                mDragTargets.add(new Pair<>(mMessageView, mDefaultMessageViewDragListener));
+            }
+            mHoverView.mDragger.activate(mDragTargets);
         }
     }
 
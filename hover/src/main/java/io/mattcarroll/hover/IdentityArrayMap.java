@@ -0,0 +1,125 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Small map that compares keys by identity and keeps its entries in parallel arrays, in insertion
+ * order.
+ * <p>
+ * Lookups are a linear scan, which for the handful of entries that touch controllers hold is
+ * cheaper than hashing, and neither lookups nor iteration by index allocate.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+class IdentityArrayMap<K, V> {
+
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private Object[] mKeys;
+    private Object[] mValues;
+    private int mSize;
+
+    IdentityArrayMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    IdentityArrayMap(int initialCapacity) {
+        mKeys = new Object[initialCapacity];
+        mValues = new Object[initialCapacity];
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    int indexOfKey(@NonNull K key) {
+        for (int i = 0; i < mSize; ++i) {
+            if (mKeys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Nullable
+    V get(@NonNull K key) {
+        int index = indexOfKey(key);
+        return index >= 0 ? valueAt(index) : null;
+    }
+
+    /**
+     * Maps {@code key} to {@code value}.  A new key is added after all existing entries; an existing
+     * key keeps its place.
+     */
+    void put(@NonNull K key, @NonNull V value) {
+        int index = indexOfKey(key);
+        if (index >= 0) {
+            mValues[index] = value;
+            return;
+        }
+
+        if (mSize == mKeys.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, mSize * 2);
+            mKeys = Arrays.copyOf(mKeys, capacity);
+            mValues = Arrays.copyOf(mValues, capacity);
+        }
+        mKeys[mSize] = key;
+        mValues[mSize] = value;
+        ++mSize;
+    }
+
+    @Nullable
+    V remove(@NonNull K key) {
+        int index = indexOfKey(key);
+        return index >= 0 ? removeAt(index) : null;
+    }
+
+    V removeAt(int index) {
+        V value = valueAt(index);
+        System.arraycopy(mKeys, index + 1, mKeys, index, mSize - index - 1);
+        System.arraycopy(mValues, index + 1, mValues, index, mSize - index - 1);
+        --mSize;
+        mKeys[mSize] = null;
+        mValues[mSize] = null;
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    K keyAt(int index) {
+        return (K) mKeys[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    V valueAt(int index) {
+        return (V) mValues[index];
+    }
+
+    void clear() {
+        Arrays.fill(mKeys, 0, mSize, null);
+        Arrays.fill(mValues, 0, mSize, null);
+        mSize = 0;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Array-backed list of listeners for main-thread use, in the order they were added.
+ * <p>
+ * Listeners are notified by index between {@link #beginDispatch()} and {@link #endDispatch()}, so
+ * dispatching allocates no iterator:
+ * <pre>
+ * listeners.beginDispatch();
+ * try {
+ *     for (int i = 0, count = listeners.size(); i &lt; count; ++i) {
+ *         Listener listener = listeners.get(i);
+ *         if (null != listener) {
+ *             listener.onSomething();
+ *         }
+ *     }
+ * } finally {
+ *     listeners.endDispatch();
+ * }
+ * </pre>
+ * Listeners may add and remove listeners while being notified.  A listener that is removed during
+ * a dispatch leaves a {@code null} gap and is not notified again; one that is added is notified
+ * from the next dispatch on, as long as the loop reads {@link #size()} before it starts.
+ *
+ * @param <L> type of the listeners
+ */
+class ListenerList<L> {
+
+    private static final int DEFAULT_CAPACITY = 2;
+
+    private Object[] mListeners;
+    private int mSize;
+    private int mDispatchDepth;
+    private boolean mHasGaps;
+
+    ListenerList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    ListenerList(int initialCapacity) {
+        mListeners = new Object[initialCapacity];
+    }
+
+    /**
+     * @return the number of slots, which during a dispatch includes gaps left by removed listeners
+     */
+    int size() {
+        return mSize;
+    }
+
+    boolean isEmpty() {
+        for (int i = 0; i < mSize; ++i) {
+            if (null != mListeners[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the listener at {@code index}, or {@code null} if it was removed during a dispatch
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    L get(int index) {
+        return (L) mListeners[index];
+    }
+
+    boolean contains(@NonNull L listener) {
+        return indexOf(listener) >= 0;
+    }
+
+    /**
+     * Adds {@code listener} unless it was already added.
+     *
+     * @return true if {@code listener} was added
+     */
+    boolean add(@NonNull L listener) {
+        if (indexOf(listener) >= 0) {
+            return false;
+        }
+
+        if (mSize == mListeners.length) {
+            mListeners = Arrays.copyOf(mListeners, Math.max(DEFAULT_CAPACITY, mSize * 2));
+        }
+        mListeners[mSize] = listener;
+        ++mSize;
+        return true;
+    }
+
+    /**
+     * @return true if {@code listener} was found and removed
+     */
+    boolean remove(@NonNull L listener) {
+        int index = indexOf(listener);
+        if (index < 0) {
+            return false;
+        }
+
+        if (mDispatchDepth > 0) {
+            // Keep indices stable while dispatching; the gap is closed once the dispatch ends.
+            mListeners[index] = null;
+            mHasGaps = true;
+        } else {
+            System.arraycopy(mListeners, index + 1, mListeners, index, mSize - index - 1);
+            --mSize;
+            mListeners[mSize] = null;
+        }
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(mListeners, 0, mSize, null);
+        if (mDispatchDepth > 0) {
+            mHasGaps = true;
+        } else {
+            mSize = 0;
+        }
+    }
+
+    /**
+     * Marks the start of a dispatch, which may be nested in another one.
+     */
+    void beginDispatch() {
+        ++mDispatchDepth;
+    }
+
+    /**
+     * Marks the end of a dispatch.  Once the outermost dispatch ends, gaps left by removed
+     * listeners are closed.
+     */
+    void endDispatch() {
+        --mDispatchDepth;
+        if (0 == mDispatchDepth && mHasGaps) {
+            compact();
+        }
+    }
+
+    private int indexOf(@NonNull L listener) {
+        for (int i = 0; i < mSize; ++i) {
+            if (mListeners[i] == listener) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void compact() {
+        int newSize = 0;
+        for (int i = 0; i < mSize; ++i) {
+            if (null != mListeners[i]) {
+                mListeners[newSize++] = mListeners[i];
+            }
+        }
+        Arrays.fill(mListeners, newSize, mSize, null);
+        mSize = newSize;
+        mHasGaps = false;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link HoverTrace.Sink} that keeps every section in memory so that tests can assert on them,
+ * e.g., how long the last expansion took:
+ * <pre>
+ * RecordingTraceSink sink = new RecordingTraceSink();
+ * HoverTrace.setSink(sink);
+ * hoverView.expand();
+ * ...
+ * assertTrue(sink.getLastDurationMillis(HoverView.TRACE_EXPAND) &lt; 500);
+ * </pre>
+ * {@code RecordingTraceSink} only uses plain Java, so it works in tests that run on the JVM.
+ * <p>
+ * Unbalanced sections are programming errors, so ending a section that was never begun throws.
+ */
+public class RecordingTraceSink implements HoverTrace.Sink {
+
+    private static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    };
+
+    private final Clock mClock;
+    private final List<Section> mSections = new ArrayList<>();
+    private final List<Section> mOpenSections = new ArrayList<>();
+    private final List<Section> mOpenAsyncSections = new ArrayList<>();
+
+    public RecordingTraceSink() {
+        this(SYSTEM_CLOCK);
+    }
+
+    /**
+     * @param clock the time source for the sections' start and end times, e.g., a fake clock in
+     *              tests that control time
+     */
+    public RecordingTraceSink(@NonNull Clock clock) {
+        mClock = clock;
+    }
+
+    @Override
+    public synchronized void beginSection(@NonNull String name) {
+        mOpenSections.add(new Section(name, 0, mOpenSections.size(), mClock.nanoTime()));
+    }
+
+    @Override
+    public synchronized void endSection() {
+        if (mOpenSections.isEmpty()) {
+            throw new IllegalStateException("endSection() without a matching beginSection().");
+        }
+        Section section = mOpenSections.remove(mOpenSections.size() - 1);
+        section.mEndNanos = mClock.nanoTime();
+        mSections.add(section);
+    }
+
+    @Override
+    public synchronized void beginAsyncSection(@NonNull String name, int cookie) {
+        if (-1 != indexOfOpenAsyncSection(name, cookie)) {
+            throw new IllegalStateException("Async section " + name + " with cookie " + cookie + " is already open.");
+        }
+        mOpenAsyncSections.add(new Section(name, cookie, -1, mClock.nanoTime()));
+    }
+
+    @Override
+    public synchronized void endAsyncSection(@NonNull String name, int cookie) {
+        int index = indexOfOpenAsyncSection(name, cookie);
+        if (-1 == index) {
+            throw new IllegalStateException("Async section " + name + " with cookie " + cookie + " is not open.");
+        }
+        Section section = mOpenAsyncSections.remove(index);
+        section.mEndNanos = mClock.nanoTime();
+        mSections.add(section);
+    }
+
+    private int indexOfOpenAsyncSection(@NonNull String name, int cookie) {
+        for (int i = 0; i < mOpenAsyncSections.size(); ++i) {
+            Section section = mOpenAsyncSections.get(i);
+            if (section.mCookie == cookie && section.mName.equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return every ended section, in the order they ended
+     */
+    @NonNull
+    public synchronized List<Section> getSections() {
+        return new ArrayList<>(mSections);
+    }
+
+    /**
+     * @return the ended sections with the given name, in the order they ended
+     */
+    @NonNull
+    public synchronized List<Section> getSections(@NonNull String name) {
+        List<Section> sections = new ArrayList<>();
+        for (int i = 0; i < mSections.size(); ++i) {
+            if (mSections.get(i).mName.equals(name)) {
+                sections.add(mSections.get(i));
+            }
+        }
+        return sections;
+    }
+
+    public synchronized int getCount(@NonNull String name) {
+        int count = 0;
+        for (int i = 0; i < mSections.size(); ++i) {
+            if (mSections.get(i).mName.equals(name)) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the section with the given name that ended last, or null if none has ended
+     */
+    @Nullable
+    public synchronized Section getLastSection(@NonNull String name) {
+        for (int i = mSections.size() - 1; i >= 0; --i) {
+            if (mSections.get(i).mName.equals(name)) {
+                return mSections.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the duration of the section with the given name that ended last, or -1 if none has
+     * ended
+     */
+    public synchronized long getLastDurationMillis(@NonNull String name) {
+        Section section = getLastSection(name);
+        return null != section ? section.getDurationMillis() : -1;
+    }
+
+    /**
+     * @return the number of sections, synchronous and async, that have begun but not ended
+     */
+    public synchronized int getOpenSectionCount() {
+        return mOpenSections.size() + mOpenAsyncSections.size();
+    }
+
+    /**
+     * Forgets all ended sections.  Open sections are kept so that they can still end.
+     */
+    public synchronized void clear() {
+        mSections.clear();
+    }
+
+    /**
+     * Time source of a {@link RecordingTraceSink}.
+     */
+    public interface Clock {
+        long nanoTime();
+    }
+
+    /**
+     * A recorded trace section.
+     */
+    public static final class Section {
+        private final String mName;
+        private final int mCookie;
+        private final int mDepth;
+        private final long mStartNanos;
+        private long mEndNanos;
+
+        Section(@NonNull String name, int cookie, int depth, long startNanos) {
+            mName = name;
+            mCookie = cookie;
+            mDepth = depth;
+            mStartNanos = startNanos;
+        }
+
+        @NonNull
+        public String getName() {
+            return mName;
+        }
+
+        public boolean isAsync() {
+            return mDepth < 0;
+        }
+
+        /**
+         * @return the cookie of an async section, or 0 for a synchronous one
+         */
+        public int getCookie() {
+            return mCookie;
+        }
+
+        /**
+         * @return how many synchronous sections enclosed this one, or -1 for an async section
+         */
+        public int getDepth() {
+            return mDepth;
+        }
+
+        public long getStartNanos() {
+            return mStartNanos;
+        }
+
+        public long getEndNanos() {
+            return mEndNanos;
+        }
+
+        public long getDurationNanos() {
+            return mEndNanos - mStartNanos;
+        }
+
+        public long getDurationMillis() {
+            return getDurationNanos() / 1000000;
+        }
+
+        @Override
+        public String toString() {
+            return mName + (isAsync() ? " (async " + mCookie + ")" : "") + ": " + getDurationNanos() + "ns";
+        }
+    }
+}
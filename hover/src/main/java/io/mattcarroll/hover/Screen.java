@@ -17,12 +17,13 @@ package io.mattcarroll.hover;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static android.view.View.GONE;
@@ -34,6 +35,10 @@ import static android.view.View.GONE;
 class Screen {
 
     private static final String TAG = "Screen";
+    private static final String TRACE_CREATE_CHAINED_TAB = "Screen.createChainedTab";
+
+    // Enough for the tabs of a typical menu to survive a collapse and come back on the next expand.
+    private static final int MAX_RECYCLED_TABS = 10;
 
     private ViewGroup mContainer;
     private ContentDisplay mContentDisplay;
@@ -41,7 +46,14 @@ class Screen {
     private ShadeView mShadeView;
     private Map<String, FloatingTab> mTabs = new HashMap<>();
     private Map<String, TabMessageView> mTabMessageViews = new HashMap<>();
+    // Destroyed tabs, reset and kept attached but GONE for reuse, and detached message views.
+    private final List<FloatingTab> mRecycledTabs = new ArrayList<>(MAX_RECYCLED_TABS);
+    private final List<TabMessageView> mRecycledTabMessageViews = new ArrayList<>(MAX_RECYCLED_TABS);
+    private int mCreatedTabCount = 0;
+    private int mCreatedTabMessageViewCount = 0;
     private boolean mIsDebugMode = false;
+    @Nullable
+    private HoverMetrics mMetrics;
 
     Screen(@NonNull ViewGroup hoverMenuContainer) {
         mContainer = hoverMenuContainer;
@@ -67,6 +79,13 @@ class Screen {
         mContentDisplay.setVisibility(GONE);
     }
 
+    /**
+     * Sets the {@link HoverMetrics} of the tabs created from now on.
+     */
+    void setMetrics(@Nullable HoverMetrics metrics) {
+        mMetrics = metrics;
+    }
+
     public void enableDrugMode(boolean debugMode) {
         mIsDebugMode = debugMode;
 
@@ -84,24 +103,45 @@ class Screen {
 
     @NonNull
     public FloatingTab createChainedTab(@NonNull String tabId, @NonNull View tabView) {
-        Log.d(TAG, "Existing tabs...");
-        for (String existingTabId : mTabs.keySet()) {
-            Log.d(TAG, existingTabId);
+        FloatingTab chainedTab = mTabs.get(tabId);
+        if (null != chainedTab) {
+            return chainedTab;
         }
-        if (mTabs.containsKey(tabId)) {
-            return mTabs.get(tabId);
+
+        HoverTrace.beginSection(TRACE_CREATE_CHAINED_TAB);
+        try {
+            return createChainedTabNow(tabId, tabView);
+        } finally {
+            HoverTrace.endSection();
+        }
+    }
+
+    @NonNull
+    private FloatingTab createChainedTabNow(@NonNull String tabId, @NonNull View tabView) {
+        FloatingTab chainedTab;
+        if (mRecycledTabs.isEmpty()) {
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, "Creating new tab with ID: " + tabId);
+            }
+            chainedTab = new FloatingTab(mContainer.getContext(), tabId);
+            ++mCreatedTabCount;
         } else {
-            Log.d(TAG, "Creating new tab with ID: " + tabId);
-            FloatingTab chainedTab = new FloatingTab(mContainer.getContext(), tabId);
-            chainedTab.setTabView(tabView);
-            chainedTab.enableDebugMode(mIsDebugMode);
-            mTabs.put(tabId, chainedTab);
-            final TabMessageView messageView = new TabMessageView(tabView.getContext(), chainedTab);
-            mContainer.addView(messageView);
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, "Reusing a recycled tab for ID: " + tabId);
+            }
+            chainedTab = mRecycledTabs.remove(mRecycledTabs.size() - 1);
+            chainedTab.setTabId(tabId);
+        }
+        chainedTab.setTabView(tabView);
+        chainedTab.enableDebugMode(mIsDebugMode);
+        chainedTab.setMetrics(mMetrics);
+        mTabs.put(tabId, chainedTab);
+
+        // A recycled tab is still attached.
+        if (null == chainedTab.getParent()) {
             mContainer.addView(chainedTab);
-            mTabMessageViews.put(tabId, messageView);
-            return chainedTab;
         }
+        return chainedTab;
     }
 
     @Nullable
@@ -116,10 +156,39 @@ class Screen {
     }
 
     public void destroyChainedTab(@NonNull FloatingTab chainedTab) {
+        if (mTabs.get(chainedTab.getTabId()) != chainedTab) {
+            // Already destroyed, and possibly already reused for another tab.
+            return;
+        }
+
         mTabs.remove(chainedTab.getTabId());
-        mTabMessageViews.remove(chainedTab.getTabId());
-        chainedTab.setTabView(null);
-        mContainer.removeView(chainedTab);
+        chainedTab.reset();
+        if (mRecycledTabs.size() < MAX_RECYCLED_TABS) {
+            mRecycledTabs.add(chainedTab);
+        } else {
+            mContainer.removeView(chainedTab);
+        }
+
+        TabMessageView messageView = mTabMessageViews.remove(chainedTab.getTabId());
+        if (null != messageView) {
+            // Resetting also detaches it.
+            messageView.reset();
+            if (mRecycledTabMessageViews.size() < MAX_RECYCLED_TABS) {
+                mRecycledTabMessageViews.add(messageView);
+            }
+        }
+    }
+
+    /**
+     * @return how many {@code FloatingTab}s this {@code Screen} has instantiated, as opposed to
+     * reused
+     */
+    int getCreatedTabCount() {
+        return mCreatedTabCount;
+    }
+
+    int getCreatedTabMessageViewCount() {
+        return mCreatedTabMessageViewCount;
     }
 
     public ContentDisplay getContentDisplay() {
@@ -134,7 +203,82 @@ class Screen {
         return mShadeView;
     }
 
+    /**
+     * Returns the {@link TabMessageView} of the tab with the given ID, creating or reattaching it
+     * if needed.  Message views are only created for tabs that show a message, and a message view
+     * detaches itself once it has disappeared.
+     *
+     * @return the message view, or null if there is no tab with the given ID
+     */
+    @Nullable
     public TabMessageView getTabMessageView(final HoverMenu.SectionId sectionId) {
-        return mTabMessageViews.get(sectionId.toString());
+        String tabId = sectionId.toString();
+        FloatingTab chainedTab = mTabs.get(tabId);
+        if (null == chainedTab) {
+            return null;
+        }
+
+        TabMessageView messageView = mTabMessageViews.get(tabId);
+        if (null == messageView) {
+            if (mRecycledTabMessageViews.isEmpty()) {
+                if (HoverLog.ENABLED) {
+                    HoverLog.d(TAG, "Creating message view for tab with ID: " + tabId);
+                }
+                messageView = new TabMessageView(chainedTab.getContext(), chainedTab);
+                ++mCreatedTabMessageViewCount;
+            } else {
+                messageView = mRecycledTabMessageViews.remove(mRecycledTabMessageViews.size() - 1);
+                messageView.setFloatingTab(chainedTab);
+            }
+            mTabMessageViews.put(tabId, messageView);
+        }
+        if (null == messageView.getParent()) {
+            // Right below its tab, like the tab's own parts.
+            mContainer.addView(messageView, mContainer.indexOfChild(chainedTab));
+        }
+        return messageView;
+    }
+
+    /**
+     * Like {@link #getTabMessageView(HoverMenu.SectionId)}, but never creates or attaches a message
+     * view.
+     *
+     * @return the message view of the tab with the given ID if it is attached, i.e., shown or
+     * disappearing, otherwise null
+     */
+    @Nullable
+    public TabMessageView findTabMessageView(@NonNull HoverMenu.SectionId sectionId) {
+        TabMessageView messageView = mTabMessageViews.get(sectionId.toString());
+        return null != messageView && null != messageView.getParent() ? messageView : null;
+    }
+
+    /**
+     * @return the number of measure passes received by the tabs and message views currently in
+     * the container
+     */
+    int getTabMeasurePassCount() {
+        int count = 0;
+        for (int i = 0; i < mContainer.getChildCount(); ++i) {
+            View child = mContainer.getChildAt(i);
+            if (child instanceof HoverFrameLayout) {
+                count += ((HoverFrameLayout) child).getMeasurePassCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of layout passes received by the tabs and message views currently in the
+     * container
+     */
+    int getTabLayoutPassCount() {
+        int count = 0;
+        for (int i = 0; i < mContainer.getChildCount(); ++i) {
+            View child = mContainer.getChildAt(i);
+            if (child instanceof HoverFrameLayout) {
+                count += ((HoverFrameLayout) child).getLayoutPassCount();
+            }
+        }
+        return count;
     }
 }
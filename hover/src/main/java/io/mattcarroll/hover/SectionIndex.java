@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link HoverMenu.Section}s of a {@link HoverMenu} along with a map from each
+ * {@link HoverMenu.SectionId} to its index, so that Sections can be found by ID without a scan.
+ * <p>
+ * When the Sections change, only the indices from the first changed position on are rewritten,
+ * so appending or removing at the end of the menu costs the same regardless of its size.
+ */
+class SectionIndex {
+
+    private final Map<HoverMenu.SectionId, Integer> mIndices = new HashMap<>();
+    private List<HoverMenu.Section> mSections = Collections.emptyList();
+
+    @NonNull
+    List<HoverMenu.Section> getSections() {
+        return mSections;
+    }
+
+    int size() {
+        return mSections.size();
+    }
+
+    /**
+     * @return the index of the Section with the given ID, or -1 if there is none
+     */
+    int indexOf(@NonNull HoverMenu.SectionId sectionId) {
+        Integer index = mIndices.get(sectionId);
+        return null != index ? index : -1;
+    }
+
+    @Nullable
+    HoverMenu.Section get(@NonNull HoverMenu.SectionId sectionId) {
+        Integer index = mIndices.get(sectionId);
+        return null != index ? mSections.get(index) : null;
+    }
+
+    /**
+     * Replaces the indexed Sections with {@code newSections}.
+     *
+     * @param firstChangedPosition the lowest position at which a Section was inserted, removed or
+     *                             moved; all Sections before it must keep their IDs and positions
+     */
+    void update(@NonNull List<HoverMenu.Section> newSections, int firstChangedPosition) {
+        for (int i = firstChangedPosition; i < mSections.size(); ++i) {
+            mIndices.remove(mSections.get(i).getId());
+        }
+        for (int i = firstChangedPosition; i < newSections.size(); ++i) {
+            mIndices.put(newSections.get(i).getId(), i);
+        }
+        mSections = newSections;
+    }
+}
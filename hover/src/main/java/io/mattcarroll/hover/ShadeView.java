@@ -15,13 +15,12 @@
  */
 package io.mattcarroll.hover;
 
-import android.animation.Animator;
-import android.animation.ObjectAnimator;
 import android.content.Context;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
+import android.view.animation.AccelerateDecelerateInterpolator;
 import android.widget.FrameLayout;
 
 /**
@@ -31,6 +30,24 @@ import android.widget.FrameLayout;
 class ShadeView extends FrameLayout {
 
     private static final int FADE_DURATION = 250;
+    private static final String TRACE_FADE = "ShadeView.fade";
+
+    private final HoverAnimation mFadeAnimation = new HoverAnimation(FADE_DURATION, new AccelerateDecelerateInterpolator(), new HoverAnimation.Listener() {
+        @Override
+        public void onAnimationUpdate(@NonNull HoverAnimation animation, float fraction) {
+            setAlpha(mFadeStartAlpha + (mFadeTargetAlpha - mFadeStartAlpha) * fraction);
+        }
+
+        @Override
+        public void onAnimationEnd(@NonNull HoverAnimation animation, boolean isCanceled) {
+            // A fade out that was interrupted by a fade in must leave the shade visible.
+            if (!isCanceled && mFadeTargetAlpha == 0f) {
+                setVisibility(GONE);
+            }
+        }
+    });
+    private float mFadeStartAlpha;
+    private float mFadeTargetAlpha;
 
     public ShadeView(@NonNull Context context) {
         this(context, null);
@@ -43,13 +60,11 @@ class ShadeView extends FrameLayout {
 
     private void init() {
         LayoutInflater.from(getContext()).inflate(R.layout.view_shade, this, true);
+        mFadeAnimation.setTraceSection(TRACE_FADE);
     }
 
     public void show() {
-        ObjectAnimator fadeOut = ObjectAnimator.ofFloat(this, "alpha", 1.0f);
-        fadeOut.setDuration(FADE_DURATION);
-        fadeOut.start();
-
+        fadeTo(1.0f);
         setVisibility(VISIBLE);
     }
 
@@ -58,25 +73,14 @@ class ShadeView extends FrameLayout {
     }
 
     public void hide() {
-        ObjectAnimator fadeOut = ObjectAnimator.ofFloat(this, "alpha", 0.0f);
-        fadeOut.setDuration(FADE_DURATION);
-        fadeOut.start();
-
-        fadeOut.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animation) { }
-
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                setVisibility(GONE);
-            }
-
-            @Override
-            public void onAnimationCancel(Animator animation) { }
+        fadeTo(0.0f);
+    }
 
-            @Override
-            public void onAnimationRepeat(Animator animation) { }
-        });
+    private void fadeTo(float alpha) {
+        mFadeAnimation.cancel();
+        mFadeStartAlpha = getAlpha();
+        mFadeTargetAlpha = alpha;
+        mFadeAnimation.start();
     }
 
     public void hideImmediate() {
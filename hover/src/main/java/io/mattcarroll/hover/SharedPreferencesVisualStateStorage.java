@@ -0,0 +1,198 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.content.SharedPreferences;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link VisualStateStorage} in {@code SharedPreferences}, with one set of keys per menu ID.  This
+ * is where {@link HoverView} has always saved its visual state.
+ * <p>
+ * All saved states are loaded with one bulk read the first time any is needed, and the keys of
+ * each menu are built once.  After that, reads cost no preference I/O and no string building.
+ * When the preferences are edited by someone else, the affected states are dropped and reloaded
+ * on their next read, and the {@link OnExternalChangeListener} is told.
+ */
+class SharedPreferencesVisualStateStorage implements VisualStateStorage {
+
+    private static final String KEY_DOCK_POSITION = "_dock_position";
+    private static final String KEY_DOCK_SIDE = "_dock_side";
+    private static final String KEY_SELECTED_SECTION = "_selected_section";
+
+    private final SharedPreferences mPrefs;
+    private final Map<String, Keys> mKeys = new HashMap<>();
+    // By menu ID, once loaded.  Menus without a saved state are not in the map.
+    private Map<String, MenuState> mStates;
+    private boolean mIsWriting;
+    @Nullable
+    private OnExternalChangeListener mOnExternalChangeListener;
+
+    // SharedPreferences only holds weak references to its listeners.
+    private final SharedPreferences.OnSharedPreferenceChangeListener mOnPrefsChangeListener = new SharedPreferences.OnSharedPreferenceChangeListener() {
+        @Override
+        public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, @Nullable String key) {
+            if (mIsWriting) {
+                // Our own write, which the cache already reflects.
+                return;
+            }
+
+            if (null == key) {
+                // The preferences were cleared.
+                mStates = null;
+                if (null != mOnExternalChangeListener) {
+                    mOnExternalChangeListener.onExternalChange(null);
+                }
+                return;
+            }
+
+            String menuId = getMenuId(key);
+            if (null != menuId && null != mStates) {
+                mStates.remove(menuId);
+                loadState(menuId);
+                if (null != mOnExternalChangeListener) {
+                    mOnExternalChangeListener.onExternalChange(menuId);
+                }
+            }
+        }
+    };
+
+    SharedPreferencesVisualStateStorage(@NonNull SharedPreferences prefs) {
+        mPrefs = prefs;
+    }
+
+    void setOnExternalChangeListener(@Nullable OnExternalChangeListener listener) {
+        mOnExternalChangeListener = listener;
+    }
+
+    @Nullable
+    @Override
+    public MenuState read(@NonNull String menuId) {
+        if (null == mStates) {
+            loadAll();
+        }
+        return mStates.get(menuId);
+    }
+
+    @Override
+    public void write(@NonNull Map<String, MenuState> changedStates) {
+        if (null == mStates) {
+            loadAll();
+        }
+
+        SharedPreferences.Editor editor = mPrefs.edit();
+        for (Map.Entry<String, MenuState> entry : changedStates.entrySet()) {
+            Keys keys = getKeys(entry.getKey());
+            MenuState state = entry.getValue();
+            editor.putFloat(keys.mDockPosition, state.getDockPosition());
+            editor.putInt(keys.mDockSide, state.getDockSide());
+            editor.putString(keys.mSelectedSection, state.getSelectedSectionId());
+            mStates.put(entry.getKey(), state);
+        }
+
+        mIsWriting = true;
+        editor.apply();
+        mIsWriting = false;
+    }
+
+    private void loadAll() {
+        mStates = new HashMap<>();
+        Map<String, ?> prefs = mPrefs.getAll();
+        for (String key : prefs.keySet()) {
+            if (key.endsWith(KEY_DOCK_SIDE)) {
+                String menuId = key.substring(0, key.length() - KEY_DOCK_SIDE.length());
+                putState(menuId, getKeys(menuId), prefs);
+            }
+        }
+
+        // From now on, external edits invalidate what was loaded.
+        mPrefs.registerOnSharedPreferenceChangeListener(mOnPrefsChangeListener);
+    }
+
+    private void loadState(@NonNull String menuId) {
+        Keys keys = getKeys(menuId);
+        if (mPrefs.contains(keys.mDockSide)) {
+            mStates.put(menuId, new MenuState(
+                    mPrefs.getInt(keys.mDockSide, SideDock.SidePosition.RIGHT),
+                    mPrefs.getFloat(keys.mDockPosition, 0.6f),
+                    mPrefs.getString(keys.mSelectedSection, null)
+            ));
+        }
+    }
+
+    private void putState(@NonNull String menuId, @NonNull Keys keys, @NonNull Map<String, ?> prefs) {
+        Object dockSide = prefs.get(keys.mDockSide);
+        if (!(dockSide instanceof Integer)) {
+            return;
+        }
+        Object dockPosition = prefs.get(keys.mDockPosition);
+        Object selectedSection = prefs.get(keys.mSelectedSection);
+        mStates.put(menuId, new MenuState(
+                (Integer) dockSide,
+                dockPosition instanceof Float ? (Float) dockPosition : 0.6f,
+                selectedSection instanceof String ? (String) selectedSection : null
+        ));
+    }
+
+    @NonNull
+    private Keys getKeys(@NonNull String menuId) {
+        Keys keys = mKeys.get(menuId);
+        if (null == keys) {
+            keys = new Keys(menuId);
+            mKeys.put(menuId, keys);
+        }
+        return keys;
+    }
+
+    @Nullable
+    private static String getMenuId(@NonNull String key) {
+        if (key.endsWith(KEY_DOCK_SIDE)) {
+            return key.substring(0, key.length() - KEY_DOCK_SIDE.length());
+        } else if (key.endsWith(KEY_DOCK_POSITION)) {
+            return key.substring(0, key.length() - KEY_DOCK_POSITION.length());
+        } else if (key.endsWith(KEY_SELECTED_SECTION)) {
+            return key.substring(0, key.length() - KEY_SELECTED_SECTION.length());
+        }
+        return null;
+    }
+
+    // Preference keys of one menu, built once.
+    private static class Keys {
+        private final String mDockPosition;
+        private final String mDockSide;
+        private final String mSelectedSection;
+
+        Keys(@NonNull String menuId) {
+            mDockPosition = menuId + KEY_DOCK_POSITION;
+            mDockSide = menuId + KEY_DOCK_SIDE;
+            mSelectedSection = menuId + KEY_SELECTED_SECTION;
+        }
+    }
+
+    /**
+     * Told when saved state was changed by someone other than this storage.
+     */
+    interface OnExternalChangeListener {
+        /**
+         * @param menuId the menu whose state changed, or null if all state may have changed
+         */
+        void onExternalChange(@Nullable String menuId);
+    }
+}
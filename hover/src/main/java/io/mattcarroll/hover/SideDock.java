@@ -18,7 +18,6 @@ package io.mattcarroll.hover;
 import android.graphics.Point;
 import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
-import android.util.Log;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -75,7 +74,9 @@ public class SideDock extends Dock {
         }
 
         public Point calculateDockPosition(@NonNull Point screenSize, int tabSize) {
-            Log.d(TAG, "Calculating dock position. Screen size: " + screenSize + ", tab size: " + tabSize);
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, "Calculating dock position. Screen size: " + screenSize + ", tab size: " + tabSize);
+            }
             int x = LEFT == mSide
                     ? ((int) (tabSize * 0.25))
                     : screenSize.x - ((int) (tabSize * 0.25));
@@ -98,7 +99,7 @@ public class SideDock extends Dock {
         public String toString() {
             String side = LEFT == mSide ? "Left" : "Right";
             int percent = (int) Math.floor(mVerticalDockPositionPercentage * 100);
-            return String.format("%s side at %d%%", side, percent);
+            return side + " side at " + percent + "%";
         }
     }
 }
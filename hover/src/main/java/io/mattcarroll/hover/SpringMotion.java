@@ -0,0 +1,188 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+/**
+ * One-dimensional damped spring, modelled on {@code androidx.dynamicanimation}'s
+ * {@code SpringForce} and {@code SpringAnimation}.
+ * <p>
+ * The spring pulls a value towards its final position, starting from whatever velocity it is given,
+ * so a thrown {@code View} keeps its momentum and a short move settles quickly.  The final position
+ * can be changed while the spring is moving; the current value and velocity carry over.  Advancing
+ * the spring is a closed-form computation on primitive fields and never allocates.
+ * <p>
+ * Velocities are in units per second.
+ */
+class SpringMotion {
+
+    static final float STIFFNESS_MEDIUM = 1500f;
+    static final float DAMPING_RATIO_LOW_BOUNCY = 0.75f;
+    static final float DAMPING_RATIO_NO_BOUNCY = 1f;
+
+    // Same ratio as androidx: a value that moves less than its threshold in 1/62.5 s is at rest.
+    private static final float VELOCITY_THRESHOLD_MULTIPLIER = 62.5f;
+    // Frames further apart than this are treated as this long so a stall doesn't make the spring jump.
+    private static final long MAX_FRAME_DELTA_MILLIS = 64;
+
+    private double mNaturalFrequency = Math.sqrt(STIFFNESS_MEDIUM);
+    private double mDampingRatio = DAMPING_RATIO_LOW_BOUNCY;
+    private double mValueThreshold = 0.5;
+    private double mVelocityThreshold = mValueThreshold * VELOCITY_THRESHOLD_MULTIPLIER;
+
+    private double mFinalPosition;
+    private double mValue;
+    private double mVelocity;
+    private boolean mIsRunning;
+    private long mLastFrameTimeMillis = -1;
+
+    void setStiffness(float stiffness) {
+        if (stiffness <= 0) {
+            throw new IllegalArgumentException("Spring stiffness must be greater than 0.");
+        }
+        mNaturalFrequency = Math.sqrt(stiffness);
+    }
+
+    void setDampingRatio(float dampingRatio) {
+        if (dampingRatio < 0) {
+            throw new IllegalArgumentException("Damping ratio must be non-negative.");
+        }
+        mDampingRatio = dampingRatio;
+    }
+
+    /**
+     * @param valueThreshold distance from the final position at which the spring may come to rest
+     */
+    void setValueThreshold(float valueThreshold) {
+        mValueThreshold = Math.abs(valueThreshold);
+        mVelocityThreshold = mValueThreshold * VELOCITY_THRESHOLD_MULTIPLIER;
+    }
+
+    /**
+     * Starts moving from {@code value} with {@code velocity}.  Restarting a running spring discards
+     * its current state.
+     */
+    void start(float value, float velocity) {
+        mValue = value;
+        mVelocity = velocity;
+        mIsRunning = true;
+        mLastFrameTimeMillis = -1;
+    }
+
+    /**
+     * Changes where the spring comes to rest.  A running spring continues from its current value and
+     * velocity.
+     */
+    void setFinalPosition(float finalPosition) {
+        mFinalPosition = finalPosition;
+    }
+
+    float getFinalPosition() {
+        return (float) mFinalPosition;
+    }
+
+    float getValue() {
+        return (float) mValue;
+    }
+
+    float getVelocity() {
+        return (float) mVelocity;
+    }
+
+    boolean isRunning() {
+        return mIsRunning;
+    }
+
+    /**
+     * Stops the spring at its final position.
+     */
+    void skipToEnd() {
+        mValue = mFinalPosition;
+        mVelocity = 0;
+        mIsRunning = false;
+    }
+
+    void cancel() {
+        mIsRunning = false;
+    }
+
+    /**
+     * Advances the spring to the given frame.  The first frame after {@link #start(float, float)}
+     * only records the time.
+     *
+     * @return true if the spring has come to rest at its final position
+     */
+    boolean doAnimationFrame(long frameTimeMillis) {
+        if (!mIsRunning) {
+            return true;
+        }
+        if (mLastFrameTimeMillis < 0) {
+            mLastFrameTimeMillis = frameTimeMillis;
+            return false;
+        }
+
+        long deltaMillis = Math.min(frameTimeMillis - mLastFrameTimeMillis, MAX_FRAME_DELTA_MILLIS);
+        mLastFrameTimeMillis = frameTimeMillis;
+        advance(deltaMillis / 1000.0);
+
+        if (Math.abs(mVelocity) < mVelocityThreshold && Math.abs(mValue - mFinalPosition) < mValueThreshold) {
+            skipToEnd();
+            return true;
+        }
+        return false;
+    }
+
+    private void advance(double deltaSeconds) {
+        double omega = mNaturalFrequency;
+        double zeta = mDampingRatio;
+        double lastDisplacement = mValue - mFinalPosition;
+        double lastVelocity = mVelocity;
+        double displacement;
+        double velocity;
+
+        if (zeta > 1) {
+            // Overdamped.
+            double gammaPlus = -zeta * omega + omega * Math.sqrt(zeta * zeta - 1);
+            double gammaMinus = -zeta * omega - omega * Math.sqrt(zeta * zeta - 1);
+            double coeffB = (gammaMinus * lastDisplacement - lastVelocity) / (gammaMinus - gammaPlus);
+            double coeffA = lastDisplacement - coeffB;
+            double expMinus = Math.exp(gammaMinus * deltaSeconds);
+            double expPlus = Math.exp(gammaPlus * deltaSeconds);
+            displacement = coeffA * expMinus + coeffB * expPlus;
+            velocity = coeffA * gammaMinus * expMinus + coeffB * gammaPlus * expPlus;
+        } else if (zeta == 1) {
+            // Critically damped.
+            double coeffA = lastDisplacement;
+            double coeffB = lastVelocity + omega * lastDisplacement;
+            double exp = Math.exp(-omega * deltaSeconds);
+            displacement = (coeffA + coeffB * deltaSeconds) * exp;
+            velocity = (coeffA + coeffB * deltaSeconds) * exp * -omega + coeffB * exp;
+        } else {
+            // Underdamped.
+            double dampedFrequency = omega * Math.sqrt(1 - zeta * zeta);
+            double cosCoeff = lastDisplacement;
+            double sinCoeff = (zeta * omega * lastDisplacement + lastVelocity) / dampedFrequency;
+            double exp = Math.exp(-zeta * omega * deltaSeconds);
+            double cos = Math.cos(dampedFrequency * deltaSeconds);
+            double sin = Math.sin(dampedFrequency * deltaSeconds);
+            displacement = exp * (cosCoeff * cos + sinCoeff * sin);
+            velocity = displacement * -omega * zeta
+                    + exp * (-dampedFrequency * cosCoeff * sin + dampedFrequency * sinCoeff * cos);
+        }
+
+        mValue = displacement + mFinalPosition;
+        mVelocity = velocity;
+    }
+}
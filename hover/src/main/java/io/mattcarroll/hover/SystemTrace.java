@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.os.Build;
+import android.os.Trace;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.reflect.Method;
+
+/**
+ * {@link HoverTrace}'s default destination, {@code android.os.Trace}.
+ * <p>
+ * {@code Trace} exists from API 18; on older devices sections are dropped.  Async sections use
+ * {@code Trace}'s hidden {@code asyncTraceBegin()} and {@code asyncTraceEnd()}, looked up once by
+ * reflection like {@code androidx.tracing} does below API 29.  Reflective calls allocate, so async
+ * sections are switched by {@link #ASYNC_ENABLED}, a compile-time constant that is false in release
+ * builds of the library, and are only sent while the app is actually being traced.  If the hidden
+ * methods cannot be found, async sections are dropped.
+ */
+final class SystemTrace {
+
+    /**
+     * True if async sections are sent to {@code android.os.Trace} in this build of Hover.
+     */
+    static final boolean ASYNC_ENABLED = BuildConfig.HOVER_TRACING;
+
+    private static final String TAG = "SystemTrace";
+    private static final boolean HAS_TRACE = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+
+    private static boolean sIsAsyncTraceResolved;
+    private static long sTraceTagApp;
+    // The argument of isTagEnabled(), boxed once so that checking the tag does not allocate.
+    @Nullable
+    private static Object[] sTraceTagAppArgs;
+    @Nullable
+    private static Method sIsTagEnabled;
+    @Nullable
+    private static Method sAsyncTraceBegin;
+    @Nullable
+    private static Method sAsyncTraceEnd;
+
+    private SystemTrace() {
+    }
+
+    static void beginSection(@NonNull String name) {
+        if (HAS_TRACE) {
+            Trace.beginSection(name);
+        }
+    }
+
+    static void endSection() {
+        if (HAS_TRACE) {
+            Trace.endSection();
+        }
+    }
+
+    static void beginAsyncSection(@NonNull String name, int cookie) {
+        if (ASYNC_ENABLED && isAsyncTraceEnabled()) {
+            invokeAsyncTrace(sAsyncTraceBegin, name, cookie);
+        }
+    }
+
+    static void endAsyncSection(@NonNull String name, int cookie) {
+        if (ASYNC_ENABLED && isAsyncTraceEnabled()) {
+            invokeAsyncTrace(sAsyncTraceEnd, name, cookie);
+        }
+    }
+
+    // True if the async trace methods exist and the app is being traced.  Tracing may start or stop
+    // while a section is open, so the trace can see an end without a begin, which it tolerates.
+    private static boolean isAsyncTraceEnabled() {
+        resolveAsyncTrace();
+        if (null == sIsTagEnabled) {
+            return false;
+        }
+        try {
+            return (Boolean) sIsTagEnabled.invoke(null, sTraceTagAppArgs);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void resolveAsyncTrace() {
+        if (sIsAsyncTraceResolved) {
+            return;
+        }
+        sIsAsyncTraceResolved = true;
+        if (!HAS_TRACE) {
+            return;
+        }
+
+        try {
+            sTraceTagApp = Trace.class.getField("TRACE_TAG_APP").getLong(null);
+            sTraceTagAppArgs = new Object[]{sTraceTagApp};
+            sIsTagEnabled = Trace.class.getMethod("isTagEnabled", long.class);
+            sAsyncTraceBegin = Trace.class.getMethod("asyncTraceBegin", long.class, String.class, int.class);
+            sAsyncTraceEnd = Trace.class.getMethod("asyncTraceEnd", long.class, String.class, int.class);
+        } catch (Exception e) {
+            HoverLog.w(TAG, "Async trace sections are not available: " + e);
+            sIsTagEnabled = null;
+            sAsyncTraceBegin = null;
+            sAsyncTraceEnd = null;
+        }
+    }
+
+    private static void invokeAsyncTrace(@Nullable Method method, @NonNull String name, int cookie) {
+        if (null == method) {
+            return;
+        }
+        try {
+            method.invoke(null, sTraceTagApp, name, cookie);
+        } catch (Exception e) {
+            HoverLog.w(TAG, "Failed to trace async section " + name + ": " + e);
+        }
+    }
+}
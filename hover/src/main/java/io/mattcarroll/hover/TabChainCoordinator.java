@@ -0,0 +1,392 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.graphics.Point;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lines up an ordered row of {@link FloatingTab}s, each {@code tabSpacingInPx} to the left of the
+ * one before it, starting at an anchor.
+ * <p>
+ * All dock positions are computed in one pass whenever the row or the anchor changes, so moving
+ * the first tab does not ripple through the row one tab at a time.  Staggered tightening and
+ * unchaining are driven by a single {@link HoverAnimationScheduler.FrameCallback} for the whole row
+ * instead of one timer per tab.
+ * <p>
+ * A slot may hold {@code null} as a placeholder for a tab that does not exist; the slots after it
+ * keep their positions.
+ * <p>
+ * A staggered cascade is traced as an async {@link HoverTrace} section from its first pending
+ * step until no steps are left.
+ */
+class TabChainCoordinator implements HoverAnimationScheduler.FrameCallback {
+
+    private static final String TAG = "TabChainCoordinator";
+    private static final int INITIAL_STEP_CAPACITY = 8;
+    static final String TRACE_CASCADE = "TabChainCoordinator.cascade";
+    private static final String TRACE_UNCHAIN_STAGGERED = "TabChainCoordinator.unchainStaggered";
+
+    private final HoverAnimationScheduler mScheduler;
+    private final int mTabSpacingInPx;
+    private final List<FloatingTab> mTabs = new ArrayList<>();
+    @Nullable
+    private OnTabUnchainedListener mOnTabUnchainedListener;
+    private int mAnchorX;
+    private int mAnchorY;
+
+    // Pending staggered steps, in parallel arrays.  A due time of -1 is resolved on the next frame.
+    private FloatingTab[] mStepTabs = new FloatingTab[INITIAL_STEP_CAPACITY];
+    private long[] mStepDelays = new long[INITIAL_STEP_CAPACITY];
+    private long[] mStepDueTimes = new long[INITIAL_STEP_CAPACITY];
+    private boolean[] mStepIsUnchain = new boolean[INITIAL_STEP_CAPACITY];
+    private int mStepCount;
+    private final int mCascadeTraceCookie = HoverTrace.newCookie();
+    private boolean mIsCascadeTraced;
+
+    TabChainCoordinator(int tabSpacingInPx) {
+        this(HoverAnimationScheduler.getInstance(), tabSpacingInPx);
+    }
+
+    TabChainCoordinator(@NonNull HoverAnimationScheduler scheduler, int tabSpacingInPx) {
+        mScheduler = scheduler;
+        mTabSpacingInPx = tabSpacingInPx;
+    }
+
+    /**
+     * Sets the listener that is told when an unchained tab has disappeared, e.g., to destroy it.
+     */
+    void setOnTabUnchainedListener(@Nullable OnTabUnchainedListener listener) {
+        mOnTabUnchainedListener = listener;
+    }
+
+    /**
+     * Moves the center of the first slot to ({@code x}, {@code y}) and re-docks every tab
+     * accordingly.  Tabs are not moved until they are tightened.
+     */
+    void setAnchor(int x, int y) {
+        mAnchorX = x;
+        mAnchorY = y;
+        layout(0);
+    }
+
+    int size() {
+        return mTabs.size();
+    }
+
+    @Nullable
+    FloatingTab getTab(int index) {
+        return mTabs.get(index);
+    }
+
+    int indexOf(@NonNull FloatingTab tab) {
+        return mTabs.indexOf(tab);
+    }
+
+    /**
+     * Adds {@code tab}, or a placeholder for {@code null}, to the end of the row.
+     */
+    void add(@Nullable FloatingTab tab) {
+        add(mTabs.size(), tab);
+    }
+
+    void add(int index, @Nullable FloatingTab tab) {
+        mTabs.add(index, tab);
+        layout(index);
+    }
+
+    /**
+     * Removes the slot at {@code index} without moving or hiding its tab, and cancels the tab's
+     * pending steps.
+     */
+    @Nullable
+    FloatingTab remove(int index) {
+        FloatingTab tab = mTabs.remove(index);
+        if (null != tab) {
+            cancelPendingSteps(tab);
+        }
+        layout(index);
+        return tab;
+    }
+
+    void move(int fromIndex, int toIndex) {
+        mTabs.add(toIndex, mTabs.remove(fromIndex));
+        layout(Math.min(fromIndex, toIndex));
+    }
+
+    /**
+     * Removes all slots without moving or hiding their tabs.  Pending unchain steps still run.
+     */
+    void clear() {
+        mTabs.clear();
+    }
+
+    /**
+     * Moves every tab to its slot at once.
+     *
+     * @param immediate true to jump there, false to animate
+     */
+    void tighten(boolean immediate) {
+        for (int i = 0; i < mTabs.size(); ++i) {
+            FloatingTab tab = mTabs.get(i);
+            if (null != tab) {
+                cancelPendingSteps(tab);
+                moveToSlot(tab, immediate);
+            }
+        }
+    }
+
+    /**
+     * Moves every tab to its slot, starting with the tab at {@code originIndex} and then
+     * spreading outwards, {@code staggerMillis} per slot.
+     *
+     * @param immediateOrigin true for the origin tab to jump to its slot rather than animate
+     */
+    void tightenStaggered(int originIndex, long staggerMillis, boolean immediateOrigin) {
+        for (int i = 0; i < mTabs.size(); ++i) {
+            FloatingTab tab = mTabs.get(i);
+            if (null == tab) {
+                continue;
+            }
+            cancelPendingSteps(tab);
+            if (i == originIndex) {
+                moveToSlot(tab, immediateOrigin);
+            } else {
+                addStep(tab, Math.abs(originIndex - i) * staggerMillis, false);
+            }
+        }
+    }
+
+    /**
+     * Makes every tab except {@code keptTab} disappear, spreading outwards from the slot of
+     * {@code keptTab} at {@code staggerMillis} per slot, and then empties the row.
+     *
+     * @return the number of tabs that will be reported to the {@link OnTabUnchainedListener}
+     */
+    int unchainStaggered(@Nullable FloatingTab keptTab, long staggerMillis) {
+        HoverTrace.beginSection(TRACE_UNCHAIN_STAGGERED);
+        try {
+            int originIndex = null != keptTab ? Math.max(0, mTabs.indexOf(keptTab)) : 0;
+            int unchainCount = 0;
+            for (int i = 0; i < mTabs.size(); ++i) {
+                FloatingTab tab = mTabs.get(i);
+                if (null == tab || tab == keptTab) {
+                    continue;
+                }
+                cancelPendingSteps(tab);
+                addStep(tab, Math.abs(originIndex - i) * staggerMillis, true);
+                ++unchainCount;
+            }
+            if (null != keptTab) {
+                cancelPendingSteps(keptTab);
+            }
+            mTabs.clear();
+            return unchainCount;
+        } finally {
+            HoverTrace.endSection();
+        }
+    }
+
+    /**
+     * Removes the slot at {@code index} and makes its tab disappear right away.
+     */
+    void unchain(int index) {
+        FloatingTab tab = remove(index);
+        if (null != tab) {
+            unchainNow(tab);
+        }
+    }
+
+    @Override
+    public void doAnimationFrame(long frameTimeMillis) {
+        // Steps may add or cancel steps, so take one step at a time and re-scan.
+        int dueIndex = findDueStep(frameTimeMillis);
+        while (dueIndex >= 0) {
+            FloatingTab tab = mStepTabs[dueIndex];
+            boolean isUnchain = mStepIsUnchain[dueIndex];
+            removeStepAt(dueIndex);
+            if (isUnchain) {
+                unchainNow(tab);
+            } else {
+                moveToSlot(tab, false);
+            }
+            dueIndex = findDueStep(frameTimeMillis);
+        }
+
+        if (0 == mStepCount) {
+            onStepsDrained();
+        }
+    }
+
+    private int findDueStep(long frameTimeMillis) {
+        for (int i = 0; i < mStepCount; ++i) {
+            if (mStepDueTimes[i] < 0) {
+                // Time is measured from the first frame so that work done before it doesn't eat
+                // into the delay.
+                mStepDueTimes[i] = frameTimeMillis + mStepDelays[i];
+            }
+            if (mStepDueTimes[i] <= frameTimeMillis) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Slots before startIndex are unaffected by a change at startIndex, so only the rest are docked.
+    private void layout(int startIndex) {
+        for (int i = startIndex; i < mTabs.size(); ++i) {
+            FloatingTab tab = mTabs.get(i);
+            if (null == tab) {
+                continue;
+            }
+
+            int x = mAnchorX - (i * mTabSpacingInPx);
+            Dock dock = tab.getDock();
+            if (dock instanceof SlotDock) {
+                // Dragging the anchor re-docks the whole row every frame, so move the tab's dock
+                // rather than allocating a new one.
+                if (((SlotDock) dock).moveTo(x, mAnchorY)) {
+                    tab.setDock(dock);
+                }
+            } else {
+                SlotDock slotDock = new SlotDock();
+                slotDock.moveTo(x, mAnchorY);
+                tab.setDock(slotDock);
+            }
+        }
+    }
+
+    private void moveToSlot(@NonNull FloatingTab tab, boolean immediate) {
+        if (View.VISIBLE == tab.getVisibility()) {
+            if (immediate) {
+                tab.dockImmediately();
+            } else {
+                tab.dock();
+            }
+        } else {
+            tab.dockImmediately();
+            tab.appear(null);
+        }
+    }
+
+    private void unchainNow(@NonNull final FloatingTab tab) {
+        if (HoverLog.ENABLED) {
+            HoverLog.d(TAG, "Unchaining " + tab.getTabId());
+        }
+        tab.disappear(new Runnable() {
+            @Override
+            public void run() {
+                if (null != mOnTabUnchainedListener) {
+                    mOnTabUnchainedListener.onTabUnchained(tab);
+                }
+            }
+        });
+    }
+
+    private void addStep(@NonNull FloatingTab tab, long delayMillis, boolean isUnchain) {
+        if (mStepCount == mStepTabs.length) {
+            int capacity = mStepCount * 2;
+            mStepTabs = Arrays.copyOf(mStepTabs, capacity);
+            mStepDelays = Arrays.copyOf(mStepDelays, capacity);
+            mStepDueTimes = Arrays.copyOf(mStepDueTimes, capacity);
+            mStepIsUnchain = Arrays.copyOf(mStepIsUnchain, capacity);
+        }
+        mStepTabs[mStepCount] = tab;
+        mStepDelays[mStepCount] = delayMillis;
+        mStepDueTimes[mStepCount] = -1;
+        mStepIsUnchain[mStepCount] = isUnchain;
+        ++mStepCount;
+        if (!mIsCascadeTraced) {
+            mIsCascadeTraced = true;
+            HoverTrace.beginAsyncSection(TRACE_CASCADE, mCascadeTraceCookie);
+        }
+        mScheduler.addFrameCallback(this);
+    }
+
+    /**
+     * Drops any staggered tightening or unchaining that is still waiting for {@code tab}, e.g.,
+     * before the tab is destroyed.
+     */
+    void cancelPendingSteps(@NonNull FloatingTab tab) {
+        for (int i = mStepCount - 1; i >= 0; --i) {
+            if (mStepTabs[i] == tab) {
+                removeStepAt(i);
+            }
+        }
+        if (0 == mStepCount) {
+            onStepsDrained();
+        }
+    }
+
+    private void onStepsDrained() {
+        mScheduler.removeFrameCallback(this);
+        if (mIsCascadeTraced) {
+            mIsCascadeTraced = false;
+            HoverTrace.endAsyncSection(TRACE_CASCADE, mCascadeTraceCookie);
+        }
+    }
+
+    private void removeStepAt(int index) {
+        int moveCount = mStepCount - index - 1;
+        System.arraycopy(mStepTabs, index + 1, mStepTabs, index, moveCount);
+        System.arraycopy(mStepDelays, index + 1, mStepDelays, index, moveCount);
+        System.arraycopy(mStepDueTimes, index + 1, mStepDueTimes, index, moveCount);
+        System.arraycopy(mStepIsUnchain, index + 1, mStepIsUnchain, index, moveCount);
+        --mStepCount;
+        mStepTabs[mStepCount] = null;
+    }
+
+    /**
+     * {@link Dock} of a slot in the row, which moves with the anchor.  Each tab gets its own
+     * {@code SlotDock} so that moving it never moves another tab's dock.
+     */
+    private static final class SlotDock extends Dock {
+
+        private final Point mPosition = new Point();
+
+        @NonNull
+        @Override
+        public Point position() {
+            return mPosition;
+        }
+
+        /**
+         * @return true if the position changed
+         */
+        boolean moveTo(int x, int y) {
+            if (mPosition.x == x && mPosition.y == y) {
+                return false;
+            }
+            mPosition.x = x;
+            mPosition.y = y;
+            notifyListeners();
+            return true;
+        }
+    }
+
+    /**
+     * Told when a tab that was unchained has finished disappearing.
+     */
+    interface OnTabUnchainedListener {
+        void onTabUnchained(@NonNull FloatingTab tab);
+    }
+}
@@ -5,21 +5,26 @@ import android.graphics.Point;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.interpolator.view.animation.LinearOutSlowInInterpolator;
-import android.util.Log;
 import android.view.View;
-import android.view.animation.AlphaAnimation;
-import android.view.animation.Animation;
-import android.view.animation.AnimationSet;
-import android.view.animation.TranslateAnimation;
+import android.view.ViewGroup;
 
 public class TabMessageView extends HoverFrameLayout {
     private static final String TAG = "TabMessageView";
+    private static final int APPEARANCE_DURATION = 300;
+    private static final String TRACE_APPEAR = "TabMessageView.appear";
+    private static final String TRACE_DISAPPEAR = "TabMessageView.disappear";
 
-    private final FloatingTab mFloatingTab;
+    private FloatingTab mFloatingTab;
     private SideDock mSideDock;
     private View mMessageView;
-
-    private final FloatingTab.OnFloatingTabChangeListener mOnFloatingTabChangeListener = new FloatingTab.OnFloatingTabChangeListener() {
+    private final HoverAnimation mAppearAnimation;
+    private final HoverAnimation mDisappearAnimation;
+    private float mAppearFromTranslationX;
+    private float mAppearFromTranslationY;
+    private float mDisappearStartAlpha;
+    private Runnable mOnAppeared;
+
+    private final FloatingTab.OnPositionChangeListener mOnTabPositionChangeListener = new FloatingTab.OnPositionChangeListener() {
         private static final int DEFAULT_SIDE = SideDock.SidePosition.LEFT;
 
         private Point mLastPosition;
@@ -35,7 +40,9 @@ public class TabMessageView extends HoverFrameLayout {
             if (side.equals(mLastSide) && position.equals(mLastPosition) || getWidth() == 0) {
                 return;
             }
-            Log.d(TAG, mFloatingTab + " tab moved to " + position);
+            if (HoverLog.ENABLED) {
+                HoverLog.d(TAG, mFloatingTab + " tab moved to " + position);
+            }
             final float tabSizeHalf = mFloatingTab.getTabSize() / 2f;
             if (side == SideDock.SidePosition.RIGHT) {
                 setX(position.x - tabSizeHalf - getWidth());
@@ -47,6 +54,15 @@ public class TabMessageView extends HoverFrameLayout {
             mLastSide = side;
         }
 
+        private int getSide() {
+            if (mSideDock != null) {
+                return mSideDock.sidePosition().getSide();
+            }
+            return DEFAULT_SIDE;
+        }
+    };
+
+    private final FloatingTab.OnDockChangeListener mOnTabDockChangeListener = new FloatingTab.OnDockChangeListener() {
         @Override
         public void onDockChange(@NonNull Dock dock) {
             if (dock instanceof SideDock) {
@@ -56,13 +72,6 @@ public class TabMessageView extends HoverFrameLayout {
                 }
             }
         }
-
-        private int getSide() {
-            if (mSideDock != null) {
-                return mSideDock.sidePosition().getSide();
-            }
-            return DEFAULT_SIDE;
-        }
     };
 
     public TabMessageView(@NonNull Context context, @NonNull FloatingTab floatingTab) {
@@ -74,6 +83,12 @@ public class TabMessageView extends HoverFrameLayout {
         setClipToPadding(false);
         setClipChildren(false);
         setPadding(10, 20, 10, 20);
+
+        HoverAnimation.Listener appearanceListener = createAppearanceListener();
+        mAppearAnimation = new HoverAnimation(APPEARANCE_DURATION, new LinearOutSlowInInterpolator(), appearanceListener);
+        mDisappearAnimation = new HoverAnimation(APPEARANCE_DURATION, null, appearanceListener);
+        mAppearAnimation.setTraceSection(TRACE_APPEAR);
+        mDisappearAnimation.setTraceSection(TRACE_DISAPPEAR);
     }
 
     public void setMessageView(@Nullable View view) {
@@ -92,37 +107,36 @@ public class TabMessageView extends HoverFrameLayout {
         return mMessageView;
     }
 
+    /**
+     * Moves this message over to {@code floatingTab}.  Only valid while the message is not shown,
+     * e.g., after {@link #reset()}.
+     */
+    void setFloatingTab(@NonNull FloatingTab floatingTab) {
+        mFloatingTab = floatingTab;
+    }
+
+    /**
+     * Hides this message immediately and drops its message {@code View} and pending callbacks, so
+     * that it can be reused for another tab.
+     */
+    void reset() {
+        mOnAppeared = null;
+        disappear(false);
+        setMessageView(null);
+        mOnPositionChangeListeners.clear();
+    }
+
     public void appear(final SideDock dock, @Nullable final Runnable onAppeared) {
         mSideDock = dock;
-        mFloatingTab.addOnPositionChangeListener(mOnFloatingTabChangeListener);
-        if (getVisibility() != View.VISIBLE) {
-            final AnimationSet animation = new AnimationSet(true);
-            final AlphaAnimation alpha = new AlphaAnimation(0, 1);
-            final float fromXDelta = getResources().getDimensionPixelSize(R.dimen.hover_message_animate_translation_x)
+        mFloatingTab.addOnPositionChangeListener(mOnTabPositionChangeListener);
+        mFloatingTab.addOnDockChangeListener(mOnTabDockChangeListener);
+        if (getVisibility() != View.VISIBLE || mDisappearAnimation.isRunning()) {
+            mDisappearAnimation.cancel();
+            mAppearFromTranslationX = getResources().getDimensionPixelSize(R.dimen.hover_message_animate_translation_x)
                     * (dock.sidePosition().getSide() == SideDock.SidePosition.LEFT ? -1 : 1);
-            final float fromYDelta = getResources().getDimensionPixelSize(R.dimen.hover_message_animate_translation_y);
-            TranslateAnimation translate = new TranslateAnimation(fromXDelta, 0, fromYDelta, 0);
-            animation.setDuration(300);
-            animation.setInterpolator(new LinearOutSlowInInterpolator());
-            animation.addAnimation(alpha);
-            animation.addAnimation(translate);
-            animation.setAnimationListener(new Animation.AnimationListener() {
-                @Override
-                public void onAnimationStart(Animation animation) {
-                }
-
-                @Override
-                public void onAnimationEnd(Animation animation) {
-                    if (onAppeared != null) {
-                        onAppeared.run();
-                    }
-                }
-
-                @Override
-                public void onAnimationRepeat(Animation animation) {
-                }
-            });
-            startAnimation(animation);
+            mAppearFromTranslationY = getResources().getDimensionPixelSize(R.dimen.hover_message_animate_translation_y);
+            mOnAppeared = onAppeared;
+            mAppearAnimation.start();
             setVisibility(VISIBLE);
         }
     }
@@ -132,16 +146,68 @@ public class TabMessageView extends HoverFrameLayout {
     }
 
     public void disappear(final boolean withAnimation, float startAlpha) {
-        mFloatingTab.removeOnPositionChangeListener(mOnFloatingTabChangeListener);
+        mFloatingTab.removeOnPositionChangeListener(mOnTabPositionChangeListener);
+        mFloatingTab.removeOnDockChangeListener(mOnTabDockChangeListener);
         mSideDock = null;
+        mAppearAnimation.cancel();
         if (withAnimation && getVisibility() == View.VISIBLE) {
-            final AnimationSet animation = new AnimationSet(true);
-            final AlphaAnimation alpha = new AlphaAnimation(startAlpha, 0);
-            alpha.setDuration(300);
-            animation.addAnimation(alpha);
-            startAnimation(animation);
+            mDisappearStartAlpha = startAlpha;
+            mDisappearAnimation.start();
+        } else {
+            mDisappearAnimation.cancel();
+            setVisibility(GONE);
+            detachFromParent();
         }
-        setVisibility(GONE);
+    }
+
+    // A hidden message has nothing to show, so it leaves its parent rather than costing it a child
+    // in every measure and layout pass.  Screen attaches it again when it is needed.
+    private void detachFromParent() {
+        if (getParent() instanceof ViewGroup) {
+            ((ViewGroup) getParent()).removeView(this);
+        }
+    }
+
+    private HoverAnimation.Listener createAppearanceListener() {
+        return new HoverAnimation.Listener() {
+            @Override
+            public void onAnimationUpdate(@NonNull HoverAnimation animation, float fraction) {
+                if (animation == mAppearAnimation) {
+                    setAlpha(fraction);
+                    // The message slides in inside this View because this View's own translation
+                    // positions it next to the tab.
+                    if (null != mMessageView) {
+                        mMessageView.setTranslationX(mAppearFromTranslationX * (1f - fraction));
+                        mMessageView.setTranslationY(mAppearFromTranslationY * (1f - fraction));
+                    }
+                } else {
+                    setAlpha(mDisappearStartAlpha * (1f - fraction));
+                }
+            }
+
+            @Override
+            public void onAnimationEnd(@NonNull HoverAnimation animation, boolean isCanceled) {
+                if (null != mMessageView) {
+                    mMessageView.setTranslationX(0);
+                    mMessageView.setTranslationY(0);
+                }
+
+                if (animation == mAppearAnimation) {
+                    setAlpha(1f);
+                    Runnable onAppeared = mOnAppeared;
+                    mOnAppeared = null;
+                    if (!isCanceled && null != onAppeared) {
+                        onAppeared.run();
+                    }
+                } else if (!isCanceled) {
+                    // A fade out that was interrupted by appear() must leave the message attached
+                    // and visible.
+                    setVisibility(GONE);
+                    setAlpha(1f);
+                    detachFromParent();
+                }
+            }
+        };
     }
 
     public void moveCenterTo(@NonNull Point floatPosition) {
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+/**
+ * Tracks which tabs of the expanded tab row are on screen, for a row that only materializes
+ * those tabs.
+ * <p>
+ * Tab {@code i} is centered {@code i * tabSpacing} to the left of the anchor, shifted right by the
+ * scroll offset.  A tab counts as materialized if any part of it is within the viewport, or if it
+ * is within the overscan distance of one that is.
+ */
+class TabRowViewport {
+
+    private final int mOverscanTabCount;
+    private int mAnchorX;
+    private int mTabSpacing = 1;
+    private int mTabSize;
+    private int mViewportWidth;
+    private int mTabCount;
+    private int mScrollOffset;
+    private int mFirstMaterializedIndex;
+    private int mLastMaterializedIndex = -1;
+
+    TabRowViewport(int overscanTabCount) {
+        mOverscanTabCount = overscanTabCount;
+    }
+
+    void setGeometry(int anchorX, int tabSpacing, int tabSize, int viewportWidth) {
+        mAnchorX = anchorX;
+        mTabSpacing = tabSpacing;
+        mTabSize = tabSize;
+        mViewportWidth = viewportWidth;
+        update();
+    }
+
+    void setTabCount(int tabCount) {
+        mTabCount = tabCount;
+        update();
+    }
+
+    int getScrollOffset() {
+        return mScrollOffset;
+    }
+
+    void setScrollOffset(int scrollOffset) {
+        mScrollOffset = scrollOffset;
+        update();
+    }
+
+    /**
+     * Scrolls the row right by {@code dx}, or left for a negative {@code dx}, within its bounds.
+     *
+     * @return the distance actually scrolled
+     */
+    int scrollBy(int dx) {
+        int oldScrollOffset = mScrollOffset;
+        mScrollOffset += dx;
+        update();
+        return mScrollOffset - oldScrollOffset;
+    }
+
+    /**
+     * Scrolls just far enough for the tab at {@code index} to be fully within the viewport.
+     */
+    void scrollToShow(int index) {
+        int centerX = getTabCenterX(index);
+        int halfTabSize = mTabSize / 2;
+        if (centerX - halfTabSize < 0) {
+            scrollBy(halfTabSize - centerX);
+        } else if (centerX + halfTabSize > mViewportWidth) {
+            scrollBy(mViewportWidth - halfTabSize - centerX);
+        }
+    }
+
+    int getTabCenterX(int index) {
+        return mAnchorX - index * mTabSpacing + mScrollOffset;
+    }
+
+    boolean isMaterialized(int index) {
+        return index >= mFirstMaterializedIndex && index <= mLastMaterializedIndex;
+    }
+
+    int getFirstMaterializedIndex() {
+        return mFirstMaterializedIndex;
+    }
+
+    /**
+     * @return the last materialized index, which is less than the first if there are no tabs
+     */
+    int getLastMaterializedIndex() {
+        return mLastMaterializedIndex;
+    }
+
+    private void update() {
+        // The last tab may scroll until it is fully on screen at the left edge, and the first tab
+        // may not scroll past its anchor.
+        int maxScrollOffset = Math.max(0, (mTabCount - 1) * mTabSpacing + mTabSize / 2 - mAnchorX);
+        mScrollOffset = Math.max(0, Math.min(mScrollOffset, maxScrollOffset));
+
+        // Tab i is visible while its right edge is right of 0 and its left edge is left of the
+        // viewport's width.
+        int shiftedAnchorX = mAnchorX + mScrollOffset;
+        int firstVisibleIndex = floorDiv(shiftedAnchorX - mTabSize / 2 - mViewportWidth, mTabSpacing) + 1;
+        int lastVisibleIndex = -floorDiv(-(shiftedAnchorX + mTabSize / 2), mTabSpacing) - 1;
+        mFirstMaterializedIndex = Math.max(0, firstVisibleIndex - mOverscanTabCount);
+        mLastMaterializedIndex = Math.min(mTabCount - 1, lastVisibleIndex + mOverscanTabCount);
+    }
+
+    // Math.floorDiv() needs API 24.
+    private static int floorDiv(int dividend, int divisor) {
+        int quotient = dividend / divisor;
+        if ((dividend % divisor != 0) && ((dividend < 0) != (divisor < 0))) {
+            --quotient;
+        }
+        return quotient;
+    }
+}
@@ -44,7 +44,7 @@ public class TabSelectorView extends View {
     private int mLeftMostSelectorLocationPx; // based on mLeftBoundOffset and mSelectorWidthPx;
     private int mRightMostSelectorLocationPx; // based on mRightBoundOffsetPx and mSelectorWidthPx;
 
-    private Path mSelectorPaintPath;
+    private final Path mSelectorPaintPath = new Path();
     private Paint mSelectorPaint;
 
     public TabSelectorView(Context context) {
@@ -107,7 +107,7 @@ public class TabSelectorView extends View {
 
         int selectorCenterLocationPx = clampSelectorPosition(mDesiredSelectorCenterLocationPx);
 
-        mSelectorPaintPath = new Path();
+        mSelectorPaintPath.reset();
         mSelectorPaintPath.moveTo(selectorCenterLocationPx, 0); // top of triangle
         mSelectorPaintPath.lineTo(selectorCenterLocationPx + (mSelectorWidthPx / 2), mSelectorHeightPx); // bottom right of triangle
         mSelectorPaintPath.lineTo(selectorCenterLocationPx - (mSelectorWidthPx / 2), mSelectorHeightPx); // bottom left of triangle
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Map;
+
+/**
+ * Where a {@link HoverView} keeps the visual state of its menus across process restarts: for each
+ * menu ID, the collapsed dock position and the selected {@code Section}.
+ * <p>
+ * By default a {@code HoverView} uses {@code SharedPreferences}.  A different backend, e.g., a
+ * compact file, can be set with {@link HoverView#setVisualStateStorage(VisualStateStorage)}.
+ * The {@code HoverView} keeps the state in memory and only calls {@link #write(Map)} when state has
+ * changed and is flushed, e.g., when the {@code HoverView} leaves its window or the app's UI is
+ * hidden.
+ * <p>
+ * Called on the main thread.
+ */
+public interface VisualStateStorage {
+
+    /**
+     * @return the state saved for the menu with the given ID, or null if there is none
+     */
+    @Nullable
+    MenuState read(@NonNull String menuId);
+
+    /**
+     * Saves the given states, by menu ID.  Menus that are not in {@code changedStates} keep what
+     * was saved for them before.
+     */
+    void write(@NonNull Map<String, MenuState> changedStates);
+
+    /**
+     * Visual state of one menu.
+     */
+    final class MenuState {
+        @SideDock.SidePosition.Side
+        private final int mDockSide;
+        private final float mDockPosition;
+        @Nullable
+        private final String mSelectedSectionId;
+
+        public MenuState(@SideDock.SidePosition.Side int dockSide, float dockPosition, @Nullable String selectedSectionId) {
+            mDockSide = dockSide;
+            mDockPosition = dockPosition;
+            mSelectedSectionId = selectedSectionId;
+        }
+
+        @SideDock.SidePosition.Side
+        public int getDockSide() {
+            return mDockSide;
+        }
+
+        /**
+         * @return vertical position of the collapsed dock, as a fraction of the screen height
+         */
+        public float getDockPosition() {
+            return mDockPosition;
+        }
+
+        @Nullable
+        public String getSelectedSectionId() {
+            return mSelectedSectionId;
+        }
+
+        boolean matches(int dockSide, float dockPosition, @Nullable String selectedSectionId) {
+            return mDockSide == dockSide
+                    && Float.compare(mDockPosition, dockPosition) == 0
+                    && (null == mSelectedSectionId ? null == selectedSectionId : mSelectedSectionId.equals(selectedSectionId));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MenuState)) {
+                return false;
+            }
+            MenuState other = (MenuState) o;
+            return other.matches(mDockSide, mDockPosition, mSelectedSectionId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = mDockSide;
+            result = 31 * result + Float.floatToIntBits(mDockPosition);
+            result = 31 * result + (null != mSelectedSectionId ? mSelectedSectionId.hashCode() : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "MenuState{side: " + mDockSide + ", position: " + mDockPosition + ", section: " + mSelectedSectionId + "}";
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory copy of the visual state of menus, backed by a {@link VisualStateStorage}.
+ * <p>
+ * Each menu's state is read from storage the first time it is needed and is served from memory
+ * after that.  Saving a state that equals the current one does nothing.  Changed states are only
+ * written to storage by {@link #flush()}, all at once, so that the many docks of a session cost a
+ * single write.
+ */
+class VisualStateStore {
+
+    private final VisualStateStorage mStorage;
+    // By menu ID.  A null value means that storage has nothing for the menu.
+    private final Map<String, VisualStateStorage.MenuState> mStates = new HashMap<>();
+    private final Map<String, VisualStateStorage.MenuState> mChangedStates = new HashMap<>();
+
+    VisualStateStore(@NonNull VisualStateStorage storage) {
+        mStorage = storage;
+    }
+
+    @NonNull
+    VisualStateStorage getStorage() {
+        return mStorage;
+    }
+
+    @Nullable
+    VisualStateStorage.MenuState get(@NonNull String menuId) {
+        if (!mStates.containsKey(menuId)) {
+            mStates.put(menuId, mStorage.read(menuId));
+        }
+        return mStates.get(menuId);
+    }
+
+    /**
+     * Sets the state of the menu with the given ID, to be written by the next {@link #flush()}.
+     *
+     * @return true if the state changed
+     */
+    boolean put(@NonNull String menuId,
+                @SideDock.SidePosition.Side int dockSide,
+                float dockPosition,
+                @Nullable String selectedSectionId) {
+        VisualStateStorage.MenuState state = get(menuId);
+        if (null != state && state.matches(dockSide, dockPosition, selectedSectionId)) {
+            return false;
+        }
+
+        state = new VisualStateStorage.MenuState(dockSide, dockPosition, selectedSectionId);
+        mStates.put(menuId, state);
+        mChangedStates.put(menuId, state);
+        return true;
+    }
+
+    /**
+     * @return true if there are changes that have not been flushed
+     */
+    boolean isDirty() {
+        return !mChangedStates.isEmpty();
+    }
+
+    /**
+     * Writes the changed states to storage, if there are any.
+     */
+    void flush() {
+        if (mChangedStates.isEmpty()) {
+            return;
+        }
+
+        Map<String, VisualStateStorage.MenuState> changedStates = new HashMap<>(mChangedStates);
+        mChangedStates.clear();
+        mStorage.write(changedStates);
+    }
+
+    /**
+     * Forgets what was read for the menu with the given ID, e.g., because its storage was edited by
+     * someone else.  Unflushed changes are kept.
+     */
+    void invalidate(@NonNull String menuId) {
+        if (!mChangedStates.containsKey(menuId)) {
+            mStates.remove(menuId);
+        }
+    }
+
+    /**
+     * Like {@link #invalidate(String)}, for every menu.
+     */
+    void invalidateAll() {
+        mStates.clear();
+        mStates.putAll(mChangedStates);
+    }
+}
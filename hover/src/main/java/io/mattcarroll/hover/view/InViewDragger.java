@@ -32,6 +32,7 @@ public class InViewDragger extends Dragger {
     private static final String TAG = "InViewDragger";
 
     private final ViewGroup mContainer;
+    private final Rect mContainerArea = new Rect();
 
     public InViewDragger(@NonNull ViewGroup container, int touchSlop) {
         super(touchSlop);
@@ -62,11 +63,22 @@ public class InViewDragger extends Dragger {
         );
     }
 
+    @Override
+    public void getTouchViewPosition(@NonNull View touchView, @NonNull PointF outPosition) {
+        outPosition.set(touchView.getX(), touchView.getY());
+    }
+
     @Override
     public Point getContainerSize() {
-        Rect area = new Rect();
-        mContainer.getGlobalVisibleRect(area);
-        return new Point(area.right, area.bottom);
+        Point containerSize = new Point();
+        getContainerSize(containerSize);
+        return containerSize;
+    }
+
+    @Override
+    public void getContainerSize(@NonNull Point outSize) {
+        mContainer.getGlobalVisibleRect(mContainerArea);
+        outSize.set(mContainerArea.right, mContainerArea.bottom);
     }
 
     @Override
@@ -32,6 +32,7 @@ public class InWindowDragger extends Dragger {
 
     private final Context mContext;
     private final WindowViewController mWindowViewController;
+    private final Point mTouchViewPosition = new Point();
 
     public InWindowDragger(@NonNull Context context,
                            @NonNull WindowViewController windowViewController,
@@ -55,16 +56,44 @@ public class InWindowDragger extends Dragger {
         mWindowViewController.removeView(touchView);
     }
 
+    @Override
+    public void hideTouchView(@NonNull View touchView) {
+        // The window stays in place for reuse but lets touches through to whatever is below it.
+        mWindowViewController.setTouchable(touchView, false);
+    }
+
+    @Override
+    public void showTouchView(@NonNull View touchView) {
+        mWindowViewController.setTouchable(touchView, true);
+    }
+
+    @Override
+    public void resizeTouchView(@NonNull View touchView, int width, int height) {
+        mWindowViewController.getViewPosition(touchView, mTouchViewPosition);
+        mWindowViewController.setViewBounds(touchView, mTouchViewPosition.x, mTouchViewPosition.y, width, height);
+    }
+
     @Override
     public PointF getTouchViewPosition(@NonNull View touchView) {
         return new PointF(mWindowViewController.getViewPosition(touchView));
     }
 
+    @Override
+    public void getTouchViewPosition(@NonNull View touchView, @NonNull PointF outPosition) {
+        mWindowViewController.getViewPosition(touchView, mTouchViewPosition);
+        outPosition.set(mTouchViewPosition.x, mTouchViewPosition.y);
+    }
+
     @Override
     public Point getContainerSize() {
         return mWindowViewController.getWindowSize();
     }
 
+    @Override
+    public void getContainerSize(@NonNull Point outSize) {
+        mWindowViewController.getWindowSize(outSize);
+    }
+
     @Override
     public void moveTouchViewTo(@NonNull View touchView, @NonNull PointF cornerPosition) {
         mWindowViewController.moveViewTo(touchView, (int) cornerPosition.x, (int) cornerPosition.y);
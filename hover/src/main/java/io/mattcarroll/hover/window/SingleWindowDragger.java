@@ -0,0 +1,178 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover.window;
+
+import android.content.Context;
+import android.graphics.Point;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import androidx.annotation.NonNull;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import io.mattcarroll.hover.Dragger;
+
+/**
+ * {@link Dragger} implementation that works within a {@code Window}, like {@link InWindowDragger},
+ * but places every touch view in a single host window instead of giving each one its own window.
+ * <p>
+ * The host window is sized to the union of the touch views' bounds and the touch views are its
+ * children, so the host's regular {@code ViewGroup} hit-testing routes each {@code MotionEvent} to
+ * the touch view, and therefore the {@code TouchListener}, underneath it.  Activating and
+ * deactivating only adds and removes children and updates the host window's bounds, rather than
+ * adding and removing windows.
+ * <p>
+ * The whole host window is touchable, so touches in the gaps between touch views that are inside
+ * their union are consumed rather than passed to the windows below.
+ */
+public class SingleWindowDragger extends Dragger {
+    private static final String TAG = "SingleWindowDragger";
+
+    private final Context mContext;
+    private final WindowViewController mWindowViewController;
+    private FrameLayout mHostView;
+    private final Rect mHostBounds = new Rect();
+
+    public SingleWindowDragger(@NonNull Context context,
+                               @NonNull WindowViewController windowViewController,
+                               int tapTouchSlop) {
+        super(tapTouchSlop);
+        mContext = context;
+        mWindowViewController = windowViewController;
+    }
+
+    @Override
+    public View createTouchView(@NonNull Rect rect) {
+        if (null == mHostView) {
+            mHostView = new FrameLayout(mContext);
+            mWindowViewController.addView(0, 0, true, mHostView);
+        }
+
+        TouchView touchView = new TouchView(mContext);
+        final int width = rect.right - rect.left;
+        final int height = rect.bottom - rect.top;
+        mHostView.addView(touchView, new FrameLayout.LayoutParams(width, height));
+        updateHostBounds();
+        return touchView;
+    }
+
+    @Override
+    public void destroyTouchView(@NonNull View touchView) {
+        if (null != mHostView) {
+            mHostView.removeView(touchView);
+            updateHostBounds();
+        }
+    }
+
+    @Override
+    public void hideTouchView(@NonNull View touchView) {
+        super.hideTouchView(touchView);
+        updateHostBounds();
+    }
+
+    @Override
+    public void showTouchView(@NonNull View touchView) {
+        super.showTouchView(touchView);
+        updateHostBounds();
+    }
+
+    @Override
+    public void resizeTouchView(@NonNull View touchView, int width, int height) {
+        super.resizeTouchView(touchView, width, height);
+        updateHostBounds();
+    }
+
+    @Override
+    public void release() {
+        super.release();
+        if (null != mHostView) {
+            mWindowViewController.removeView(mHostView);
+            mHostView = null;
+        }
+    }
+
+    @Override
+    public PointF getTouchViewPosition(@NonNull View touchView) {
+        PointF position = new PointF();
+        getTouchViewPosition(touchView, position);
+        return position;
+    }
+
+    @Override
+    public void getTouchViewPosition(@NonNull View touchView, @NonNull PointF outPosition) {
+        TouchView view = (TouchView) touchView;
+        outPosition.set(view.mScreenX, view.mScreenY);
+    }
+
+    @Override
+    public Point getContainerSize() {
+        return mWindowViewController.getWindowSize();
+    }
+
+    @Override
+    public void getContainerSize(@NonNull Point outSize) {
+        mWindowViewController.getWindowSize(outSize);
+    }
+
+    @Override
+    public void moveTouchViewTo(@NonNull View touchView, @NonNull PointF cornerPosition) {
+        TouchView view = (TouchView) touchView;
+        view.mScreenX = (int) cornerPosition.x;
+        view.mScreenY = (int) cornerPosition.y;
+        updateHostBounds();
+    }
+
+    private void updateHostBounds() {
+        if (null == mHostView) {
+            return;
+        }
+
+        mHostBounds.setEmpty();
+        for (int i = 0; i < mHostView.getChildCount(); ++i) {
+            TouchView child = (TouchView) mHostView.getChildAt(i);
+            if (child.getVisibility() != View.VISIBLE) {
+                // Hidden touch views are waiting to be reused and must not grow the window.
+                continue;
+            }
+            FrameLayout.LayoutParams params = (FrameLayout.LayoutParams) child.getLayoutParams();
+            mHostBounds.union(child.mScreenX, child.mScreenY, child.mScreenX + params.width, child.mScreenY + params.height);
+        }
+
+        for (int i = 0; i < mHostView.getChildCount(); ++i) {
+            TouchView child = (TouchView) mHostView.getChildAt(i);
+            child.setX(child.mScreenX - mHostBounds.left);
+            child.setY(child.mScreenY - mHostBounds.top);
+        }
+
+        mWindowViewController.setViewBounds(
+                mHostView,
+                mHostBounds.left,
+                mHostBounds.top,
+                mHostBounds.width(),
+                mHostBounds.height()
+        );
+    }
+
+    // Touch view that remembers its position on screen, independent of where the host window is.
+    private static class TouchView extends View {
+        private int mScreenX;
+        private int mScreenY;
+
+        TouchView(@NonNull Context context) {
+            super(context);
+        }
+    }
+}
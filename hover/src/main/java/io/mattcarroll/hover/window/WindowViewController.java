@@ -15,23 +15,71 @@
  */
 package io.mattcarroll.hover.window;
 
+import android.annotation.TargetApi;
 import android.graphics.PixelFormat;
 import android.graphics.Point;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import androidx.annotation.NonNull;
+import android.view.Choreographer;
 import android.view.Gravity;
 import android.view.View;
 import android.view.WindowManager;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import io.mattcarroll.hover.HoverTrace;
+
 /**
  * Controls {@code View}s' positions, visibility, etc within a {@code Window}.
+ * <p>
+ * Every {@code WindowManager} layout update is a synchronous IPC to the system.  When layout updates
+ * are coalesced, {@link #moveViewTo(View, int, int)} only records the latest position of each view
+ * and the updates are sent once per frame, or immediately when {@link #flush()} is called.
+ * <p>
+ * Every call into the {@code WindowManager} is traced as a {@link HoverTrace} section and counted.
  */
 public class WindowViewController {
 
+    private static final String TRACE_ADD_VIEW = "WindowViewController.addView";
+    private static final String TRACE_UPDATE_VIEW_LAYOUT = "WindowViewController.updateViewLayout";
+    private static final String TRACE_REMOVE_VIEW = "WindowViewController.removeView";
+
     private WindowManager mWindowManager;
+    private boolean mIsCoalescingLayoutUpdates;
+    private final List<View> mPendingLayoutViews = new ArrayList<>();
+    private boolean mIsFlushScheduled;
+    private Handler mHandler;
+    private Runnable mFlushRunnable;
+    private Object mFrameCallback; // Choreographer.FrameCallback, which requires API 16.
+    private int mAddViewCount;
+    private int mUpdateViewLayoutCount;
+    private int mRemoveViewCount;
 
     public WindowViewController(@NonNull WindowManager windowManager) {
+        this(windowManager, false);
+    }
+
+    /**
+     * @param windowManager the {@code WindowManager} that holds the controlled {@code View}s
+     * @param coalesceLayoutUpdates true to send position updates at most once per view per frame
+     */
+    public WindowViewController(@NonNull WindowManager windowManager, boolean coalesceLayoutUpdates) {
         mWindowManager = windowManager;
+        mIsCoalescingLayoutUpdates = coalesceLayoutUpdates;
+    }
+
+    public boolean isCoalescingLayoutUpdates() {
+        return mIsCoalescingLayoutUpdates;
+    }
+
+    public void setCoalescingLayoutUpdates(boolean coalesceLayoutUpdates) {
+        if (!coalesceLayoutUpdates) {
+            flush();
+        }
+        mIsCoalescingLayoutUpdates = coalesceLayoutUpdates;
     }
 
     public void addView(int width, int height, boolean isTouchable, @NonNull View view) {
@@ -64,14 +112,27 @@ public class WindowViewController {
     }
 
     public void removeView(@NonNull View view) {
+        mPendingLayoutViews.remove(view);
         if (null != view.getParent()) {
-            mWindowManager.removeView(view);
+            HoverTrace.beginSection(TRACE_REMOVE_VIEW);
+            try {
+                ++mRemoveViewCount;
+                mWindowManager.removeView(view);
+            } finally {
+                HoverTrace.endSection();
+            }
         }
     }
 
     public Point getViewPosition(@NonNull View view) {
+        Point position = new Point();
+        getViewPosition(view, position);
+        return position;
+    }
+
+    public void getViewPosition(@NonNull View view, @NonNull Point outPosition) {
         WindowManager.LayoutParams params = (WindowManager.LayoutParams) view.getLayoutParams();
-        return new Point(params.x, params.y);
+        outPosition.set(params.x, params.y);
     }
 
     public void moveViewTo(View view, int x, int y) {
@@ -83,23 +144,114 @@ public class WindowViewController {
         params.x = x;
         params.y = y;
 
-        updateViewLayout(view, params);
+        requestViewLayout(view, params);
+    }
+
+    /**
+     * Moves and resizes the given {@code View} within the window.
+     */
+    public void setViewBounds(@NonNull View view, int x, int y, int width, int height) {
+        WindowManager.LayoutParams params = (WindowManager.LayoutParams) view.getLayoutParams();
+        if (params == null) {
+            params = buildLayoutParams(width, height, true);
+        }
+
+        params.x = x;
+        params.y = y;
+        params.width = width;
+        params.height = height;
+
+        requestViewLayout(view, params);
+    }
+
+    private void requestViewLayout(@NonNull View view, @NonNull WindowManager.LayoutParams params) {
+        if (mIsCoalescingLayoutUpdates && view.getLayoutParams() == params && null != view.getParent()) {
+            // The view is in the window and already holds these params, so the system only needs to
+            // hear about the latest layout once this frame.
+            if (!mPendingLayoutViews.contains(view)) {
+                mPendingLayoutViews.add(view);
+            }
+            scheduleFlush();
+        } else {
+            updateViewLayout(view, params);
+        }
+    }
+
+    /**
+     * Sends all pending position updates to the {@code WindowManager} right away.  Use this when a
+     * view's window position must be up to date before the next frame.
+     */
+    public void flush() {
+        while (!mPendingLayoutViews.isEmpty()) {
+            View view = mPendingLayoutViews.remove(mPendingLayoutViews.size() - 1);
+            updateViewLayout(view, (WindowManager.LayoutParams) view.getLayoutParams());
+        }
+    }
+
+    private void scheduleFlush() {
+        if (mIsFlushScheduled) {
+            return;
+        }
+        mIsFlushScheduled = true;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            postFrameCallback();
+        } else {
+            if (null == mHandler) {
+                mHandler = new Handler(Looper.getMainLooper());
+                mFlushRunnable = new Runnable() {
+                    @Override
+                    public void run() {
+                        onFrame();
+                    }
+                };
+            }
+            mHandler.post(mFlushRunnable);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void postFrameCallback() {
+        if (null == mFrameCallback) {
+            mFrameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    onFrame();
+                }
+            };
+        }
+        Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) mFrameCallback);
+    }
+
+    private void onFrame() {
+        mIsFlushScheduled = false;
+        flush();
     }
 
     public void showView(View view) {
+        mPendingLayoutViews.remove(view);
+        HoverTrace.beginSection(TRACE_ADD_VIEW);
         try {
             WindowManager.LayoutParams params = (WindowManager.LayoutParams) view.getLayoutParams();
+            ++mAddViewCount;
             mWindowManager.addView(view, params);
         } catch (IllegalStateException e) {
             // The view is already visible.
+        } finally {
+            HoverTrace.endSection();
         }
     }
 
     public void hideView(View view) {
+        mPendingLayoutViews.remove(view);
+        HoverTrace.beginSection(TRACE_REMOVE_VIEW);
         try {
+            ++mRemoveViewCount;
             mWindowManager.removeView(view);
         } catch (IllegalArgumentException e) {
             // The View wasn't visible to begin with.
+        } finally {
+            HoverTrace.endSection();
         }
     }
 
@@ -123,27 +275,78 @@ public class WindowViewController {
         updateViewLayout(view, params);
     }
 
+    /**
+     * Changes whether the given {@code View} receives touches without changing its focusability.
+     */
+    public void setTouchable(@NonNull View view, boolean isTouchable) {
+        WindowManager.LayoutParams params = (WindowManager.LayoutParams) view.getLayoutParams();
+        if (params == null) {
+            params = buildLayoutParams(view.getWidth(), view.getHeight(), isTouchable);
+        } else if (isTouchable) {
+            params.flags = params.flags & ~WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE;
+        } else {
+            params.flags = params.flags | WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE;
+        }
+
+        updateViewLayout(view, params);
+    }
+
     private void updateViewLayout(final View view, final WindowManager.LayoutParams params) {
+        // This update carries the view's latest position so any pending update is redundant.
+        mPendingLayoutViews.remove(view);
+        HoverTrace.beginSection(TRACE_UPDATE_VIEW_LAYOUT);
         try {
+            ++mUpdateViewLayoutCount;
             mWindowManager.updateViewLayout(view, params);
         } catch (IllegalArgumentException e) {
             // View is not attached to the window manager
             addViewToWindow(view, params);
+        } finally {
+            HoverTrace.endSection();
         }
     }
 
     private void addViewToWindow(final View view, final WindowManager.LayoutParams params) {
+        HoverTrace.beginSection(TRACE_ADD_VIEW);
         try {
+            ++mAddViewCount;
             mWindowManager.addView(view, params);
         } catch (WindowManager.BadTokenException e) {
             // Permission denied. Cannot add the View to the Window.
+        } finally {
+            HoverTrace.endSection();
         }
     }
 
+    /**
+     * @return the number of {@code WindowManager#addView()} calls so far
+     */
+    public int getAddViewCount() {
+        return mAddViewCount;
+    }
+
+    /**
+     * @return the number of {@code WindowManager#updateViewLayout()} calls so far
+     */
+    public int getUpdateViewLayoutCount() {
+        return mUpdateViewLayoutCount;
+    }
+
+    /**
+     * @return the number of {@code WindowManager#removeView()} calls so far
+     */
+    public int getRemoveViewCount() {
+        return mRemoveViewCount;
+    }
+
     public Point getWindowSize() {
         final Point windowSize = new Point();
-        mWindowManager.getDefaultDisplay().getSize(windowSize);
-        return new Point(windowSize.x, windowSize.y);
+        getWindowSize(windowSize);
+        return windowSize;
+    }
+
+    public void getWindowSize(@NonNull Point outSize) {
+        mWindowManager.getDefaultDisplay().getSize(outSize);
     }
 
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.view.View;
+import androidx.annotation.NonNull;
+import androidx.core.util.Pair;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests how {@link BaseTouchController} keeps its touch views on top of their original Views.
+ * <p>
+ * The android.jar stubs that JVM tests run against give every View the same, null, tag, so these
+ * tests also show that touch views are found without tags.
+ */
+public class BaseTouchControllerTest {
+
+    private RecordingTouchController mController;
+    private HoverFrameLayout mFirstView;
+    private HoverFrameLayout mSecondView;
+    private List<Pair<? extends HoverFrameLayout, ? extends BaseTouchController.TouchListener>> mTargets;
+
+    @Before
+    public void setUp() {
+        mController = new RecordingTouchController();
+        mFirstView = new HoverFrameLayout(null);
+        mSecondView = new HoverFrameLayout(null);
+        mTargets = new ArrayList<>();
+        mTargets.add(new Pair<>(mFirstView, new IgnoringTouchListener()));
+        mTargets.add(new Pair<>(mSecondView, new IgnoringTouchListener()));
+    }
+
+    @Test
+    public void positionChangeMovesOnlyTheTouchViewOfTheMovedView() {
+        mController.activate(mTargets);
+        View firstTouchView = mController.mCreatedTouchViews.get(0);
+        View secondTouchView = mController.mCreatedTouchViews.get(1);
+        mController.mMovedTouchViews.clear();
+
+        mSecondView.notifyListenersOfPositionChangeNow(mSecondView);
+        mFirstView.notifyListenersOfPositionChangeNow(mFirstView);
+
+        assertEquals(2, mController.mMovedTouchViews.size());
+        assertSame(secondTouchView, mController.mMovedTouchViews.get(0));
+        assertSame(firstTouchView, mController.mMovedTouchViews.get(1));
+    }
+
+    @Test
+    public void touchViewFollowsItsViewAsItsOnlyPositionListener() {
+        mController.activate(mTargets);
+
+        // The item itself listens, so no lookup stands between a move and its touch view.
+        assertEquals(1, mFirstView.mOnPositionChangeListeners.size());
+        assertTrue(mFirstView.mOnPositionChangeListeners.get(0) instanceof BaseTouchController.TouchViewItem);
+        assertEquals(1, mSecondView.mOnPositionChangeListeners.size());
+    }
+
+    @Test
+    public void deactivatedTouchViewsStopFollowingUntilReused() {
+        mController.activate(mTargets);
+        View firstTouchView = mController.mCreatedTouchViews.get(0);
+        mController.deactivate();
+        mController.mMovedTouchViews.clear();
+
+        mFirstView.notifyListenersOfPositionChangeNow(mFirstView);
+        assertEquals(0, mController.mMovedTouchViews.size());
+        assertEquals(0, mFirstView.mOnPositionChangeListeners.size());
+
+        mController.activate(mTargets);
+        mController.mMovedTouchViews.clear();
+        mFirstView.notifyListenersOfPositionChangeNow(mFirstView);
+
+        assertEquals(2, mController.getTouchViewPoolHits());
+        assertEquals(2, mController.mCreatedTouchViews.size());
+        assertEquals(1, mController.mMovedTouchViews.size());
+        assertSame(firstTouchView, mController.mMovedTouchViews.get(0));
+    }
+
+    private static class RecordingTouchController extends BaseTouchController {
+        private final List<View> mCreatedTouchViews = new ArrayList<>();
+        private final List<View> mMovedTouchViews = new ArrayList<>();
+
+        @Override
+        public View createTouchView(@NonNull Rect rect) {
+            View touchView = new View(null);
+            mCreatedTouchViews.add(touchView);
+            return touchView;
+        }
+
+        @Override
+        public void destroyTouchView(@NonNull View touchView) {
+            // No-op
+        }
+
+        @Override
+        public void moveTouchViewTo(@NonNull View touchView, @NonNull PointF position) {
+            mMovedTouchViews.add(touchView);
+        }
+    }
+
+    private static class IgnoringTouchListener implements BaseTouchController.TouchListener<HoverFrameLayout> {
+        @Override
+        public void onTap(HoverFrameLayout view) {
+            // No-op
+        }
+
+        @Override
+        public void onTouchDown(HoverFrameLayout view) {
+            // No-op
+        }
+
+        @Override
+        public void onTouchUp(HoverFrameLayout view) {
+            // No-op
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class DragTrackerTest {
+
+    private static final int TOUCH_SLOP = 8;
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1920;
+    private static final int EXIT_ICON_SIZE = 160;
+    private static final int EXIT_ZONE_HYSTERESIS = 24;
+    private static final int WARM_UP_MOVES = 20000;
+    private static final int MEASURED_MOVES = 100000;
+    // A single object per move would cost megabytes; this only absorbs JIT and counter noise.
+    private static final long ALLOCATION_SLACK_BYTES = 1024;
+
+    @Test
+    public void movesWithinSlopAreNotReportedAsDrags() {
+        DragTracker tracker = new DragTracker(TOUCH_SLOP);
+        tracker.start(100, 200, 10, 10);
+
+        assertFalse(tracker.moveTo(13, 14));
+        assertEquals(103f, tracker.getCurrentViewX(), 0f);
+        assertEquals(204f, tracker.getCurrentViewY(), 0f);
+
+        assertTrue(tracker.moveTo(30, 10));
+        assertEquals(120f, tracker.getCurrentViewX(), 0f);
+    }
+
+    @Test
+    public void dragKeepsReportingMovesOnceStarted() {
+        DragTracker tracker = new DragTracker(TOUCH_SLOP);
+        tracker.start(0, 0, 0, 0);
+
+        assertTrue(tracker.startDragging());
+        assertFalse(tracker.startDragging());
+        assertTrue(tracker.moveTo(1, 1));
+
+        tracker.stopDragging();
+        assertFalse(tracker.moveTo(1, 1));
+    }
+
+    /**
+     * Drives the pure-Java work done for every drag sample: the {@link DragTracker} move, the
+     * {@link ExitZone} check with the hysteresis that {@link ExitView#isDraggedIntoExitZone} applies,
+     * and the {@link GestureVelocityTracker} sample that {@link HoverViewStateCollapsed} records.
+     * The {@code View} calls in between cannot run on the JVM.
+     */
+    @Test
+    public void steadyStateDragSamplesDoNotAllocate() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationCounter = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocationCounter.isThreadAllocatedMemorySupported());
+        allocationCounter.setThreadAllocatedMemoryEnabled(true);
+
+        DragPath dragPath = new DragPath();
+        float checksum = dragPath.drag(WARM_UP_MOVES);
+
+        long threadId = Thread.currentThread().getId();
+        // Reading the counter may itself allocate, so measure that cost and subtract it.
+        long baselineStart = allocationCounter.getThreadAllocatedBytes(threadId);
+        long baselineEnd = allocationCounter.getThreadAllocatedBytes(threadId);
+        long measurementCost = baselineEnd - baselineStart;
+
+        long start = allocationCounter.getThreadAllocatedBytes(threadId);
+        checksum += dragPath.drag(MEASURED_MOVES);
+        long end = allocationCounter.getThreadAllocatedBytes(threadId);
+
+        assertTrue(checksum != 0);
+        long allocatedBytes = end - start - measurementCost;
+        assertTrue("Bytes allocated by " + MEASURED_MOVES + " drag moves: " + allocatedBytes,
+                allocatedBytes < ALLOCATION_SLACK_BYTES);
+    }
+
+    // The objects that a drag in the collapsed state works with, created up front as they are there.
+    private static class DragPath implements GestureVelocityTracker.Clock {
+        private final DragTracker mTracker = new DragTracker(TOUCH_SLOP);
+        private final ExitZone mExitZone = ExitZone.bottomBand();
+        private final GestureVelocityTracker mVelocityTracker = new GestureVelocityTracker(this);
+        private boolean mIsInExitZone;
+        private long mTime;
+
+        DragPath() {
+            mTracker.start(100, 100, 0, 0);
+            mTracker.startDragging();
+            mExitZone.onGeometryChanged(
+                    SCREEN_WIDTH,
+                    SCREEN_HEIGHT,
+                    SCREEN_WIDTH / 2,
+                    SCREEN_HEIGHT - EXIT_ICON_SIZE,
+                    EXIT_ICON_SIZE,
+                    EXIT_ICON_SIZE
+            );
+        }
+
+        @Override
+        public long uptimeMillis() {
+            return mTime;
+        }
+
+        float drag(int moveCount) {
+            float checksum = 0;
+            for (int i = 0; i < moveCount; ++i) {
+                // One sample per frame, sweeping the tab in and out of the exit zone.
+                mTime += 16;
+                if (mTracker.moveTo(i % SCREEN_WIDTH, (i * 7) % SCREEN_HEIGHT)) {
+                    int x = (int) mTracker.getCurrentViewX();
+                    int y = (int) mTracker.getCurrentViewY();
+                    mIsInExitZone = mExitZone.contains(x, y, mIsInExitZone ? EXIT_ZONE_HYSTERESIS : 0);
+                    mVelocityTracker.addSample(x, y);
+                    checksum += x + y + (mIsInExitZone ? 1 : 0);
+                }
+            }
+            return checksum + mVelocityTracker.getVelocityX() + mVelocityTracker.getVelocityY();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class GestureVelocityTrackerTest {
+
+    private static final float EPSILON = 0.0001f;
+
+    private FakeClock mClock;
+    private GestureVelocityTracker mTracker;
+
+    @Before
+    public void setUp() {
+        mClock = new FakeClock();
+        mTracker = new GestureVelocityTracker(mClock);
+    }
+
+    @Test
+    public void reportsNoVelocityWithoutEnoughSamples() {
+        assertEquals(0f, mTracker.getSpeed(), 0f);
+
+        mTracker.addSample(10, 10);
+        assertEquals(0f, mTracker.getSpeed(), 0f);
+        assertEquals(10f, mTracker.getTargetY(0), 0f);
+    }
+
+    @Test
+    public void reportsNoVelocityForSamplesWithTheSameTimestamp() {
+        mTracker.addSample(0, 0);
+        mTracker.addSample(100, 100);
+
+        assertEquals(0f, mTracker.getSpeed(), 0f);
+    }
+
+    @Test
+    public void measuresConstantVelocity() {
+        for (int i = 0; i < 10; ++i) {
+            mTracker.addSample(3 * i, -4 * i);
+            mClock.advance(1);
+        }
+
+        assertEquals(3f, mTracker.getVelocityX(), EPSILON);
+        assertEquals(-4f, mTracker.getVelocityY(), EPSILON);
+        assertEquals(5f, mTracker.getSpeed(), EPSILON);
+    }
+
+    @Test
+    public void ignoresSamplesOlderThanTheWindow() {
+        // A slow start followed by a fast fling: only the fling is inside the window.
+        for (int i = 0; i < 10; ++i) {
+            mTracker.addSample(i, 0);
+            mClock.advance(50);
+        }
+        mClock.advance(GestureVelocityTracker.WINDOW_MILLIS);
+        for (int i = 0; i < 10; ++i) {
+            mTracker.addSample(1000 + 2 * i, 0);
+            mClock.advance(10);
+        }
+
+        assertEquals(0.2f, mTracker.getVelocityX(), EPSILON);
+    }
+
+    @Test
+    public void keepsAtMostCapacitySamples() {
+        // Samples faster than the window can hold: the oldest are dropped once the buffer is full.
+        for (int i = 0; i < GestureVelocityTracker.CAPACITY; ++i) {
+            mTracker.addSample(0, 0);
+        }
+        mClock.advance(1);
+        for (int i = 0; i < GestureVelocityTracker.CAPACITY; ++i) {
+            mTracker.addSample(100, 0);
+        }
+
+        assertEquals(0f, mTracker.getVelocityX(), 0f);
+    }
+
+    @Test
+    public void extrapolatesTargetYAlongTheGesture() {
+        for (int i = 0; i < 5; ++i) {
+            mTracker.addSample(500 - 10 * i, 300 + 5 * i);
+            mClock.advance(8);
+        }
+
+        // Last sample is (460, 320) moving 2 px down for every 4 px left.
+        assertEquals(550f, mTracker.getTargetY(0), EPSILON);
+        assertEquals(-80f, mTracker.getTargetY(1260), EPSILON);
+    }
+
+    @Test
+    public void clearForgetsPreviousGesture() {
+        mTracker.addSample(0, 0);
+        mClock.advance(10);
+        mTracker.addSample(100, 0);
+
+        mTracker.clear();
+        mClock.advance(1000);
+        mTracker.addSample(0, 0);
+        mClock.advance(10);
+        mTracker.addSample(0, 10);
+
+        assertEquals(0f, mTracker.getVelocityX(), EPSILON);
+        assertEquals(1f, mTracker.getVelocityY(), EPSILON);
+    }
+
+    private static class FakeClock implements GestureVelocityTracker.Clock {
+        private long mNow = 1000;
+
+        void advance(long millis) {
+            mNow += millis;
+        }
+
+        @Override
+        public long uptimeMillis() {
+            return mNow;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HoverAnimationSchedulerTest {
+
+    private ManualFrameSource mFrameSource;
+    private HoverAnimationScheduler mScheduler;
+    private List<String> mCalls;
+
+    @Before
+    public void setUp() {
+        mFrameSource = new ManualFrameSource();
+        mScheduler = new HoverAnimationScheduler(mFrameSource);
+        mCalls = new ArrayList<>();
+    }
+
+    @Test
+    public void commitCallbacksRunOnceAfterTheFramesAnimations() {
+        final HoverAnimationScheduler.FrameCallback commit = new RecordingCallback("commit");
+        mScheduler.addFrameCallback(new HoverAnimationScheduler.FrameCallback() {
+            @Override
+            public void doAnimationFrame(long frameTimeMillis) {
+                mCalls.add("animation");
+                // Posted as often as an animation reports a move, but run once.
+                mScheduler.postCommitCallback(commit);
+                mScheduler.postCommitCallback(commit);
+            }
+        });
+
+        mFrameSource.runFrame(16);
+        assertEquals("[animation, commit]", mCalls.toString());
+
+        mFrameSource.runFrame(32);
+        assertEquals("[animation, commit, animation, commit]", mCalls.toString());
+    }
+
+    @Test
+    public void commitCallbackPostedWhileIdleRequestsAFrame() {
+        mScheduler.postCommitCallback(new RecordingCallback("commit"));
+
+        assertTrue(mFrameSource.isFramePosted());
+        mFrameSource.runFrame(16);
+
+        assertEquals("[commit]", mCalls.toString());
+        assertFalse(mFrameSource.isFramePosted());
+    }
+
+    @Test
+    public void commitCallbackPostedByACommitCallbackRunsNextFrame() {
+        final HoverAnimationScheduler.FrameCallback second = new RecordingCallback("second");
+        mScheduler.postCommitCallback(new HoverAnimationScheduler.FrameCallback() {
+            @Override
+            public void doAnimationFrame(long frameTimeMillis) {
+                mCalls.add("first");
+                mScheduler.postCommitCallback(second);
+            }
+        });
+
+        mFrameSource.runFrame(16);
+        assertEquals("[first]", mCalls.toString());
+        assertTrue(mFrameSource.isFramePosted());
+
+        mFrameSource.runFrame(32);
+        assertEquals("[first, second]", mCalls.toString());
+    }
+
+    @Test
+    public void removedCommitCallbackDoesNotRun() {
+        HoverAnimationScheduler.FrameCallback commit = new RecordingCallback("commit");
+        mScheduler.postCommitCallback(commit);
+        mScheduler.removeCommitCallback(commit);
+
+        mFrameSource.runFrame(16);
+
+        assertEquals("[]", mCalls.toString());
+    }
+
+    @Test
+    public void commitCallbackRemovedByAnEarlierOneInTheSameFrameDoesNotRun() {
+        final HoverAnimationScheduler.FrameCallback second = new RecordingCallback("second");
+        mScheduler.postCommitCallback(new HoverAnimationScheduler.FrameCallback() {
+            @Override
+            public void doAnimationFrame(long frameTimeMillis) {
+                mCalls.add("first");
+                mScheduler.removeCommitCallback(second);
+            }
+        });
+        mScheduler.postCommitCallback(second);
+
+        mFrameSource.runFrame(16);
+
+        assertEquals("[first]", mCalls.toString());
+    }
+
+    private class RecordingCallback implements HoverAnimationScheduler.FrameCallback {
+        private final String mName;
+
+        RecordingCallback(String name) {
+            mName = name;
+        }
+
+        @Override
+        public void doAnimationFrame(long frameTimeMillis) {
+            mCalls.add(mName);
+        }
+    }
+}
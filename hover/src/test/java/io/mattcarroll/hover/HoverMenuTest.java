@@ -0,0 +1,238 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+
+public class HoverMenuTest {
+
+    private TestHoverMenu mMenu;
+    private ManualExecutor mDiffExecutor;
+    private ManualExecutor mMainThread;
+    private List<String> mEvents;
+
+    @Before
+    public void setUp() {
+        mMenu = new TestHoverMenu();
+        mDiffExecutor = new ManualExecutor();
+        mMainThread = new ManualExecutor();
+        mEvents = new ArrayList<>();
+        mMenu.setMainThreadExecutor(mMainThread);
+    }
+
+    @Test
+    public void callsMadeDuringADiffAreCoalescedIntoOneDiff() {
+        mMenu.setSections(section("a"));
+        mMenu.notifyMenuChanged();
+        mMenu.setUpdatedCallback(new RecordingCallback());
+
+        mMenu.setSections(section("a"), section("b"));
+        mMenu.notifyMenuChangedAsync(mDiffExecutor);
+        mMenu.setSections(section("a"), section("b"), section("c"));
+        mMenu.notifyMenuChangedAsync(mDiffExecutor);
+        mMenu.setSections(section("a"), section("b"), section("c"), section("d"));
+        mMenu.notifyMenuChangedAsync(mDiffExecutor);
+        assertEquals(1, mDiffExecutor.size());
+
+        mDiffExecutor.runAll();
+        mMainThread.runAll();
+        assertEquals("[inserted 1+1]", mEvents.toString());
+
+        // The calls made during the first diff were coalesced into a diff of the last snapshot.
+        assertEquals(1, mDiffExecutor.size());
+        mDiffExecutor.runAll();
+        mMainThread.runAll();
+        assertEquals("[inserted 1+1, inserted 2+2 (c@2)]", mEvents.toString());
+        assertEquals(0, mDiffExecutor.size());
+        assertEquals(2, mDiffExecutor.mRunCount);
+        assertEquals(3, mMenu.getSectionIndex(new HoverMenu.SectionId("d")));
+    }
+
+    @Test
+    public void diffStartedBeforeASynchronousUpdateIsDropped() {
+        mMenu.setSections(section("a"));
+        mMenu.notifyMenuChanged();
+        mMenu.setUpdatedCallback(new RecordingCallback());
+
+        mMenu.setSections(section("a"), section("b"));
+        mMenu.notifyMenuChangedAsync(mDiffExecutor);
+        mMenu.setSections(section("a"), section("c"), section("b"));
+        mMenu.notifyMenuChanged();
+        assertEquals("[inserted 1+2 (c@1)]", mEvents.toString());
+
+        mDiffExecutor.runAll();
+        mMainThread.runAll();
+
+        assertEquals("[inserted 1+2 (c@1)]", mEvents.toString());
+        assertEquals(3, mMenu.getAppliedSections().size());
+        assertEquals(1, mMenu.getSectionIndex(new HoverMenu.SectionId("c")));
+        assertEquals(2, mMenu.getSectionIndex(new HoverMenu.SectionId("b")));
+    }
+
+    @Test
+    public void updatesReachTheCallbackInOrderWithTheirIndicesApplied() {
+        mMenu.setSections(section("a"), section("b"), section("c"));
+        mMenu.notifyMenuChanged();
+        mMenu.setUpdatedCallback(new RecordingCallback());
+
+        mMenu.setSections(section("a"), section("c"));
+        mMenu.notifyMenuChangedAsync(mDiffExecutor);
+        mMenu.setSections(section("a"), section("c", 1), section("d"));
+        mMenu.notifyMenuChangedAsync(mDiffExecutor);
+
+        // Nothing is applied before the main thread runs the result.
+        mDiffExecutor.runAll();
+        assertEquals("[]", mEvents.toString());
+        assertEquals(1, mMenu.getSectionIndex(new HoverMenu.SectionId("b")));
+
+        mMainThread.runAll();
+        mDiffExecutor.runAll();
+        mMainThread.runAll();
+
+        // The callback saw each update's indices, e.g., "c" at 1 once "b" was removed.
+        assertEquals("[removed 1+1 (c@1), inserted 2+1 (c@1), changed 1+1 (c@1)]", mEvents.toString());
+    }
+
+    @Test
+    public void failedDiffDoesNotBlockLaterUpdates() {
+        mMenu.setSections(section("a"));
+        mMenu.notifyMenuChanged();
+        mMenu.setUpdatedCallback(new RecordingCallback());
+
+        mMenu.setSections(new ThrowingSection("a"), section("b"));
+        mMenu.notifyMenuChangedAsync(mDiffExecutor);
+        mDiffExecutor.runAll();
+        mMainThread.runAll();
+        assertEquals("[]", mEvents.toString());
+
+        mMenu.setSections(section("a"), section("b"));
+        mMenu.notifyMenuChangedAsync(mDiffExecutor);
+        assertEquals(1, mDiffExecutor.size());
+        mDiffExecutor.runAll();
+        mMainThread.runAll();
+
+        assertEquals("[inserted 1+1]", mEvents.toString());
+    }
+
+    @Test
+    public void failedDiffStartsThePendingDiff() {
+        mMenu.setSections(section("a"));
+        mMenu.notifyMenuChanged();
+        mMenu.setUpdatedCallback(new RecordingCallback());
+
+        mMenu.setSections(new ThrowingSection("a"), section("b"));
+        mMenu.notifyMenuChangedAsync(mDiffExecutor);
+        mMenu.setSections(section("a"), section("c"));
+        mMenu.notifyMenuChangedAsync(mDiffExecutor);
+
+        mDiffExecutor.runAll();
+        mMainThread.runAll();
+        assertEquals(1, mDiffExecutor.size());
+        mDiffExecutor.runAll();
+        mMainThread.runAll();
+
+        assertEquals("[inserted 1+1 (c@1)]", mEvents.toString());
+    }
+
+    private static HoverMenu.Section section(@NonNull String id) {
+        return section(id, 0);
+    }
+
+    private static HoverMenu.Section section(@NonNull String id, int version) {
+        return new TestHoverMenu.TestSection(new HoverMenu.SectionId(id), version);
+    }
+
+    private class RecordingCallback implements ListUpdateCallback {
+        // Shows which index the callback sees for "c" while it handles an event.
+        private final HoverMenu.SectionId mWatchedId = new HoverMenu.SectionId("c");
+
+        @Override
+        public void onInserted(int position, int count) {
+            record("inserted", position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            record("removed", position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            mEvents.add("moved " + fromPosition + "->" + toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            record("changed", position, count);
+        }
+
+        private void record(String event, int position, int count) {
+            String entry = event + " " + position + "+" + count;
+            int watchedIndex = mMenu.getSectionIndex(mWatchedId);
+            if (watchedIndex >= 0) {
+                entry += " (c@" + watchedIndex + ")";
+            }
+            mEvents.add(entry);
+        }
+    }
+
+    // Stands in for an app's Section whose comparison throws.
+    private static class ThrowingSection extends TestHoverMenu.TestSection {
+        ThrowingSection(@NonNull String id) {
+            super(id);
+        }
+
+        @Override
+        public int getChangesFrom(@NonNull HoverMenu.Section oldSection) {
+            throw new IllegalStateException("Cannot compare " + getId());
+        }
+    }
+
+    private static class ManualExecutor implements Executor {
+        private final List<Runnable> mRunnables = new ArrayList<>();
+        private int mRunCount;
+
+        @Override
+        public void execute(@NonNull Runnable runnable) {
+            mRunnables.add(runnable);
+        }
+
+        int size() {
+            return mRunnables.size();
+        }
+
+        // Runs what is queued now.  Runnables queued meanwhile wait for the next call.
+        void runAll() {
+            List<Runnable> runnables = new ArrayList<>(mRunnables);
+            mRunnables.clear();
+            for (Runnable runnable : runnables) {
+                ++mRunCount;
+                runnable.run();
+            }
+        }
+    }
+}
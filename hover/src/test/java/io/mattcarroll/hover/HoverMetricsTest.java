@@ -0,0 +1,166 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class HoverMetricsTest {
+
+    private long mNowMillis;
+    private ManualFrameSource mFrameSource;
+    private HoverAnimationScheduler mScheduler;
+    private HoverMetrics mMetrics;
+    private List<String> mSamples;
+
+    @Before
+    public void setUp() {
+        mFrameSource = new ManualFrameSource();
+        mScheduler = new HoverAnimationScheduler(mFrameSource);
+        mMetrics = new HoverMetrics(mScheduler, new HoverMetrics.Clock() {
+            @Override
+            public long uptimeMillis() {
+                return mNowMillis;
+            }
+        });
+        mSamples = new ArrayList<>();
+        mMetrics.addListener(new HoverMetrics.Listener() {
+            @Override
+            public void onMetricRecorded(@NonNull HoverMetrics metrics, int metric, long value) {
+                mSamples.add(metric + "=" + value);
+            }
+        });
+    }
+
+    @Test
+    public void histogramBucketsSamplesByInclusiveUpperBound() {
+        HoverMetrics.Histogram histogram = new HoverMetrics.Histogram(new long[]{10, 20});
+        histogram.record(-5);
+        histogram.record(10);
+        histogram.record(11);
+        histogram.record(500);
+
+        assertEquals(3, histogram.getBucketCount());
+        assertEquals(2, histogram.getBucketSampleCount(0));
+        assertEquals(1, histogram.getBucketSampleCount(1));
+        assertEquals(1, histogram.getBucketSampleCount(2));
+        assertEquals(Long.MAX_VALUE, histogram.getBucketUpperBound(2));
+        assertEquals(4, histogram.getSampleCount());
+        assertEquals(500, histogram.getMax());
+        assertEquals(130.25, histogram.getMean(), 0.001);
+    }
+
+    @Test
+    public void histogramPercentilesAreBucketBoundsCappedByTheMax() {
+        HoverMetrics.Histogram histogram = new HoverMetrics.Histogram(new long[]{10, 20, 40});
+        assertEquals(0, histogram.getPercentile(50));
+        for (int i = 0; i < 9; ++i) {
+            histogram.record(5);
+        }
+        histogram.record(33);
+
+        assertEquals(10, histogram.getPercentile(50));
+        assertEquals(10, histogram.getPercentile(90));
+        assertEquals(33, histogram.getPercentile(99));
+
+        histogram.reset();
+        assertEquals(0, histogram.getSampleCount());
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void histogramRejectsUnorderedBounds() {
+        new HoverMetrics.Histogram(new long[]{10, 10});
+    }
+
+    @Test
+    public void stateChangeLatencyIsMeasuredFromTheRequest() {
+        mNowMillis = 1000;
+        long startMillis = mMetrics.uptimeMillis();
+        mNowMillis = 1320;
+        mMetrics.onStateChanged(HoverMetrics.METRIC_EXPAND_LATENCY, startMillis);
+
+        assertEquals("[0=320]", mSamples.toString());
+        assertEquals(1, mMetrics.getHistogram(HoverMetrics.METRIC_EXPAND_LATENCY).getSampleCount());
+        assertEquals(0, mMetrics.getHistogram(HoverMetrics.METRIC_COLLAPSE_LATENCY).getSampleCount());
+    }
+
+    @Test
+    public void dragLatencyIsMeasuredOncePerFrameForTheOldestSample() {
+        mMetrics.onDragSample(100);
+        mMetrics.onDragSample(104);
+        mMetrics.onDragSample(108);
+
+        runFrame(116, 118);
+
+        assertEquals("[2=18]", mSamples.toString());
+
+        mMetrics.onDragSample(125);
+        runFrame(132, 141);
+
+        assertEquals("[2=18, 2=16]", mSamples.toString());
+        assertEquals(18, mMetrics.getHistogram(HoverMetrics.METRIC_DRAG_LATENCY).getMax());
+    }
+
+    @Test
+    public void droppedFramesAreCountedUntilEveryDockingTabHasEnded() {
+        // Stands in for the tabs' springs, which keep frames coming.
+        HoverAnimationScheduler.FrameCallback spring = new HoverAnimationScheduler.FrameCallback() {
+            @Override
+            public void doAnimationFrame(long frameTimeMillis) {
+            }
+        };
+        mScheduler.addFrameCallback(spring);
+        mMetrics.onDockStarted();
+        mMetrics.onDockStarted();
+
+        runFrame(0, 0);
+        runFrame(17, 17);
+        runFrame(67, 67); // Two frames dropped.
+        mMetrics.onDockEnded();
+        runFrame(83, 83);
+        runFrame(133, 133); // Two more.
+        mMetrics.onDockEnded();
+        runFrame(200, 200); // No longer docking.
+
+        assertEquals("[3=4]", mSamples.toString());
+        assertEquals(4, mMetrics.getDockFrameCount());
+        assertEquals(4, mMetrics.getDockDroppedFrameCount());
+    }
+
+    @Test
+    public void resetClearsHistogramsAndCounts() {
+        mMetrics.onStateChanged(HoverMetrics.METRIC_COLLAPSE_LATENCY, 0);
+        mMetrics.reset();
+
+        assertEquals(0, mMetrics.getHistogram(HoverMetrics.METRIC_COLLAPSE_LATENCY).getSampleCount());
+        assertEquals(0, mMetrics.getDockFrameCount());
+        assertEquals(0, mMetrics.getWindowUpdateViewLayoutCount());
+        assertEquals(0, mMetrics.getTouchViewCreateCount());
+    }
+
+    private void runFrame(long frameTimeMillis, long nowMillis) {
+        mNowMillis = nowMillis;
+        mFrameSource.runFrame(frameTimeMillis);
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HoverTraceTest {
+
+    private static final String ANIMATION_SECTION = "Test.animation";
+
+    private long mNowMillis;
+    private RecordingTraceSink mSink;
+    private ManualFrameSource mFrameSource;
+    private HoverAnimationScheduler mScheduler;
+
+    @Before
+    public void setUp() {
+        mSink = new RecordingTraceSink(new RecordingTraceSink.Clock() {
+            @Override
+            public long nanoTime() {
+                return mNowMillis * 1000000;
+            }
+        });
+        HoverTrace.setSink(mSink);
+        mFrameSource = new ManualFrameSource();
+        mScheduler = new HoverAnimationScheduler(mFrameSource);
+    }
+
+    @After
+    public void tearDown() {
+        HoverTrace.setSink(null);
+    }
+
+    @Test
+    public void nestedSectionsAreRecordedWithTheirDepthAndDuration() {
+        HoverTrace.beginSection("outer");
+        mNowMillis = 5;
+        HoverTrace.beginSection("inner");
+        mNowMillis = 12;
+        HoverTrace.endSection();
+        mNowMillis = 20;
+        HoverTrace.endSection();
+
+        RecordingTraceSink.Section inner = mSink.getLastSection("inner");
+        RecordingTraceSink.Section outer = mSink.getLastSection("outer");
+        assertEquals(1, inner.getDepth());
+        assertEquals(7, inner.getDurationMillis());
+        assertEquals(0, outer.getDepth());
+        assertEquals(20, outer.getDurationMillis());
+        assertEquals(0, mSink.getOpenSectionCount());
+    }
+
+    @Test
+    public void asyncSectionsWithDifferentCookiesOverlap() {
+        int first = HoverTrace.newCookie();
+        int second = HoverTrace.newCookie();
+        HoverTrace.beginAsyncSection("async", first);
+        mNowMillis = 10;
+        HoverTrace.beginAsyncSection("async", second);
+        mNowMillis = 15;
+        HoverTrace.endAsyncSection("async", first);
+        mNowMillis = 40;
+        HoverTrace.endAsyncSection("async", second);
+
+        assertEquals(2, mSink.getCount("async"));
+        assertEquals(15, mSink.getSections("async").get(0).getDurationMillis());
+        assertEquals(30, mSink.getLastDurationMillis("async"));
+        assertTrue(mSink.getLastSection("async").isAsync());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void endingASectionThatWasNotBegunThrows() {
+        HoverTrace.endSection();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void endingAnAsyncSectionThatIsNotOpenThrows() {
+        HoverTrace.endAsyncSection("async", HoverTrace.newCookie());
+    }
+
+    @Test
+    public void animationIsTracedFromStartToEnd() {
+        HoverAnimation animation = createTracedAnimation(100);
+
+        mNowMillis = 1000;
+        animation.start();
+        assertEquals(1, mSink.getOpenSectionCount());
+
+        // The animation's clock starts at its first frame.
+        runFrame(1016);
+        runFrame(1066);
+        assertNull(mSink.getLastSection(ANIMATION_SECTION));
+        runFrame(1116);
+
+        assertFalse(animation.isRunning());
+        assertEquals(116, mSink.getLastDurationMillis(ANIMATION_SECTION));
+        assertEquals(0, mSink.getOpenSectionCount());
+    }
+
+    @Test
+    public void reversingARunningAnimationContinuesItsSection() {
+        HoverAnimation animation = createTracedAnimation(100);
+
+        animation.start();
+        runFrame(16);
+        runFrame(66);
+        animation.reverse();
+        runFrame(82);
+        runFrame(200);
+
+        assertFalse(animation.isRunning());
+        assertEquals(1, mSink.getCount(ANIMATION_SECTION));
+        assertEquals(200, mSink.getLastDurationMillis(ANIMATION_SECTION));
+    }
+
+    @Test
+    public void restartingAnAnimationEndsItsSection() {
+        HoverAnimation animation = createTracedAnimation(100);
+
+        animation.start();
+        mNowMillis = 30;
+        animation.start();
+        mNowMillis = 40;
+        animation.cancel();
+
+        assertEquals(2, mSink.getCount(ANIMATION_SECTION));
+        assertEquals(10, mSink.getLastDurationMillis(ANIMATION_SECTION));
+        assertEquals(0, mSink.getOpenSectionCount());
+    }
+
+    @NonNull
+    private HoverAnimation createTracedAnimation(long durationMillis) {
+        HoverAnimation animation = new HoverAnimation(mScheduler, durationMillis, null, new HoverAnimation.Listener() {
+            @Override
+            public void onAnimationUpdate(@NonNull HoverAnimation animation, float fraction) {
+            }
+
+            @Override
+            public void onAnimationEnd(@NonNull HoverAnimation animation, boolean isCanceled) {
+            }
+        });
+        animation.setTraceSection(ANIMATION_SECTION);
+        return animation;
+    }
+
+    private void runFrame(long frameTimeMillis) {
+        mNowMillis = frameTimeMillis;
+        mFrameSource.runFrame(frameTimeMillis);
+    }
+}
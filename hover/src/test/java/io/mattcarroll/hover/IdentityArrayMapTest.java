@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class IdentityArrayMapTest {
+
+    @Test
+    public void comparesKeysByIdentity() {
+        IdentityArrayMap<String, Integer> map = new IdentityArrayMap<>();
+        String key = new String("view");
+        map.put(key, 1);
+
+        assertEquals(Integer.valueOf(1), map.get(key));
+        assertNull(map.get(new String("view")));
+    }
+
+    @Test
+    public void keepsInsertionOrderAndGrows() {
+        IdentityArrayMap<Object, Integer> map = new IdentityArrayMap<>(1);
+        Object[] keys = new Object[10];
+        for (int i = 0; i < keys.length; ++i) {
+            keys[i] = new Object();
+            map.put(keys[i], i);
+        }
+
+        assertEquals(10, map.size());
+        for (int i = 0; i < keys.length; ++i) {
+            assertSame(keys[i], map.keyAt(i));
+            assertEquals(Integer.valueOf(i), map.valueAt(i));
+        }
+    }
+
+    @Test
+    public void replacingAValueKeepsItsPlace() {
+        IdentityArrayMap<Object, String> map = new IdentityArrayMap<>();
+        Object first = new Object();
+        Object second = new Object();
+        map.put(first, "a");
+        map.put(second, "b");
+        map.put(first, "c");
+
+        assertEquals(2, map.size());
+        assertEquals("c", map.valueAt(0));
+    }
+
+    @Test
+    public void removingShiftsLaterEntries() {
+        IdentityArrayMap<Object, String> map = new IdentityArrayMap<>();
+        Object first = new Object();
+        Object second = new Object();
+        Object third = new Object();
+        map.put(first, "a");
+        map.put(second, "b");
+        map.put(third, "c");
+
+        assertEquals("b", map.remove(second));
+        assertNull(map.remove(second));
+        assertEquals("a", map.removeAt(0));
+
+        assertEquals(1, map.size());
+        assertSame(third, map.keyAt(0));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(third));
+    }
+}
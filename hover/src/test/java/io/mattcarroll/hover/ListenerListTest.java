@@ -0,0 +1,222 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ListenerListTest {
+
+    @Test
+    public void ignoresDuplicates() {
+        ListenerList<Runnable> listeners = new ListenerList<>();
+        Runnable listener = new RecordingListener("a", new ArrayList<String>());
+
+        assertTrue(listeners.add(listener));
+        assertFalse(listeners.add(listener));
+        assertEquals(1, listeners.size());
+    }
+
+    @Test
+    public void notifiesInOrderOfAddition() {
+        List<String> calls = new ArrayList<>();
+        ListenerList<Runnable> listeners = new ListenerList<>(1);
+        listeners.add(new RecordingListener("a", calls));
+        listeners.add(new RecordingListener("b", calls));
+        listeners.add(new RecordingListener("c", calls));
+
+        dispatch(listeners);
+
+        assertEquals("[a, b, c]", calls.toString());
+    }
+
+    @Test
+    public void listenerRemovedDuringDispatchIsNotNotified() {
+        final List<String> calls = new ArrayList<>();
+        final ListenerList<Runnable> listeners = new ListenerList<>();
+        final Runnable second = new RecordingListener("b", calls);
+        listeners.add(new Runnable() {
+            @Override
+            public void run() {
+                calls.add("a");
+                listeners.remove(second);
+            }
+        });
+        listeners.add(second);
+        listeners.add(new RecordingListener("c", calls));
+
+        dispatch(listeners);
+
+        assertEquals("[a, c]", calls.toString());
+        assertEquals(2, listeners.size());
+    }
+
+    @Test
+    public void listenerRemovingItselfDuringDispatch() {
+        final List<String> calls = new ArrayList<>();
+        final ListenerList<Runnable> listeners = new ListenerList<>();
+        listeners.add(new Runnable() {
+            @Override
+            public void run() {
+                calls.add("a");
+                listeners.remove(this);
+            }
+        });
+        listeners.add(new RecordingListener("b", calls));
+
+        dispatch(listeners);
+        dispatch(listeners);
+
+        assertEquals("[a, b, b]", calls.toString());
+    }
+
+    @Test
+    public void listenerAddedDuringDispatchIsNotifiedFromTheNextDispatch() {
+        final List<String> calls = new ArrayList<>();
+        final ListenerList<Runnable> listeners = new ListenerList<>();
+        final Runnable added = new RecordingListener("b", calls);
+        listeners.add(new Runnable() {
+            @Override
+            public void run() {
+                calls.add("a");
+                listeners.add(added);
+            }
+        });
+
+        dispatch(listeners);
+        assertEquals("[a]", calls.toString());
+
+        dispatch(listeners);
+        assertEquals("[a, a, b]", calls.toString());
+    }
+
+    @Test
+    public void nestedDispatchKeepsGapsUntilTheOutermostEnds() {
+        final ListenerList<Runnable> listeners = new ListenerList<>();
+        final Runnable second = new RecordingListener("b", new ArrayList<String>());
+        listeners.add(second);
+
+        listeners.beginDispatch();
+        listeners.beginDispatch();
+        listeners.remove(second);
+        listeners.endDispatch();
+        assertEquals(1, listeners.size());
+        assertNull(listeners.get(0));
+
+        listeners.endDispatch();
+        assertEquals(0, listeners.size());
+        assertTrue(listeners.isEmpty());
+    }
+
+    @Test
+    public void clearDuringDispatchStopsNotifications() {
+        final List<String> calls = new ArrayList<>();
+        final ListenerList<Runnable> listeners = new ListenerList<>();
+        listeners.add(new Runnable() {
+            @Override
+            public void run() {
+                calls.add("a");
+                listeners.clear();
+            }
+        });
+        listeners.add(new RecordingListener("b", calls));
+
+        dispatch(listeners);
+
+        assertEquals("[a]", calls.toString());
+        assertEquals(0, listeners.size());
+    }
+
+    @Test
+    public void throwingListenerStillEndsTheDispatch() {
+        final List<String> calls = new ArrayList<>();
+        final ListenerList<Runnable> listeners = new ListenerList<>();
+        final Runnable second = new RecordingListener("b", calls);
+        listeners.add(new Runnable() {
+            @Override
+            public void run() {
+                listeners.remove(second);
+                throw new IllegalStateException();
+            }
+        });
+        listeners.add(second);
+
+        try {
+            dispatch(listeners);
+            fail();
+        } catch (IllegalStateException expected) {
+            // The listener's exception reaches the caller.
+        }
+
+        // The gap was closed, so later removals shift the list rather than leaving gaps.
+        assertEquals(1, listeners.size());
+        listeners.remove(listeners.get(0));
+        assertEquals(0, listeners.size());
+    }
+
+    @Test
+    public void removingShiftsLaterListenersOutsideDispatch() {
+        ListenerList<Runnable> listeners = new ListenerList<>();
+        Runnable first = new RecordingListener("a", new ArrayList<String>());
+        Runnable second = new RecordingListener("b", new ArrayList<String>());
+        listeners.add(first);
+        listeners.add(second);
+
+        assertTrue(listeners.remove(first));
+        assertFalse(listeners.remove(first));
+
+        assertEquals(1, listeners.size());
+        assertSame(second, listeners.get(0));
+    }
+
+    private static void dispatch(ListenerList<Runnable> listeners) {
+        listeners.beginDispatch();
+        try {
+            for (int i = 0, count = listeners.size(); i < count; ++i) {
+                Runnable listener = listeners.get(i);
+                if (null != listener) {
+                    listener.run();
+                }
+            }
+        } finally {
+            listeners.endDispatch();
+        }
+    }
+
+    private static class RecordingListener implements Runnable {
+        private final String mName;
+        private final List<String> mCalls;
+
+        RecordingListener(String name, List<String> calls) {
+            mName = name;
+            mCalls = calls;
+        }
+
+        @Override
+        public void run() {
+            mCalls.add(mName);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A {@link HoverAnimationScheduler.FrameSource} whose frames a test runs by hand, at the frame
+ * times it chooses.
+ */
+class ManualFrameSource implements HoverAnimationScheduler.FrameSource {
+
+    private HoverAnimationScheduler mScheduler;
+    private boolean mIsFramePosted;
+
+    @Override
+    public void postFrame(@NonNull HoverAnimationScheduler scheduler) {
+        mScheduler = scheduler;
+        mIsFramePosted = true;
+    }
+
+    /**
+     * @return true if a frame has been requested since the last {@link #runFrame(long)}
+     */
+    boolean isFramePosted() {
+        return mIsFramePosted;
+    }
+
+    /**
+     * Runs a frame of the scheduler that last requested one, if any, at {@code frameTimeMillis}.
+     */
+    void runFrame(long frameTimeMillis) {
+        mIsFramePosted = false;
+        if (null != mScheduler) {
+            mScheduler.doFrame(frameTimeMillis);
+        }
+    }
+}
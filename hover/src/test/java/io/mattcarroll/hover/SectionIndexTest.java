@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests {@link SectionIndex} on its own and as {@link HoverMenu#notifyMenuChanged()} maintains it.
+ * <p>
+ * The cost of an update is counted in hash lookups of {@link HoverMenu.SectionId}s, one per index
+ * entry that is removed or written, rather than timed.
+ */
+public class SectionIndexTest {
+
+    private static final int[] MENU_SIZES = {10, 100, 1000};
+
+    @Test
+    public void reindexesFromFirstChangedPosition() {
+        List<HoverMenu.Section> sections = createSections(5);
+        SectionIndex sectionIndex = new SectionIndex();
+        sectionIndex.update(sections, 0);
+
+        // Remove the Section at index 1 and append a new one.
+        List<HoverMenu.Section> newSections = new ArrayList<>(sections);
+        HoverMenu.Section removed = newSections.remove(1);
+        HoverMenu.Section appended = new TestHoverMenu.TestSection("appended");
+        newSections.add(appended);
+        sectionIndex.update(newSections, 1);
+
+        assertEquals(-1, sectionIndex.indexOf(removed.getId()));
+        assertNull(sectionIndex.get(removed.getId()));
+        for (int i = 0; i < newSections.size(); ++i) {
+            assertEquals(i, sectionIndex.indexOf(newSections.get(i).getId()));
+        }
+        assertEquals(appended, sectionIndex.get(appended.getId()));
+    }
+
+    @Test
+    public void lookupByIdTakesOneHashLookupAtAnySize() {
+        for (int sectionCount : MENU_SIZES) {
+            TestHoverMenu menu = createNotifiedMenu(sectionCount);
+            // Equal but not identical IDs, like the ones restored from saved state.
+            CountingSectionId lastId = new CountingSectionId("section" + (sectionCount - 1));
+
+            assertEquals(sectionCount - 1, menu.getSectionIndex(lastId));
+            assertEquals(1, lastId.mHashCount);
+        }
+    }
+
+    @Test
+    public void removalReindexesOnlyTheSectionsAfterIt() {
+        for (int sectionCount : MENU_SIZES) {
+            // Removing the last Section costs the same at every size.
+            assertEquals(1, countHashLookupsOfRemoval(sectionCount, sectionCount - 1));
+            // Otherwise every later Section's entry is removed and, one position lower, rewritten.
+            int middle = sectionCount / 2;
+            assertEquals(2 * (sectionCount - middle) - 1, countHashLookupsOfRemoval(sectionCount, middle));
+            assertEquals(2 * sectionCount - 1, countHashLookupsOfRemoval(sectionCount, 0));
+        }
+    }
+
+    @Test
+    public void appendIndexesOnlyTheNewSection() {
+        for (int sectionCount : MENU_SIZES) {
+            TestHoverMenu menu = createNotifiedMenu(sectionCount);
+            List<HoverMenu.Section> sections = new ArrayList<>(menu.getSections());
+            CountingSectionId appendedId = new CountingSectionId("appended");
+            sections.add(new TestHoverMenu.TestSection(appendedId, 0));
+            menu.setSections(sections);
+
+            CountingSectionId.sTotalHashCount = 0;
+            menu.notifyMenuChanged();
+
+            assertEquals(1, CountingSectionId.sTotalHashCount);
+            assertEquals(sectionCount, menu.getSectionIndex(appendedId));
+        }
+    }
+
+    // Removes the Section at the given position with notifyMenuChanged() and checks the new index.
+    private static int countHashLookupsOfRemoval(int sectionCount, int position) {
+        TestHoverMenu menu = createNotifiedMenu(sectionCount);
+        List<HoverMenu.Section> sections = new ArrayList<>(menu.getSections());
+        HoverMenu.Section removed = sections.remove(position);
+        menu.setSections(sections);
+
+        CountingSectionId.sTotalHashCount = 0;
+        menu.notifyMenuChanged();
+        int hashCount = CountingSectionId.sTotalHashCount;
+
+        assertEquals(-1, menu.getSectionIndex(removed.getId()));
+        for (int i = 0; i < sections.size(); ++i) {
+            assertEquals(i, menu.getSectionIndex(sections.get(i).getId()));
+        }
+        return hashCount;
+    }
+
+    private static TestHoverMenu createNotifiedMenu(int sectionCount) {
+        TestHoverMenu menu = new TestHoverMenu();
+        menu.setSections(createSections(sectionCount));
+        // With a callback, notifyMenuChanged() diffs and reindexes from the first change only.
+        menu.setUpdatedCallback(new IgnoringCallback());
+        menu.notifyMenuChanged();
+        return menu;
+    }
+
+    private static List<HoverMenu.Section> createSections(int count) {
+        List<HoverMenu.Section> sections = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            sections.add(new TestHoverMenu.TestSection(new CountingSectionId("section" + i), 0));
+        }
+        return sections;
+    }
+
+    // Counts its hash lookups.  SectionIndex hashes a SectionId once per map operation, while the
+    // diff only compares IDs with equals().
+    private static class CountingSectionId extends HoverMenu.SectionId {
+        private static int sTotalHashCount;
+        private int mHashCount;
+
+        CountingSectionId(@NonNull String id) {
+            super(id);
+        }
+
+        @Override
+        public int hashCode() {
+            ++mHashCount;
+            ++sTotalHashCount;
+            return super.hashCode();
+        }
+    }
+
+    private static class IgnoringCallback implements ListUpdateCallback {
+        @Override
+        public void onInserted(int position, int count) {
+            // No-op
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            // No-op
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            // No-op
+        }
+
+        @Override
+        public void onChanged(int position, int count, @Nullable Object payload) {
+            // No-op
+        }
+    }
+}
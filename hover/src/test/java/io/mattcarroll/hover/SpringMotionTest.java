@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpringMotionTest {
+
+    private static final long FRAME_MILLIS = 16;
+    // More than a second of frames; every spring below settles well within it.
+    private static final int MAX_FRAMES = 100;
+
+    @Test
+    public void firstFrameOnlyRecordsTheTime() {
+        SpringMotion spring = springTo(100);
+        spring.start(0, 0);
+
+        assertFalse(spring.doAnimationFrame(1000));
+        assertEquals(0, spring.getValue(), 0);
+        assertTrue(spring.isRunning());
+    }
+
+    @Test
+    public void bouncySpringOvershootsThenSettlesAtItsFinalPosition() {
+        SpringMotion spring = springTo(100);
+        spring.start(0, 0);
+
+        float maxValue = runUntilSettled(spring);
+
+        // A damping ratio of 0.75 overshoots by about 3%.
+        assertTrue(maxValue > 102);
+        assertTrue(maxValue < 104);
+        assertSettledAt(100, spring);
+    }
+
+    @Test
+    public void criticallyDampedSpringSettlesWithoutOvershooting() {
+        SpringMotion spring = springTo(100);
+        spring.setDampingRatio(SpringMotion.DAMPING_RATIO_NO_BOUNCY);
+        spring.start(0, 0);
+
+        float maxValue = runUntilSettled(spring);
+
+        assertTrue(maxValue <= 100);
+        assertSettledAt(100, spring);
+    }
+
+    @Test
+    public void overdampedSpringSettlesWithoutOvershooting() {
+        SpringMotion spring = springTo(100);
+        spring.setDampingRatio(2);
+        spring.start(0, 0);
+
+        float maxValue = runUntilSettled(spring);
+
+        assertTrue(maxValue <= 100);
+        assertSettledAt(100, spring);
+    }
+
+    @Test
+    public void springNearItsFinalPositionAndSlowComesToRest() {
+        SpringMotion spring = springTo(100);
+        spring.start(99.8f, 0);
+        spring.doAnimationFrame(0);
+
+        assertTrue(spring.doAnimationFrame(FRAME_MILLIS));
+        assertSettledAt(100, spring);
+    }
+
+    @Test
+    public void springNearItsFinalPositionButFastKeepsMoving() {
+        SpringMotion spring = springTo(100);
+        spring.start(99, 100);
+        spring.doAnimationFrame(0);
+
+        // Within the value threshold of 0.5, but faster than the velocity threshold of 31.25/s.
+        assertFalse(spring.doAnimationFrame(FRAME_MILLIS));
+        assertEquals(100, spring.getValue(), 0.5);
+        assertTrue(Math.abs(spring.getVelocity()) > 31.25f);
+        assertTrue(spring.isRunning());
+    }
+
+    @Test
+    public void largerValueThresholdComesToRestSooner() {
+        SpringMotion preciseSpring = springTo(100);
+        preciseSpring.start(0, 0);
+        SpringMotion coarseSpring = springTo(100);
+        coarseSpring.setValueThreshold(5);
+        coarseSpring.start(0, 0);
+
+        int preciseFrameCount = countFramesUntilSettled(preciseSpring);
+        int coarseFrameCount = countFramesUntilSettled(coarseSpring);
+
+        assertTrue(coarseFrameCount < preciseFrameCount);
+        assertSettledAt(100, coarseSpring);
+    }
+
+    @Test
+    public void stalledFrameAdvancesNoFurtherThanTheMaximumDelta() {
+        SpringMotion stalledSpring = springTo(100);
+        stalledSpring.start(0, 0);
+        stalledSpring.doAnimationFrame(0);
+        SpringMotion spring = springTo(100);
+        spring.start(0, 0);
+        spring.doAnimationFrame(0);
+
+        stalledSpring.doAnimationFrame(1000);
+        spring.doAnimationFrame(64);
+
+        assertEquals(spring.getValue(), stalledSpring.getValue(), 0);
+    }
+
+    private static SpringMotion springTo(float finalPosition) {
+        SpringMotion spring = new SpringMotion();
+        spring.setFinalPosition(finalPosition);
+        return spring;
+    }
+
+    // Steps the spring at a fixed frame rate and returns the largest value it reached.
+    private static float runUntilSettled(SpringMotion spring) {
+        float maxValue = spring.getValue();
+        spring.doAnimationFrame(0);
+        for (int frame = 1; frame <= MAX_FRAMES; ++frame) {
+            boolean isSettled = spring.doAnimationFrame(frame * FRAME_MILLIS);
+            maxValue = Math.max(maxValue, spring.getValue());
+            if (isSettled) {
+                return maxValue;
+            }
+        }
+        throw new AssertionError("Spring did not settle within " + MAX_FRAMES + " frames.");
+    }
+
+    private static int countFramesUntilSettled(SpringMotion spring) {
+        spring.doAnimationFrame(0);
+        for (int frame = 1; frame <= MAX_FRAMES; ++frame) {
+            if (spring.doAnimationFrame(frame * FRAME_MILLIS)) {
+                return frame;
+            }
+        }
+        throw new AssertionError("Spring did not settle within " + MAX_FRAMES + " frames.");
+    }
+
+    private static void assertSettledAt(float finalPosition, SpringMotion spring) {
+        assertEquals(finalPosition, spring.getValue(), 0);
+        assertEquals(0, spring.getVelocity(), 0);
+        assertFalse(spring.isRunning());
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import android.content.res.AssetManager;
+import android.content.res.Resources;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class TabChainCoordinatorTest {
+
+    private static final int TAB_SPACING = 10;
+
+    private ManualFrameSource mFrameSource;
+    private TabChainCoordinator mCoordinator;
+    private RecordingTraceSink mTraceSink;
+    private List<String> mCalls;
+
+    @Before
+    public void setUp() {
+        mFrameSource = new ManualFrameSource();
+        mCoordinator = new TabChainCoordinator(new HoverAnimationScheduler(mFrameSource), TAB_SPACING);
+        mTraceSink = new RecordingTraceSink();
+        HoverTrace.setSink(mTraceSink);
+        mCalls = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        HoverTrace.setSink(null);
+    }
+
+    @Test
+    public void tightenStaggeredMovesTabsOutwardsFromTheOriginOneStaggerPerSlot() {
+        addTabs("a", "b", "c", "d");
+
+        mCoordinator.tightenStaggered(1, 100, false);
+        assertEquals("[b.dock]", mCalls.toString());
+
+        // Delays count from the first frame, not from the call.
+        mFrameSource.runFrame(1000);
+        mFrameSource.runFrame(1099);
+        assertEquals("[b.dock]", mCalls.toString());
+
+        mFrameSource.runFrame(1100);
+        assertEquals("[b.dock, a.dock, c.dock]", mCalls.toString());
+
+        mFrameSource.runFrame(1200);
+        assertEquals("[b.dock, a.dock, c.dock, d.dock]", mCalls.toString());
+        assertFalse(mFrameSource.isFramePosted());
+        assertEquals(1, mTraceSink.getCount(TabChainCoordinator.TRACE_CASCADE));
+        assertEquals(0, mTraceSink.getOpenSectionCount());
+    }
+
+    @Test
+    public void cancelPendingStepsDropsTheTabsStepsAndEndsTheCascadeOnceNoneAreLeft() {
+        List<TestFloatingTab> tabs = addTabs("a", "b", "c");
+        mCoordinator.tightenStaggered(0, 100, false);
+
+        mCoordinator.cancelPendingSteps(tabs.get(1));
+        assertEquals(0, mTraceSink.getCount(TabChainCoordinator.TRACE_CASCADE));
+
+        mCoordinator.cancelPendingSteps(tabs.get(2));
+        assertEquals(1, mTraceSink.getCount(TabChainCoordinator.TRACE_CASCADE));
+        assertEquals(0, mTraceSink.getOpenSectionCount());
+
+        mFrameSource.runFrame(1000);
+        mFrameSource.runFrame(2000);
+        assertEquals("[a.dock]", mCalls.toString());
+    }
+
+    @Test
+    public void stepsBeyondTheInitialCapacityRunInOrder() {
+        String[] ids = new String[12];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = "t" + i;
+        }
+        addTabs(ids);
+
+        mCoordinator.tightenStaggered(0, 10, false);
+        mFrameSource.runFrame(1000);
+        for (int i = 1; i < ids.length; ++i) {
+            mFrameSource.runFrame(1000 + (i * 10));
+            assertEquals(ids[i] + ".dock", mCalls.get(i));
+        }
+
+        assertEquals(ids.length, mCalls.size());
+        assertFalse(mFrameSource.isFramePosted());
+    }
+
+    @Test
+    public void unchainStaggeredReportsAsManyTabsAsItReturns() {
+        final List<FloatingTab> unchainedTabs = new ArrayList<>();
+        mCoordinator.setOnTabUnchainedListener(new TabChainCoordinator.OnTabUnchainedListener() {
+            @Override
+            public void onTabUnchained(@NonNull FloatingTab tab) {
+                unchainedTabs.add(tab);
+            }
+        });
+        List<TestFloatingTab> tabs = addTabs("a", "b", "c");
+        mCoordinator.add(1, null);
+
+        int unchainCount = mCoordinator.unchainStaggered(tabs.get(1), 50);
+        assertEquals(0, mCoordinator.size());
+
+        mFrameSource.runFrame(1000);
+        mFrameSource.runFrame(1050);
+        mFrameSource.runFrame(1100);
+
+        // "c" is one slot from the kept "b" and "a" is two, past the placeholder.
+        assertEquals("[c.disappear, a.disappear]", mCalls.toString());
+        assertEquals(2, unchainCount);
+        assertEquals(unchainCount, unchainedTabs.size());
+    }
+
+    @Test
+    public void movingTheAnchorMovesEachTabsDockInPlace() {
+        List<TestFloatingTab> tabs = addTabs("a", "b");
+        final int[] dockChangeCount = new int[1];
+        tabs.get(1).addOnDockChangeListener(new FloatingTab.OnDockChangeListener() {
+            @Override
+            public void onDockChange(@NonNull Dock dock) {
+                ++dockChangeCount[0];
+            }
+        });
+        Dock dock = tabs.get(1).getDock();
+
+        mCoordinator.setAnchor(100, 50);
+        assertSame(dock, tabs.get(1).getDock());
+        assertEquals(100 - TAB_SPACING, tabs.get(1).getDockPosition().x);
+        assertEquals(50, tabs.get(1).getDockPosition().y);
+        assertEquals(1, dockChangeCount[0]);
+
+        // An anchor that doesn't move re-docks nothing.
+        mCoordinator.setAnchor(100, 50);
+        assertEquals(1, dockChangeCount[0]);
+    }
+
+    private List<TestFloatingTab> addTabs(String... ids) {
+        List<TestFloatingTab> tabs = new ArrayList<>();
+        for (String id : ids) {
+            TestFloatingTab tab = new TestFloatingTab(id);
+            mCoordinator.add(tab);
+            tabs.add(tab);
+        }
+        return tabs;
+    }
+
+    // Records the moves the coordinator asks for instead of animating them.
+    private class TestFloatingTab extends FloatingTab {
+        TestFloatingTab(@NonNull String tabId) {
+            super(null, tabId);
+        }
+
+        @Override
+        public Resources getResources() {
+            // The android.jar stubs have no resources, so every dimension is 0.
+            return new Resources((AssetManager) null, null, null);
+        }
+
+        @Override
+        public void dock() {
+            mCalls.add(getTabId() + ".dock");
+        }
+
+        @Override
+        public void dockImmediately() {
+            mCalls.add(getTabId() + ".dockImmediately");
+        }
+
+        @Override
+        public void appear(@Nullable Runnable onAppeared) {
+            mCalls.add(getTabId() + ".appear");
+        }
+
+        @Override
+        public void disappear(@Nullable Runnable onDisappeared) {
+            mCalls.add(getTabId() + ".disappear");
+            if (null != onDisappeared) {
+                onDisappeared.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TabRowViewportTest {
+
+    // Tab 0 is centered at ANCHOR_X and tab i at ANCHOR_X - i * TAB_SPACING.  Unscrolled, tabs 0
+    // to 5 are at least partly within the viewport.
+    private static final int ANCHOR_X = 1000;
+    private static final int TAB_SPACING = 200;
+    private static final int TAB_SIZE = 100;
+    private static final int VIEWPORT_WIDTH = 1080;
+    private static final int OVERSCAN_TAB_COUNT = 1;
+    private static final int LONG_ROW_TAB_COUNT = 20;
+    // Scrolled this far, the last tab of the long row has its left edge at 0.
+    private static final int LONG_ROW_MAX_SCROLL_OFFSET = (LONG_ROW_TAB_COUNT - 1) * TAB_SPACING + TAB_SIZE / 2 - ANCHOR_X;
+
+    private TabRowViewport mViewport;
+
+    @Before
+    public void setUp() {
+        mViewport = new TabRowViewport(OVERSCAN_TAB_COUNT);
+        mViewport.setGeometry(ANCHOR_X, TAB_SPACING, TAB_SIZE, VIEWPORT_WIDTH);
+    }
+
+    @Test
+    public void emptyRowMaterializesNothingAndDoesNotScroll() {
+        mViewport.setTabCount(0);
+
+        assertTrue(mViewport.getLastMaterializedIndex() < mViewport.getFirstMaterializedIndex());
+        assertFalse(mViewport.isMaterialized(0));
+        assertEquals(0, mViewport.scrollBy(100));
+        assertEquals(0, mViewport.getScrollOffset());
+    }
+
+    @Test
+    public void rowShorterThanTheViewportMaterializesEveryTabAndDoesNotScroll() {
+        mViewport.setTabCount(3);
+
+        assertEquals(0, mViewport.getFirstMaterializedIndex());
+        assertEquals(2, mViewport.getLastMaterializedIndex());
+        assertEquals(0, mViewport.scrollBy(100));
+        assertEquals(0, mViewport.scrollBy(-100));
+    }
+
+    @Test
+    public void scrollingStopsAtBothEnds() {
+        mViewport.setTabCount(LONG_ROW_TAB_COUNT);
+
+        assertEquals(0, mViewport.scrollBy(-100));
+        assertEquals(0, mViewport.getScrollOffset());
+
+        assertEquals(LONG_ROW_MAX_SCROLL_OFFSET, mViewport.scrollBy(10000));
+        assertEquals(LONG_ROW_MAX_SCROLL_OFFSET, mViewport.getScrollOffset());
+        assertEquals(TAB_SIZE / 2, mViewport.getTabCenterX(LONG_ROW_TAB_COUNT - 1));
+        assertEquals(0, mViewport.scrollBy(100));
+
+        mViewport.setScrollOffset(-50);
+        assertEquals(0, mViewport.getScrollOffset());
+    }
+
+    @Test
+    public void overscanStopsAtTheEndsOfTheRow() {
+        mViewport.setTabCount(LONG_ROW_TAB_COUNT);
+
+        // Tabs 0 to 5 are visible.  There is no tab before 0 to overscan to.
+        assertEquals(0, mViewport.getFirstMaterializedIndex());
+        assertEquals(5 + OVERSCAN_TAB_COUNT, mViewport.getLastMaterializedIndex());
+
+        // Tabs 14 to 19 are visible.  There is no tab after 19 to overscan to.
+        mViewport.scrollBy(10000);
+        assertEquals(14 - OVERSCAN_TAB_COUNT, mViewport.getFirstMaterializedIndex());
+        assertEquals(LONG_ROW_TAB_COUNT - 1, mViewport.getLastMaterializedIndex());
+        assertFalse(mViewport.isMaterialized(14 - OVERSCAN_TAB_COUNT - 1));
+    }
+
+    @Test
+    public void scrollToShowBringsTheLastAndFirstTabsFullyIntoView() {
+        mViewport.setTabCount(LONG_ROW_TAB_COUNT);
+
+        mViewport.scrollToShow(LONG_ROW_TAB_COUNT - 1);
+        assertEquals(LONG_ROW_MAX_SCROLL_OFFSET, mViewport.getScrollOffset());
+        assertEquals(0, mViewport.getTabCenterX(LONG_ROW_TAB_COUNT - 1) - TAB_SIZE / 2);
+        assertTrue(mViewport.isMaterialized(LONG_ROW_TAB_COUNT - 1));
+
+        mViewport.scrollToShow(0);
+        assertEquals(VIEWPORT_WIDTH, mViewport.getTabCenterX(0) + TAB_SIZE / 2);
+        assertTrue(mViewport.isMaterialized(0));
+    }
+
+    @Test
+    public void scrollToShowLeavesAVisibleTabInPlace() {
+        mViewport.setTabCount(LONG_ROW_TAB_COUNT);
+
+        mViewport.scrollToShow(2);
+
+        assertEquals(0, mViewport.getScrollOffset());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link HoverMenu} whose {@link HoverMenu.Section}s are set by the test, for JVM tests that
+ * cannot create {@code View}s.
+ */
+class TestHoverMenu extends HoverMenu {
+
+    private List<Section> mSections = new ArrayList<>();
+
+    void setSections(Section... sections) {
+        setSections(Arrays.asList(sections));
+    }
+
+    void setSections(@NonNull List<? extends Section> sections) {
+        mSections = new ArrayList<>(sections);
+    }
+
+    @Override
+    public String getId() {
+        return "test";
+    }
+
+    @Override
+    public int getSectionCount() {
+        return mSections.size();
+    }
+
+    @Nullable
+    @Override
+    public Section getSection(int index) {
+        return mSections.get(index);
+    }
+
+    @Nullable
+    @Override
+    public Section getSection(@NonNull SectionId sectionId) {
+        for (Section section : mSections) {
+            if (sectionId.equals(section.getId())) {
+                return section;
+            }
+        }
+        return null;
+    }
+
+    @NonNull
+    @Override
+    public List<Section> getSections() {
+        return mSections;
+    }
+
+    /**
+     * A {@code Section} without {@code View}s or {@code Content}.  Sections with the same ID and
+     * version have the same contents; otherwise their {@code Content} changed.
+     */
+    static class TestSection extends HoverMenu.Section {
+        private final int mVersion;
+
+        TestSection(@NonNull String id) {
+            this(new SectionId(id), 0);
+        }
+
+        TestSection(@NonNull SectionId id, int version) {
+            super(id, null, null);
+            mVersion = version;
+        }
+
+        @Override
+        public int getChangesFrom(@NonNull HoverMenu.Section oldSection) {
+            return ((TestSection) oldSection).mVersion == mVersion ? 0 : CHANGE_CONTENT;
+        }
+    }
+}
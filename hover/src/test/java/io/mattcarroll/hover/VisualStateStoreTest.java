@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016 Google Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.mattcarroll.hover;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class VisualStateStoreTest {
+
+    private static final String MENU_ID = "menu";
+
+    private CountingStorage mStorage;
+    private VisualStateStore mStore;
+
+    @Before
+    public void setUp() {
+        mStorage = new CountingStorage();
+        mStore = new VisualStateStore(mStorage);
+    }
+
+    @Test
+    public void readsEachMenuFromStorageOnce() {
+        mStorage.mSavedStates.put(MENU_ID, new VisualStateStorage.MenuState(SideDock.SidePosition.LEFT, 0.3f, "a"));
+
+        for (int i = 0; i < 10; ++i) {
+            assertEquals("a", mStore.get(MENU_ID).getSelectedSectionId());
+            assertNull(mStore.get("other"));
+        }
+
+        assertEquals(2, mStorage.mReadCount);
+    }
+
+    @Test
+    public void repeatedDocksAtTheSamePlaceCostNoWrites() {
+        assertTrue(mStore.put(MENU_ID, SideDock.SidePosition.RIGHT, 0.5f, "a"));
+        for (int i = 0; i < 100; ++i) {
+            assertFalse(mStore.put(MENU_ID, SideDock.SidePosition.RIGHT, 0.5f, "a"));
+        }
+        mStore.flush();
+        mStore.flush();
+
+        assertEquals(1, mStorage.mWriteCount);
+    }
+
+    @Test
+    public void changesAreOnlyWrittenWhenFlushed() {
+        for (int i = 0; i < 100; ++i) {
+            mStore.put(MENU_ID, i % 2 == 0 ? SideDock.SidePosition.LEFT : SideDock.SidePosition.RIGHT, i / 100f, "a");
+        }
+        assertEquals(0, mStorage.mWriteCount);
+        assertTrue(mStore.isDirty());
+
+        mStore.flush();
+
+        assertEquals(1, mStorage.mWriteCount);
+        assertFalse(mStore.isDirty());
+        assertEquals(new VisualStateStorage.MenuState(SideDock.SidePosition.RIGHT, 0.99f, "a"), mStorage.mSavedStates.get(MENU_ID));
+    }
+
+    @Test
+    public void writesOnlyTheMenusThatChanged() {
+        mStore.put(MENU_ID, SideDock.SidePosition.LEFT, 0.5f, null);
+        mStore.put("other", SideDock.SidePosition.LEFT, 0.5f, null);
+        mStore.flush();
+
+        mStore.put("other", SideDock.SidePosition.RIGHT, 0.5f, null);
+        mStore.flush();
+
+        assertEquals(2, mStorage.mWriteCount);
+        assertEquals(1, mStorage.mLastWriteSize);
+    }
+
+    @Test
+    public void invalidatingRereadsStorageButKeepsUnflushedChanges() {
+        mStorage.mSavedStates.put(MENU_ID, new VisualStateStorage.MenuState(SideDock.SidePosition.LEFT, 0.3f, "a"));
+        mStore.get(MENU_ID);
+        mStore.put("other", SideDock.SidePosition.LEFT, 0.5f, "b");
+
+        mStorage.mSavedStates.put(MENU_ID, new VisualStateStorage.MenuState(SideDock.SidePosition.LEFT, 0.3f, "edited"));
+        mStore.invalidateAll();
+
+        assertEquals("edited", mStore.get(MENU_ID).getSelectedSectionId());
+        assertEquals("b", mStore.get("other").getSelectedSectionId());
+        assertTrue(mStore.isDirty());
+    }
+
+    private static class CountingStorage implements VisualStateStorage {
+        private final Map<String, MenuState> mSavedStates = new HashMap<>();
+        private int mReadCount;
+        private int mWriteCount;
+        private int mLastWriteSize;
+
+        @Nullable
+        @Override
+        public MenuState read(@NonNull String menuId) {
+            ++mReadCount;
+            return mSavedStates.get(menuId);
+        }
+
+        @Override
+        public void write(@NonNull Map<String, MenuState> changedStates) {
+            ++mWriteCount;
+            mLastWriteSize = changedStates.size();
+            mSavedStates.putAll(changedStates);
+        }
+    }
+}